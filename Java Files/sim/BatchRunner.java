@@ -0,0 +1,186 @@
+package sim;
+
+import sim.model.Flight;
+import sim.service.HistoryFidelity;
+import sim.service.ScenarioFile;
+import sim.service.SimulationEngine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless entry point: runs scenario files ({@link ScenarioFile}) without a display
+ * and writes, per scenario, {@code <name>.intervals.csv} (queue totals per interval)
+ * and {@code <name>.flights.csv} (passengers and misses per flight).
+ *
+ * Only touches the engine and model, never AWT, Swing or JFreeChart, so it starts
+ * quickly and runs on machines without a display.
+ *
+ * <pre>
+ * java -cp ... sim.BatchRunner [-o dir] [-j jobs] [--seed n] scenario|directory ...
+ * </pre>
+ */
+public class BatchRunner {
+    private static final String SCENARIO_SUFFIX = ".scenario";
+
+    public static void main(String[] args) {
+        Path outDir = Paths.get(".");
+        int jobs = 1;
+        Long seed = null;
+        List<Path> scenarios = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-o": case "--out":  outDir = Paths.get(argument(args, ++i)); break;
+                    case "-j": case "--jobs": jobs = Math.max(1, Integer.parseInt(argument(args, ++i))); break;
+                    case "--seed":            seed = Long.parseLong(argument(args, ++i)); break;
+                    case "-h": case "--help": usage(); return;
+                    default:                  addScenarios(Paths.get(args[i]), scenarios);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(2);
+        }
+        if (scenarios.isEmpty()) {
+            usage();
+            System.exit(2);
+        }
+
+        int failed = run(scenarios, outDir, jobs, seed);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static void usage() {
+        System.err.println("usage: sim.BatchRunner [-o dir] [-j jobs] [--seed n] scenario|directory ...");
+        System.err.println("  -o, --out dir   where the CSV files go (default: current directory)");
+        System.err.println("  -j, --jobs n    scenarios run at once (default: 1)");
+        System.err.println("  --seed n        stochastic arrivals and service, reproducible from n");
+        System.err.println("  a directory stands for its *" + SCENARIO_SUFFIX + " files");
+    }
+
+    private static String argument(String[] args, int i) {
+        if (i >= args.length) throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        return args[i];
+    }
+
+    private static void addScenarios(Path path, List<Path> scenarios) throws IOException {
+        if (!Files.isDirectory(path)) {
+            scenarios.add(path);
+            return;
+        }
+        List<Path> found = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(path, "*" + SCENARIO_SUFFIX)) {
+            for (Path p : dir) found.add(p);
+        }
+        found.sort(null);
+        scenarios.addAll(found);
+    }
+
+    /** @return number of scenarios that failed */
+    static int run(List<Path> scenarios, Path outDir, int jobs, Long seed) {
+        try {
+            Files.createDirectories(outDir);
+        } catch (IOException e) {
+            System.err.println("Cannot create " + outDir + ": " + e.getMessage());
+            return scenarios.size();
+        }
+
+        // one stream per scenario, split in argument order so --jobs does not change results
+        SplittableRandom master = seed == null ? null : new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (Path scenario : scenarios) {
+                SplittableRandom stream = master == null ? null : master.split();
+                results.add(pool.submit(() -> runScenario(scenario, outDir, stream)));
+            }
+
+            int failed = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    System.out.println(results.get(i).get());
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println(scenarios.get(i) + ": FAILED: " + e.getCause());
+                }
+            }
+            return failed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return scenarios.size();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** @return one summary line */
+    private static String runScenario(Path scenario, Path outDir, SplittableRandom stream) throws IOException {
+        long start = System.nanoTime();
+        SimulationEngine engine = ScenarioFile.read(scenario);
+        engine.setHistoryFidelity(HistoryFidelity.NONE);
+        engine.setSnapshotMemoryBudgetBytes(0);
+        if (stream != null) engine.setRandomStream(stream, true, true);
+        engine.runAllIntervals();
+
+        String name = scenario.getFileName().toString();
+        if (name.endsWith(SCENARIO_SUFFIX)) name = name.substring(0, name.length() - SCENARIO_SUFFIX.length());
+        writeIntervals(engine, outDir.resolve(name + ".intervals.csv"));
+        int[] totals = writeFlights(engine, outDir.resolve(name + ".flights.csv"));
+
+        return String.format("%s: %d intervals, %d passengers, %d missed (%d ms)",
+                name, engine.getTotalIntervals(), totals[0], totals[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void writeIntervals(SimulationEngine engine, Path file) throws IOException {
+        Map<Integer, Integer> heldUp = engine.getHoldUpsByInterval();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("interval,ticket_queued,checkpoint_queued,hold_room_total,held_up");
+            for (int t = 0; t <= engine.getTotalIntervals(); t++) {
+                out.println(t + "," + engine.getTicketQueuedAtInterval(t)
+                        + "," + engine.getCheckpointQueuedAtInterval(t)
+                        + "," + engine.getHoldRoomTotalAtInterval(t)
+                        + "," + heldUp.getOrDefault(t, 0));
+            }
+            if (out.checkError()) throw new IOException("Could not write " + file);
+        }
+    }
+
+    /** @return {passengers, missed} over all flights */
+    private static int[] writeFlights(SimulationEngine engine, Path file) throws IOException {
+        int[] totals = new int[2];
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("flight,departure,passengers,boarded,missed");
+            for (Flight flight : engine.getFlights()) {
+                int passengers = engine.getPassengerCount(flight);
+                int missed = engine.getMissedCount(flight);
+                out.println(csv(flight.getFlightNumber()) + "," + flight.getDepartureTime()
+                        + "," + passengers + "," + (passengers - missed) + "," + missed);
+                totals[0] += passengers;
+                totals[1] += missed;
+            }
+            if (out.checkError()) throw new IOException("Could not write " + file);
+        }
+        return totals;
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,4 +1,4 @@
-package sim.ui;
+package sim.model;
 
 import sim.model.Flight;
 
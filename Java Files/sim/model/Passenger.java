@@ -1,24 +1,15 @@
 package sim.model;
 
+/**
+ * Thin view over one passenger record in a {@link PassengerStore}.
+ * Getters/setters read and write the store directly, so two views of the same id
+ * compare equal. A view is pinned to an interval: its getters show the passenger
+ * as of that interval (see {@link PassengerStore}), setters always write the latest state.
+ */
 public class Passenger {
-    private final Flight flight;
-    private final int arrivalMinute;            // minute they arrived at airport
-    private final boolean inPerson;             // true = bought in person, false = online
-
-    private int ticketCompletionMinute;         // minute they finished at ticket counter
-    private int checkpointEntryMinute;          // minute they entered checkpoint queue
-    private int checkpointCompletionMinute;     // minute they finished at checkpoint
-
-    // Tracks if passenger missed their flight (boarding closed before checkpoint completion)
-    private boolean missed = false;
-
-    // hold-room entry minute (relative to start) and arrival order
-    private int holdRoomEntryMinute  = -1;
-    private int holdRoomSequence     = -1;
-
-    // NEW: once a flight is assigned to a single physical hold room, each passenger carries that assignment
-    // Index into engine's holdRoomLines / holdRoomConfigs list
-    private int assignedHoldRoomIndex = -1;
+    private final PassengerStore store;
+    private final int id;
+    private final int asOf;
 
     /**
      * Old-style constructor: defaults to in-person, unknown minute
@@ -36,59 +27,72 @@ public class Passenger {
 
     /**
      * New full constructor: specify arrivalMinute *and* whether in person
+     * (backed by its own single-entry store)
      */
     public Passenger(Flight flight, int arrivalMinute, boolean inPerson) {
-        this.flight         = flight;
-        this.arrivalMinute  = arrivalMinute;
-        this.inPerson       = inPerson;
+        this.store = new PassengerStore(1);
+        this.id    = store.add(flight, arrivalMinute, inPerson);
+        this.asOf  = PassengerStore.LIVE;
+    }
+
+    /** View constructor, see {@link PassengerStore#view(int, int)} */
+    Passenger(PassengerStore store, int id, int asOf) {
+        this.store = store;
+        this.id    = id;
+        this.asOf  = asOf;
+    }
+
+    /** @return id of this passenger inside its store */
+    public int getId() {
+        return id;
     }
 
     /** @return the flight this passenger is on */
     public Flight getFlight() {
-        return flight;
+        return store.getFlight(id);
     }
 
     /** @return minute they arrived at the airport (relative to schedule start) */
     public int getArrivalMinute() {
-        return arrivalMinute;
+        return store.getArrivalMinute(id);
     }
 
     /** @return true if this passenger bought their ticket in person */
     public boolean isInPerson() {
-        return inPerson;
+        return store.isInPerson(id);
     }
 
     /**
      * @return Minute when this passenger finished service at the ticket counter
      */
     public int getTicketCompletionMinute() {
-        return ticketCompletionMinute;
+        return store.getTicketCompletionMinute(id, asOf);
     }
 
     public void setTicketCompletionMinute(int ticketCompletionMinute) {
-        this.ticketCompletionMinute = ticketCompletionMinute;
+        store.setTicketCompletionMinute(id, ticketCompletionMinute);
     }
 
     /**
      * @return Minute when this passenger entered the checkpoint queue
      */
     public int getCheckpointEntryMinute() {
-        return checkpointEntryMinute;
+        return store.getCheckpointEntryMinute(id, asOf);
     }
 
     public void setCheckpointEntryMinute(int checkpointEntryMinute) {
-        this.checkpointEntryMinute = checkpointEntryMinute;
+        store.setCheckpointEntryMinute(id, checkpointEntryMinute);
     }
 
     /**
      * @return Minute when this passenger finished service at the checkpoint
      */
     public int getCheckpointCompletionMinute() {
-        return checkpointCompletionMinute;
+        return store.getCheckpointCompletionMinute(id, asOf);
     }
 
     public void setCheckpointCompletionMinute(int checkpointCompletionMinute) {
-        this.checkpointCompletionMinute = checkpointCompletionMinute;
+        store.setCheckpointCompletionMinute(id, checkpointCompletionMinute);
     }
 
     /**
@@ -96,7 +100,7 @@ public class Passenger {
      * @param missed true if passenger missed their flight
      */
     public void setMissed(boolean missed) {
-        this.missed = missed;
+        store.setMissed(id, missed);
     }
 
     /**
@@ -104,32 +108,45 @@ public class Passenger {
      * @return true if passenger missed flight, otherwise false
      */
     public boolean isMissed() {
-        return missed;
+        return store.isMissed(id, asOf);
     }
 
     /** When did they arrive in the hold-room? */
     public int getHoldRoomEntryMinute() {
-        return holdRoomEntryMinute;
+        return store.getHoldRoomEntryMinute(id, asOf);
     }
     public void setHoldRoomEntryMinute(int m) {
-        this.holdRoomEntryMinute = m;
+        store.setHoldRoomEntryMinute(id, m);
     }
 
     /** What number were they in arrival order to the hold-room? */
     public int getHoldRoomSequence() {
-        return holdRoomSequence;
+        return store.getHoldRoomSequence(id, asOf);
     }
     public void setHoldRoomSequence(int seq) {
-        this.holdRoomSequence = seq;
+        store.setHoldRoomSequence(id, seq);
     }
 
     /** NEW: Which physical hold room was this passenger assigned to (index)? */
     public int getAssignedHoldRoomIndex() {
-        return assignedHoldRoomIndex;
+        return store.getAssignedHoldRoomIndex(id, asOf);
     }
 
     /** NEW: Set assigned physical hold room index */
     public void setAssignedHoldRoomIndex(int idx) {
-        this.assignedHoldRoomIndex = idx;
+        store.setAssignedHoldRoomIndex(id, idx);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Passenger)) return false;
+        Passenger other = (Passenger) o;
+        return store == other.store && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + id;
     }
 }
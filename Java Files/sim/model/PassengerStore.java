@@ -0,0 +1,266 @@
+package sim.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays passenger storage.
+ *
+ * Every passenger is a dense int id; each attribute lives in its own primitive
+ * array indexed by that id. The engine moves ids between its lines and only
+ * builds {@link Passenger} views when the UI asks for one.
+ *
+ * Unset minute defaults match the old Passenger fields:
+ * ticket/checkpoint minutes start at 0, hold-room fields, ticket counter,
+ * assigned room and missed minute at -1.
+ *
+ * Versioned reads: the engine writes each field once, at a known minute (the
+ * *Minute fields carry it themselves, the others share it with a related field).
+ * The {@code asOf} getters hide everything written at or after an interval, so a
+ * view of an earlier interval shows that interval's state and not the frontier's.
+ */
+public class PassengerStore {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    /** asOf value for views that always show the latest state */
+    public static final int LIVE = Integer.MAX_VALUE;
+
+    private static final byte FLAG_IN_PERSON = 1;
+    private static final byte FLAG_MISSED    = 2;
+
+    // flight table (flights are stored once, passengers keep an index)
+    private final List<Flight> flightTable = new ArrayList<>();
+    private final Map<Flight, Integer> flightIndex = new IdentityHashMap<>();
+
+    private int size;
+    private int viewInterval = LIVE;   // interval that new views are pinned to
+
+    private int[]  flightIdx;
+    private int[]  arrivalMinute;
+    private byte[] flags;
+    private int[]  ticketCompletionMinute;
+    private int[]  checkpointEntryMinute;
+    private int[]  checkpointCompletionMinute;
+    private int[]  holdRoomEntryMinute;
+    private int[]  holdRoomSequence;
+    private int[]  assignedHoldRoomIndex;
+    private int[]  ticketCounterIndex;
+    private int[]  missedMinute;
+
+    public PassengerStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PassengerStore(int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    // ============================
+    // Creation
+    // ============================
+
+    /** Adds a passenger and returns its id. */
+    public int add(Flight flight, int arrivalMinute, boolean inPerson) {
+        return add(indexOf(flight), arrivalMinute, inPerson);
+    }
+
+    /** Adds a passenger for an already-registered flight index and returns its id. */
+    public int add(int flightIndex, int arrivalMinute, boolean inPerson) {
+        return addCohort(flightIndex, arrivalMinute, inPerson, 1);
+    }
+
+    /**
+     * Adds {@code count} passengers of one arrival batch (same flight, minute and
+     * purchase type) as a block of consecutive ids.
+     *
+     * @return id of the first passenger of the block
+     */
+    public int addCohort(int flightIndex, int arrivalMinute, boolean inPerson, int count) {
+        if (size + count > this.flightIdx.length) grow(size + count);
+        int from = size;
+        int to = size + count;
+        Arrays.fill(this.flightIdx, from, to, flightIndex);
+        Arrays.fill(this.arrivalMinute, from, to, arrivalMinute);
+        Arrays.fill(this.flags, from, to, inPerson ? FLAG_IN_PERSON : 0);
+        Arrays.fill(this.ticketCompletionMinute, from, to, 0);
+        Arrays.fill(this.checkpointEntryMinute, from, to, 0);
+        Arrays.fill(this.checkpointCompletionMinute, from, to, 0);
+        Arrays.fill(this.holdRoomEntryMinute, from, to, -1);
+        Arrays.fill(this.holdRoomSequence, from, to, -1);
+        Arrays.fill(this.assignedHoldRoomIndex, from, to, -1);
+        Arrays.fill(this.ticketCounterIndex, from, to, -1);
+        Arrays.fill(this.missedMinute, from, to, -1);
+        size = to;
+        return from;
+    }
+
+    /** Index of {@code flight} in the flight table, registering it on first use. */
+    public int indexOf(Flight flight) {
+        Integer idx = flightIndex.get(flight);
+        if (idx != null) return idx;
+        int next = flightTable.size();
+        flightTable.add(flight);
+        flightIndex.put(flight, next);
+        return next;
+    }
+
+    public Flight flightAt(int flightIndex) {
+        return flightTable.get(flightIndex);
+    }
+
+    /** @return number of registered flights */
+    public int flightCount() {
+        return flightTable.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Drops every passenger; the flight table is kept. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** View over a single passenger as of the current view interval (cheap, not cached). */
+    public Passenger view(int id) {
+        return new Passenger(this, id, viewInterval);
+    }
+
+    /** View over a single passenger as of {@code asOf} (see the class comment). */
+    public Passenger view(int id, int asOf) {
+        return new Passenger(this, id, asOf);
+    }
+
+    /** Interval the engine is showing; {@link #view(int)} pins new views to it. */
+    public void setViewInterval(int interval) {
+        viewInterval = interval;
+    }
+
+    public int getViewInterval() {
+        return viewInterval;
+    }
+
+    // ============================
+    // Field access
+    // ============================
+
+    public int getFlightIndex(int id) { return flightIdx[id]; }
+    public Flight getFlight(int id) { return flightTable.get(flightIdx[id]); }
+    public int getArrivalMinute(int id) { return arrivalMinute[id]; }
+    public boolean isInPerson(int id) { return (flags[id] & FLAG_IN_PERSON) != 0; }
+
+    public boolean isMissed(int id) { return (flags[id] & FLAG_MISSED) != 0; }
+    public void setMissed(int id, boolean missed) {
+        flags[id] = (byte) (missed ? (flags[id] | FLAG_MISSED) : (flags[id] & ~FLAG_MISSED));
+        if (!missed) missedMinute[id] = -1;
+    }
+
+    /** Marks the passenger missed at {@code minute} (the engine retires them after that minute). */
+    public void markMissed(int id, int minute) {
+        flags[id] |= FLAG_MISSED;
+        missedMinute[id] = minute;
+    }
+
+    /** @return minute the passenger was marked missed, or -1 */
+    public int getMissedMinute(int id) { return missedMinute[id]; }
+
+    public int getTicketCompletionMinute(int id) { return ticketCompletionMinute[id]; }
+    public void setTicketCompletionMinute(int id, int m) { ticketCompletionMinute[id] = m; }
+
+    public int getCheckpointEntryMinute(int id) { return checkpointEntryMinute[id]; }
+    public void setCheckpointEntryMinute(int id, int m) { checkpointEntryMinute[id] = m; }
+
+    public int getCheckpointCompletionMinute(int id) { return checkpointCompletionMinute[id]; }
+    public void setCheckpointCompletionMinute(int id, int m) { checkpointCompletionMinute[id] = m; }
+
+    public int getHoldRoomEntryMinute(int id) { return holdRoomEntryMinute[id]; }
+    public void setHoldRoomEntryMinute(int id, int m) { holdRoomEntryMinute[id] = m; }
+
+    public int getHoldRoomSequence(int id) { return holdRoomSequence[id]; }
+    public void setHoldRoomSequence(int id, int seq) { holdRoomSequence[id] = seq; }
+
+    public int getAssignedHoldRoomIndex(int id) { return assignedHoldRoomIndex[id]; }
+    public void setAssignedHoldRoomIndex(int id, int idx) { assignedHoldRoomIndex[id] = idx; }
+
+    /** Ticket counter that served this passenger (-1 = online / not served yet) */
+    public int getTicketCounterIndex(int id) { return ticketCounterIndex[id]; }
+    public void setTicketCounterIndex(int id, int idx) { ticketCounterIndex[id] = idx; }
+
+    // ============================
+    // As-of field access
+    // ============================
+
+    public boolean isMissed(int id, int asOf) {
+        if ((flags[id] & FLAG_MISSED) == 0) return false;
+        int m = missedMinute[id];
+        return m < 0 || m < asOf;   // no stamp: set from outside the engine, always shown
+    }
+
+    public int getTicketCompletionMinute(int id, int asOf) {
+        return ticketCompletionMinute[id] < asOf ? ticketCompletionMinute[id] : 0;
+    }
+
+    public int getCheckpointEntryMinute(int id, int asOf) {
+        return checkpointEntryMinute[id] < asOf ? checkpointEntryMinute[id] : 0;
+    }
+
+    public int getCheckpointCompletionMinute(int id, int asOf) {
+        return checkpointCompletionMinute[id] < asOf ? checkpointCompletionMinute[id] : 0;
+    }
+
+    public int getHoldRoomEntryMinute(int id, int asOf) {
+        return holdRoomEntryMinute[id] < asOf ? holdRoomEntryMinute[id] : -1;
+    }
+
+    /** Set together with the hold-room entry minute. */
+    public int getHoldRoomSequence(int id, int asOf) {
+        return holdRoomEntryMinute[id] < asOf ? holdRoomSequence[id] : -1;
+    }
+
+    /** Set when the checkpoint is completed. */
+    public int getAssignedHoldRoomIndex(int id, int asOf) {
+        return checkpointCompletionMinute[id] < asOf ? assignedHoldRoomIndex[id] : -1;
+    }
+
+    /** Set when the ticket counter is completed. */
+    public int getTicketCounterIndex(int id, int asOf) {
+        return ticketCompletionMinute[id] < asOf ? ticketCounterIndex[id] : -1;
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    private void allocate(int capacity) {
+        flightIdx = new int[capacity];
+        arrivalMinute = new int[capacity];
+        flags = new byte[capacity];
+        ticketCompletionMinute = new int[capacity];
+        checkpointEntryMinute = new int[capacity];
+        checkpointCompletionMinute = new int[capacity];
+        holdRoomEntryMinute = new int[capacity];
+        holdRoomSequence = new int[capacity];
+        assignedHoldRoomIndex = new int[capacity];
+        ticketCounterIndex = new int[capacity];
+        missedMinute = new int[capacity];
+    }
+
+    private void grow(int minCapacity) {
+        int n = Math.max(minCapacity, flightIdx.length * 2);
+        flightIdx = Arrays.copyOf(flightIdx, n);
+        arrivalMinute = Arrays.copyOf(arrivalMinute, n);
+        flags = Arrays.copyOf(flags, n);
+        ticketCompletionMinute = Arrays.copyOf(ticketCompletionMinute, n);
+        checkpointEntryMinute = Arrays.copyOf(checkpointEntryMinute, n);
+        checkpointCompletionMinute = Arrays.copyOf(checkpointCompletionMinute, n);
+        holdRoomEntryMinute = Arrays.copyOf(holdRoomEntryMinute, n);
+        holdRoomSequence = Arrays.copyOf(holdRoomSequence, n);
+        assignedHoldRoomIndex = Arrays.copyOf(assignedHoldRoomIndex, n);
+        ticketCounterIndex = Arrays.copyOf(ticketCounterIndex, n);
+        missedMinute = Arrays.copyOf(missedMinute, n);
+    }
+}
@@ -0,0 +1,49 @@
+package sim.service;
+
+import java.util.Arrays;
+
+/**
+ * Run-length list of passenger ids.
+ *
+ * Each entry is a cohort of consecutive ids, i.e. one per-minute arrival batch of
+ * a flight (the store hands out a batch's ids in one block). Memory and iteration
+ * overhead depend on the number of batches, not the number of passengers; a cohort
+ * that directly follows the previous one is merged into it.
+ */
+public class CohortList {
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private int[] firstIds = new int[DEFAULT_CAPACITY];
+    private int[] counts = new int[DEFAULT_CAPACITY];
+    private int cohorts;
+    private int size;
+
+    /** Appends ids {@code firstId .. firstId + count - 1}. */
+    public void add(int firstId, int count) {
+        if (count <= 0) return;
+        size += count;
+        if (cohorts > 0 && firstIds[cohorts - 1] + counts[cohorts - 1] == firstId) {
+            counts[cohorts - 1] += count;
+            return;
+        }
+        if (cohorts == firstIds.length) {
+            firstIds = Arrays.copyOf(firstIds, cohorts * 2);
+            counts = Arrays.copyOf(counts, cohorts * 2);
+        }
+        firstIds[cohorts] = firstId;
+        counts[cohorts] = count;
+        cohorts++;
+    }
+
+    public int cohortCount() { return cohorts; }
+    public int firstId(int cohort) { return firstIds[cohort]; }
+    public int count(int cohort) { return counts[cohort]; }
+
+    /** @return number of ids over all cohorts */
+    public int size() { return size; }
+
+    public void clear() {
+        cohorts = 0;
+        size = 0;
+    }
+}
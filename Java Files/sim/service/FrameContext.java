@@ -0,0 +1,74 @@
+package sim.service;
+
+import sim.model.Flight;
+import sim.model.HoldRoomConfig;
+import sim.model.TicketCounterConfig;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The run configuration that every {@link IntervalFrame} of one engine shares: what
+ * the renderers draw besides the lines (counter labels, hold rooms, the clock, the
+ * arrival curves). Fixed once the run starts, so it is safe to read from any thread.
+ */
+public final class FrameContext {
+    private final List<Flight> flights;
+    private final List<TicketCounterConfig> counterConfigs;
+    private final List<HoldRoomConfig> holdRoomConfigs;
+    private final Map<Flight, int[]> minuteArrivals;
+    private final boolean legacyArrivalCurve;
+    private final int[] arrivalsPerInterval;
+    private final int arrivalSpanMinutes;
+    private final int intervalMinutes;
+    private final LocalTime startTime;
+
+    FrameContext(List<Flight> flights,
+                 List<TicketCounterConfig> counterConfigs,
+                 List<HoldRoomConfig> holdRoomConfigs,
+                 Map<Flight, int[]> minuteArrivals,
+                 boolean legacyArrivalCurve,
+                 int[] arrivalsPerInterval,
+                 int arrivalSpanMinutes,
+                 int intervalMinutes,
+                 LocalTime startTime) {
+        this.flights = Collections.unmodifiableList(new ArrayList<>(flights));
+        this.counterConfigs = Collections.unmodifiableList(new ArrayList<>(counterConfigs));
+        this.holdRoomConfigs = Collections.unmodifiableList(new ArrayList<>(holdRoomConfigs));
+        this.minuteArrivals = Collections.unmodifiableMap(new LinkedHashMap<>(minuteArrivals));
+        this.legacyArrivalCurve = legacyArrivalCurve;
+        this.arrivalsPerInterval = arrivalsPerInterval;
+        this.arrivalSpanMinutes = arrivalSpanMinutes;
+        this.intervalMinutes = intervalMinutes;
+        this.startTime = startTime;
+    }
+
+    public List<Flight> getFlights() { return flights; }
+    public List<TicketCounterConfig> getCounterConfigs() { return counterConfigs; }
+    public List<HoldRoomConfig> getHoldRoomConfigs() { return holdRoomConfigs; }
+
+    /** @return per-minute arrivals of each flight, from the start of its arrival span */
+    public Map<Flight, int[]> getMinuteArrivals() { return minuteArrivals; }
+    public boolean isLegacyArrivalCurve() { return legacyArrivalCurve; }
+
+    /** @return passengers arriving in {@code interval} (0 for the initial state) */
+    public int getArrivalsAtInterval(int interval) {
+        return interval >= 0 && interval < arrivalsPerInterval.length ? arrivalsPerInterval[interval] : 0;
+    }
+
+    /** @return minutes before its departure that a flight's passengers start arriving */
+    public int getArrivalSpan() { return arrivalSpanMinutes; }
+    public int getInterval() { return intervalMinutes; }
+
+    /** @return clock time of interval 0 (earliest departure minus the arrival span) */
+    public LocalTime getStartTime() { return startTime; }
+
+    /** @return clock time at the end of history step {@code step} */
+    public LocalTime timeAfterStep(int step) {
+        return startTime.plusMinutes((long) (step + 1) * intervalMinutes);
+    }
+}
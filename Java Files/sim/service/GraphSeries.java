@@ -0,0 +1,123 @@
+package sim.service;
+
+import java.util.Arrays;
+
+/**
+ * The per-interval totals behind the graph tabs, as an immutable prefix: interval
+ * {@code 0 .. size() - 1}. The totals are the engine's queue metrics (taken at the end
+ * of each interval); the per-room counts are hold-room history step {@code i - 1}, with
+ * interval 0 the initial (empty) state.
+ *
+ * The engine appends to shared arrays and hands out prefixes; values below a prefix's
+ * length are never written again, so a prefix can be read on the EDT while the engine
+ * keeps appending on another thread.
+ */
+public final class GraphSeries {
+    static final GraphSeries EMPTY = new GraphSeries(new int[1], new int[1], new int[1], new int[0][], 1);
+
+    private final int[] ticketQueued;
+    private final int[] checkpointQueued;
+    private final int[] holdRoomTotal;
+    private final int[][] holdRooms;      // per room
+    private final int size;
+
+    private GraphSeries(int[] ticketQueued, int[] checkpointQueued, int[] holdRoomTotal, int[][] holdRooms, int size) {
+        this.ticketQueued = ticketQueued;
+        this.checkpointQueued = checkpointQueued;
+        this.holdRoomTotal = holdRoomTotal;
+        this.holdRooms = holdRooms;
+        this.size = size;
+    }
+
+    /** @return number of intervals (at least 1, the initial state) */
+    public int size() { return size; }
+
+    public int getTicketQueued(int interval) { return interval < size ? ticketQueued[interval] : 0; }
+    public int getCheckpointQueued(int interval) { return interval < size ? checkpointQueued[interval] : 0; }
+    public int getHoldRoomTotal(int interval) { return interval < size ? holdRoomTotal[interval] : 0; }
+
+    public int holdRoomCount() { return holdRooms.length; }
+
+    /** @return passengers in hold room {@code room} at {@code interval} */
+    public int getHoldRoom(int room, int interval) {
+        return room < holdRooms.length && interval < size ? holdRooms[room][interval] : 0;
+    }
+
+    /**
+     * Appends the metric values and hold-room rows as they are recorded. Engine thread
+     * only; {@link #current()} may be read from any thread.
+     */
+    static final class Builder {
+        private int[] ticketQueued;
+        private int[] checkpointQueued;
+        private int[] holdRoomTotal;
+        private int[][] holdRooms;
+        private int size;
+        private volatile GraphSeries current = EMPTY;
+
+        Builder() {
+            clear();
+        }
+
+        GraphSeries current() {
+            return current;
+        }
+
+        /** Starts over on fresh arrays (handed-out prefixes keep the old ones). */
+        void clear() {
+            ticketQueued = new int[64];
+            checkpointQueued = new int[64];
+            holdRoomTotal = new int[64];
+            holdRooms = new int[0][];
+            size = 0;
+            current = EMPTY;
+        }
+
+        /**
+         * Catches up with the metric values visible now (a rewound engine shows fewer, so
+         * nothing is added until it is back) and publishes the new prefix.
+         */
+        void update(IntSeries ticketQueuedByInterval, IntSeries checkpointQueuedByInterval,
+                    IntSeries holdRoomTotalByInterval, LineCountHistory holdRoomCounts) {
+            int target = Math.min(ticketQueuedByInterval.end(),
+                    Math.min(checkpointQueuedByInterval.end(), holdRoomTotalByInterval.end()));
+            if (target <= size) return;
+
+            if (target > ticketQueued.length) grow(Math.max(target, ticketQueued.length * 2));
+            int rooms = Math.max(0, holdRoomCounts.lineCount());
+            if (holdRooms.length != rooms) {
+                // room count is known from the first history row on; fill in what came before
+                holdRooms = new int[rooms][ticketQueued.length];
+                fillHoldRooms(holdRoomCounts, 0, size);
+            }
+
+            for (int i = size; i < target; i++) {
+                ticketQueued[i] = ticketQueuedByInterval.get(i, 0);
+                checkpointQueued[i] = checkpointQueuedByInterval.get(i, 0);
+                holdRoomTotal[i] = holdRoomTotalByInterval.get(i, 0);
+            }
+            fillHoldRooms(holdRoomCounts, size, target);
+            size = target;
+            current = new GraphSeries(ticketQueued, checkpointQueued, holdRoomTotal, holdRooms.clone(), size);
+        }
+
+        private void fillHoldRooms(LineCountHistory holdRoomCounts, int from, int to) {
+            int rows = holdRoomCounts.size();
+            for (int r = 0; r < holdRooms.length; r++) {
+                for (int i = from; i < to; i++) {
+                    int step = i - 1;
+                    holdRooms[r][i] = (step >= 0 && step < rows) ? holdRoomCounts.get(step, r) : 0;
+                }
+            }
+        }
+
+        private void grow(int capacity) {
+            ticketQueued = Arrays.copyOf(ticketQueued, capacity);
+            checkpointQueued = Arrays.copyOf(checkpointQueued, capacity);
+            holdRoomTotal = Arrays.copyOf(holdRoomTotal, capacity);
+            int[][] rooms = new int[holdRooms.length][];
+            for (int r = 0; r < rooms.length; r++) rooms[r] = Arrays.copyOf(holdRooms[r], capacity);
+            holdRooms = rooms;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package sim.service;
+
+import java.util.Arrays;
+
+/**
+ * {@link HistoryBuffer} on the heap: one growable int array. One thread appends;
+ * other threads may read what was appended before they were handed it.
+ */
+public class HeapHistoryBuffer implements HistoryBuffer {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    // volatile: a reader that sees a grown array also sees the ints copied into it
+    private volatile int[] values = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    @Override
+    public void append(int value) {
+        int[] v = values;
+        if (size == v.length) v = grow(size + 1);
+        v[size++] = value;
+    }
+
+    @Override
+    public void append(int[] src, int offset, int length) {
+        int[] v = values;
+        if (size + length > v.length) v = grow(size + length);
+        System.arraycopy(src, offset, v, size, length);
+        size += length;
+    }
+
+    @Override
+    public int get(long position) {
+        return values[(int) position];
+    }
+
+    @Override
+    public void get(long position, int[] dst, int offset, int length) {
+        System.arraycopy(values, (int) position, dst, offset, length);
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    private int[] grow(int minCapacity) {
+        if (minCapacity < 0) throw new IllegalArgumentException("History exceeds the heap buffer limit");
+        return values = Arrays.copyOf(values, Math.max(minCapacity, values.length * 2));
+    }
+}
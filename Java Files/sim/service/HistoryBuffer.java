@@ -0,0 +1,22 @@
+package sim.service;
+
+/**
+ * Append-only int storage behind the history tables ({@link LineHistory},
+ * {@link LineCountHistory}). Positions are int offsets and may exceed 2^31.
+ */
+public interface HistoryBuffer {
+    void append(int value);
+
+    void append(int[] src, int offset, int length);
+
+    int get(long position);
+
+    /** Copies {@code length} ints starting at {@code position} into {@code dst}. */
+    void get(long position, int[] dst, int offset, int length);
+
+    /** @return number of ints appended */
+    long size();
+
+    /** Drops everything appended (storage is kept for reuse). */
+    void clear();
+}
@@ -0,0 +1,13 @@
+package sim.service;
+
+/**
+ * How much per-interval line history the engine records.
+ */
+public enum HistoryFidelity {
+    /** Nothing (metric series only) */
+    NONE,
+    /** Passenger count of every line per interval ({@link LineCountHistory}) */
+    COUNTS,
+    /** Counts plus the passengers of every line per interval (needed for drawing past steps) */
+    FULL
+}
@@ -0,0 +1,77 @@
+package sim.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Append-only int series indexed by interval ({@code firstIndex .. end() - 1}).
+ *
+ * Used for the per-interval metrics. Because values are only ever appended,
+ * a snapshot just records {@link #end()} and a restore moves the end back (or
+ * forward again, up to the last value written) with {@link #setEnd(int)}.
+ */
+public class IntSeries {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final int firstIndex;
+    private int[] values = new int[DEFAULT_CAPACITY];
+    private int length;     // visible values
+    private int written;    // values written (>= length; the rest is kept for forward restores)
+
+    public IntSeries(int firstIndex) {
+        this.firstIndex = firstIndex;
+    }
+
+    /**
+     * Sets the value at {@code index}. Writing at {@link #end()} appends and drops
+     * any values kept beyond it; earlier indices are overwritten in place.
+     */
+    public void put(int index, int value) {
+        int i = index - firstIndex;
+        if (i < 0 || i > length) {
+            throw new IllegalArgumentException("Index " + index + " outside " + firstIndex + ".." + end());
+        }
+        if (i == length) {
+            if (length == values.length) values = Arrays.copyOf(values, length * 2);
+            length++;
+            written = length;
+        }
+        values[i] = value;
+    }
+
+    public boolean has(int index) {
+        int i = index - firstIndex;
+        return i >= 0 && i < length;
+    }
+
+    public int get(int index, int defaultValue) {
+        return has(index) ? values[index - firstIndex] : defaultValue;
+    }
+
+    public int firstIndex() {
+        return firstIndex;
+    }
+
+    /** @return one past the last visible index */
+    public int end() {
+        return firstIndex + length;
+    }
+
+    /** Moves the end of the series ({@code firstIndex <= end <= } last written index + 1). */
+    public void setEnd(int end) {
+        length = Math.max(0, Math.min(written, end - firstIndex));
+    }
+
+    public void clear() {
+        length = 0;
+        written = 0;
+    }
+
+    /** @return the visible values as an ordered interval → value map */
+    public Map<Integer, Integer> toMap() {
+        Map<Integer, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < length; i++) map.put(firstIndex + i, values[i]);
+        return map;
+    }
+}
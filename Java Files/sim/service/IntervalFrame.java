@@ -0,0 +1,107 @@
+package sim.service;
+
+import sim.model.Flight;
+import sim.model.Passenger;
+
+import java.util.List;
+
+/**
+ * Immutable view of everything the live simulation view draws for one interval,
+ * built by {@link SimulationEngine#captureFrame()} or {@link SimulationEngine#viewAt(int)}.
+ *
+ * Lines are the history rows of step {@code interval - 1} (empty at interval 0) as
+ * {@link PassengerIdList}s, whose passenger views are pinned to the interval. The run
+ * configuration comes with it as a {@link FrameContext}, and the line maxima and graph
+ * totals ({@link GraphSeries}) as of the capture are copied in or shared immutably. A
+ * frame can therefore be painted on the EDT while another thread keeps advancing the
+ * engine.
+ */
+public final class IntervalFrame {
+    private final int interval;
+    private final int maxComputedInterval;
+    private final int totalIntervals;
+    private final FrameContext context;
+    private final GraphSeries graphSeries;
+
+    private final List<List<Passenger>> queuedTicket;
+    private final List<List<Passenger>> servedTicket;
+    private final List<List<Passenger>> visibleServedTicket;
+    private final List<List<Passenger>> queuedCheckpoint;
+    private final List<List<Passenger>> servedCheckpoint;
+    private final List<List<Passenger>> holdRooms;
+
+    private final List<Flight> justClosedFlights;
+
+    // highest queue per line over the intervals computed at capture, and the step it was first reached
+    private final int[] maxQueuedTicket;
+    private final int[] maxQueuedTicketStep;
+    private final int[] maxQueuedCheckpoint;
+    private final int[] maxQueuedCheckpointStep;
+
+    IntervalFrame(int interval,
+                  int maxComputedInterval,
+                  int totalIntervals,
+                  FrameContext context,
+                  GraphSeries graphSeries,
+                  List<List<Passenger>> queuedTicket,
+                  List<List<Passenger>> servedTicket,
+                  List<List<Passenger>> visibleServedTicket,
+                  List<List<Passenger>> queuedCheckpoint,
+                  List<List<Passenger>> servedCheckpoint,
+                  List<List<Passenger>> holdRooms,
+                  List<Flight> justClosedFlights,
+                  int[] maxQueuedTicket,
+                  int[] maxQueuedTicketStep,
+                  int[] maxQueuedCheckpoint,
+                  int[] maxQueuedCheckpointStep) {
+        this.interval = interval;
+        this.maxComputedInterval = maxComputedInterval;
+        this.totalIntervals = totalIntervals;
+        this.context = context;
+        this.graphSeries = graphSeries;
+        this.queuedTicket = queuedTicket;
+        this.servedTicket = servedTicket;
+        this.visibleServedTicket = visibleServedTicket;
+        this.queuedCheckpoint = queuedCheckpoint;
+        this.servedCheckpoint = servedCheckpoint;
+        this.holdRooms = holdRooms;
+        this.justClosedFlights = justClosedFlights;
+        this.maxQueuedTicket = maxQueuedTicket;
+        this.maxQueuedTicketStep = maxQueuedTicketStep;
+        this.maxQueuedCheckpoint = maxQueuedCheckpoint;
+        this.maxQueuedCheckpointStep = maxQueuedCheckpointStep;
+    }
+
+    public int getInterval() { return interval; }
+    public int getMaxComputedInterval() { return maxComputedInterval; }
+    public int getTotalIntervals() { return totalIntervals; }
+    public FrameContext getContext() { return context; }
+
+    /** @return the graph totals of the intervals computed when the frame was captured */
+    public GraphSeries getGraphSeries() { return graphSeries; }
+
+    /** @return history step drawn by this frame (-1 at interval 0) */
+    public int getStep() { return interval - 1; }
+
+    public boolean isLast() { return interval >= totalIntervals; }
+
+    public List<List<Passenger>> getQueuedTicket() { return queuedTicket; }
+    public List<List<Passenger>> getServedTicket() { return servedTicket; }
+    public List<List<Passenger>> getVisibleServedTicket() { return visibleServedTicket; }
+    public List<List<Passenger>> getQueuedCheckpoint() { return queuedCheckpoint; }
+    public List<List<Passenger>> getServedCheckpoint() { return servedCheckpoint; }
+    public List<List<Passenger>> getHoldRooms() { return holdRooms; }
+
+    public int getTicketWaiting(int line) { return queuedTicket.get(line).size(); }
+    public int getTicketCompleted(int line) { return servedTicket.get(line).size(); }
+    public int getCheckpointWaiting(int line) { return queuedCheckpoint.get(line).size(); }
+    public int getCheckpointCompleted(int line) { return servedCheckpoint.get(line).size(); }
+
+    /** @return flights that closed in this interval */
+    public List<Flight> getJustClosedFlights() { return justClosedFlights; }
+
+    public int getMaxQueuedTicket(int line) { return maxQueuedTicket[line]; }
+    public int getMaxQueuedTicketStep(int line) { return maxQueuedTicketStep[line]; }
+    public int getMaxQueuedCheckpoint(int line) { return maxQueuedCheckpoint[line]; }
+    public int getMaxQueuedCheckpointStep(int line) { return maxQueuedCheckpointStep[line]; }
+}
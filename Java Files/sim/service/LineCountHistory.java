@@ -0,0 +1,135 @@
+package sim.service;
+
+import java.util.List;
+
+/**
+ * Per-interval passenger counts of a family of lines, stored as int[interval][line]
+ * in row-major order in a {@link HistoryBuffer} (on the heap or memory-mapped).
+ * The highest count of each line is kept as rows are added.
+ */
+public class LineCountHistory {
+    private static final int REPEAT_CHUNK_INTS = 4096;
+
+    private final HistoryBuffer buffer;
+    private int lineCount = -1;   // fixed by the first row
+    private int size;
+    private int[] lastRow = new int[0];
+    private int[] maxRow = new int[0];       // highest count per line (guarded by this)
+    private int[] maxInterval = new int[0];  // first interval that reached it
+
+    public LineCountHistory() {
+        this(new HeapHistoryBuffer());
+    }
+
+    public LineCountHistory(HistoryBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /** Records the live size of every line as the next interval. */
+    public void add(List<PassengerQueue> lines) {
+        if (lineCount < 0) {
+            lineCount = lines.size();
+            lastRow = new int[lineCount];
+        } else if (lines.size() != lineCount) {
+            throw new IllegalArgumentException("Line count changed from " + lineCount + " to " + lines.size());
+        }
+        for (int i = 0; i < lineCount; i++) lastRow[i] = lines.get(i).size();
+        buffer.append(lastRow, 0, lineCount);
+        updateMax();
+        size++;
+    }
+
+    /** Records {@code counts} (one per line) as the next interval. */
+    public void add(int[] counts) {
+        if (lineCount < 0) {
+            lineCount = counts.length;
+        } else if (counts.length != lineCount) {
+            throw new IllegalArgumentException("Line count changed from " + lineCount + " to " + counts.length);
+        }
+        lastRow = counts.clone();
+        buffer.append(lastRow, 0, lineCount);
+        updateMax();
+        size++;
+    }
+
+    /** Records the next interval as a repeat of the last one. */
+    public void repeatLast() {
+        buffer.append(lastRow, 0, lastRow.length);
+        size++;
+    }
+
+    /** Records the next {@code times} intervals as repeats of the last one. */
+    public void repeatLast(int times) {
+        int rows = Math.max(1, Math.min(times, REPEAT_CHUNK_INTS / Math.max(1, lastRow.length)));
+        int[] tiled = new int[rows * lastRow.length];
+        for (int r = 0; r < rows; r++) System.arraycopy(lastRow, 0, tiled, r * lastRow.length, lastRow.length);
+        for (int left = times; left > 0; left -= rows) {
+            buffer.append(tiled, 0, Math.min(left, rows) * lastRow.length);
+        }
+        size += Math.max(0, times);
+    }
+
+    /** @return passengers in {@code line} after {@code interval} */
+    public int get(int interval, int line) {
+        if (interval < 0 || interval >= size) {
+            throw new IndexOutOfBoundsException("Interval: " + interval + ", Size: " + size);
+        }
+        return buffer.get((long) interval * lineCount + line);
+    }
+
+    /** @return passengers over all lines after {@code interval} */
+    public int total(int interval) {
+        int sum = 0;
+        for (int l = 0; l < lineCount; l++) sum += get(interval, l);
+        return sum;
+    }
+
+    /** @return highest count {@code line} reached over the recorded intervals */
+    public synchronized int max(int line) {
+        return line < maxRow.length ? maxRow[line] : 0;
+    }
+
+    /** @return first interval in which {@code line} reached {@link #max(int)} (0 while empty) */
+    public synchronized int maxInterval(int line) {
+        return line < maxInterval.length ? maxInterval[line] : 0;
+    }
+
+    /** Copies the highest count of every line and the first interval reaching it, as of now. */
+    synchronized void copyMax(int[] counts, int[] intervals) {
+        int n = Math.min(counts.length, maxRow.length);
+        System.arraycopy(maxRow, 0, counts, 0, n);
+        System.arraycopy(maxInterval, 0, intervals, 0, n);
+    }
+
+    /** @return number of lines per interval (0 while empty) */
+    public int lineCount() {
+        return Math.max(0, lineCount);
+    }
+
+    /** @return number of recorded intervals */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        buffer.clear();
+        size = 0;
+        synchronized (this) {
+            maxRow = new int[0];
+            maxInterval = new int[0];
+        }
+    }
+
+    private synchronized void updateMax() {
+        if (maxRow.length != lineCount) {
+            maxRow = new int[lineCount];
+            maxInterval = new int[lineCount];
+        }
+        for (int i = 0; i < lineCount; i++) {
+            if (lastRow[i] > maxRow[i]) {
+                maxRow[i] = lastRow[i];
+                maxInterval[i] = size;
+            }
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package sim.service;
+
+import sim.model.Passenger;
+import sim.model.PassengerStore;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Per-interval contents of a family of lines, stored as deltas.
+ *
+ * Between two minutes a line normally only loses passengers at its head and gains
+ * some at its tail, so each interval records per line the number of ids popped and
+ * the ids appended. Anything else (removal from the middle, compaction) falls back
+ * to a full copy of the line, and every {@link #CHECKPOINT_INTERVAL}-th interval is
+ * a full copy as well, so rebuilding a line replays at most that many deltas.
+ *
+ * Memory is O(ids that moved) instead of O(intervals x passengers). Lines are rebuilt
+ * on demand. Reads do not change the history, so any thread may read the intervals
+ * recorded before it was handed them while the simulation records more; a
+ * {@link Reader} keeps a per-line cursor that makes stepping forward cheap for one
+ * sequential reader.
+ *
+ * Layout (all in {@link HistoryBuffer}s, so the history can live off-heap):
+ * the directory holds the start of each interval's record (two ints, -1 = nothing
+ * moved); a record is one offset per line (relative to the record, -1 = line did not
+ * move) followed by the entries, {@code pops, n, ids...} or {@code FULL, n, ids...}.
+ */
+public class LineHistory {
+    static final int CHECKPOINT_INTERVAL = 32;
+
+    private static final int UNCHANGED = -1;   // line offset / record start when nothing moved
+    private static final int FULL = -1;        // entry marker: full copy follows
+    private static final int[] UNCHANGED_RECORDS = new int[2 * CHECKPOINT_INTERVAL];
+
+    static {
+        Arrays.fill(UNCHANGED_RECORDS, UNCHANGED);
+    }
+
+    private final PassengerStore store;
+    private final HistoryBuffer directory;
+    private final HistoryBuffer records;
+    private int lineCount;
+    private int size;                          // recorded intervals
+
+    private int[][] last = new int[0][];       // contents at the last recorded interval
+    private int[] scratch = new int[64];       // record being built
+
+    private final List<List<List<Passenger>>> rows = new Rows();
+
+    public LineHistory(PassengerStore store) {
+        this(store, new HeapHistoryBuffer(), new HeapHistoryBuffer());
+    }
+
+    public LineHistory(PassengerStore store, HistoryBuffer directory, HistoryBuffer records) {
+        this.store = store;
+        this.directory = directory;
+        this.records = records;
+    }
+
+    // ============================
+    // Recording
+    // ============================
+
+    /** Records the live ids of every line as the next interval. */
+    public void add(List<PassengerQueue> lines) {
+        int[][] ids = new int[lines.size()][];
+        for (int l = 0; l < ids.length; l++) ids[l] = lines.get(l).toLiveIdArray();
+        add(ids);
+    }
+
+    /** Records {@code ids[line]} (queue order; the arrays are kept) as the next interval. */
+    public void add(int[][] ids) {
+        ensureLines(ids.length);
+        boolean checkpoint = size % CHECKPOINT_INTERVAL == 0;
+        int n = lineCount;
+        boolean moved = false;
+        for (int l = 0; l < lineCount; l++) {
+            int[] current = ids[l];
+            int at = n;
+            n = encode(l, current, checkpoint, n);
+            scratch[l] = (n == at) ? UNCHANGED : at;
+            moved |= n != at;
+            last[l] = current;
+        }
+        appendRecord(moved, n);
+    }
+
+    /** Records the next interval as a repeat of the last one. */
+    public void repeatLast() {
+        boolean checkpoint = size % CHECKPOINT_INTERVAL == 0;
+        if (!checkpoint) {
+            appendRecord(false, 0);
+            return;
+        }
+        int n = lineCount;
+        for (int l = 0; l < lineCount; l++) {
+            scratch = ensure(scratch, n + 2 + last[l].length);
+            scratch[l] = n;
+            n = writeFull(last[l], n);
+        }
+        appendRecord(true, n);
+    }
+
+    /** Records the next {@code times} intervals as repeats of the last one. */
+    public void repeatLast(int times) {
+        while (times > 0) {
+            int sinceCheckpoint = size % CHECKPOINT_INTERVAL;
+            if (sinceCheckpoint == 0) {
+                repeatLast();
+                times--;
+                continue;
+            }
+            // up to the next checkpoint nothing moves: one directory entry per interval
+            int run = Math.min(times, CHECKPOINT_INTERVAL - sinceCheckpoint);
+            directory.append(UNCHANGED_RECORDS, 0, 2 * run);
+            size += run;
+            times -= run;
+        }
+    }
+
+    public void clear() {
+        directory.clear();
+        records.clear();
+        for (int l = 0; l < lineCount; l++) last[l] = new int[0];
+        size = 0;
+    }
+
+    // ============================
+    // Reading
+    // ============================
+
+    /** @return number of recorded intervals */
+    public int size() {
+        return size;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    /** @return ids in {@code line} after {@code interval}, in queue order (rebuilt from its checkpoint) */
+    public int[] ids(int interval, int line) {
+        checkInterval(interval);
+        Cursor cursor = new Cursor();
+        cursor.seek(line, interval);
+        return cursor.ids();
+    }
+
+    /** @return a new reader with its own cursors, for one thread stepping through the history */
+    public Reader reader() {
+        return new Reader();
+    }
+
+    /**
+     * The history as a read-only list (interval → line → passengers); rows are rebuilt
+     * when read and their passenger views show the state as of the next interval.
+     */
+    public List<List<List<Passenger>>> asList() {
+        return rows;
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    /** Appends the line's entry to the scratch record at {@code n}; returns the new end (n if unchanged). */
+    private int encode(int line, int[] current, boolean checkpoint, int n) {
+        int[] previous = last[line];
+        if (!checkpoint && Arrays.equals(previous, current)) return n;
+
+        int pops = checkpoint ? -1 : headPops(previous, current);
+        if (pops < 0) {
+            scratch = ensure(scratch, n + 2 + current.length);
+            return writeFull(current, n);
+        }
+        int kept = previous.length - pops;
+        int appended = current.length - kept;
+        scratch = ensure(scratch, n + 2 + appended);
+        scratch[n] = pops;
+        scratch[n + 1] = appended;
+        System.arraycopy(current, kept, scratch, n + 2, appended);
+        return n + 2 + appended;
+    }
+
+    private int writeFull(int[] current, int n) {
+        scratch[n] = FULL;
+        scratch[n + 1] = current.length;
+        System.arraycopy(current, 0, scratch, n + 2, current.length);
+        return n + 2 + current.length;
+    }
+
+    private void appendRecord(boolean moved, int length) {
+        long start = moved ? records.size() : UNCHANGED;
+        directory.append((int) (start >> 32));
+        directory.append((int) start);
+        if (moved) records.append(scratch, 0, length);
+        size++;
+    }
+
+    private long recordStart(int interval) {
+        long hi = directory.get(2L * interval);
+        long lo = directory.get(2L * interval + 1) & 0xffffffffL;
+        return (hi << 32) | lo;
+    }
+
+    /**
+     * @return how many ids left the head of {@code previous} if {@code current} is
+     *         its remainder plus appended ids, otherwise -1
+     */
+    static int headPops(int[] previous, int[] current) {
+        int pops = previous.length;
+        if (current.length > 0) {
+            for (int i = 0; i < previous.length; i++) {
+                if (previous[i] == current[0]) {
+                    pops = i;
+                    break;
+                }
+            }
+        }
+        int kept = previous.length - pops;
+        if (kept > current.length) return -1;
+        for (int i = 0; i < kept; i++) {
+            if (previous[pops + i] != current[i]) return -1;
+        }
+        return pops;
+    }
+
+    private void checkInterval(int interval) {
+        if (interval < 0 || interval >= size) {
+            throw new IndexOutOfBoundsException("Interval: " + interval + ", Size: " + size);
+        }
+    }
+
+    private static int[] ensure(int[] a, int capacity) {
+        return capacity <= a.length ? a : Arrays.copyOf(a, Math.max(capacity, a.length * 2));
+    }
+
+    private void ensureLines(int n) {
+        if (n == lineCount) return;
+        if (size > 0) throw new IllegalArgumentException("Line count changed from " + lineCount + " to " + n);
+        lineCount = n;
+        last = new int[n][];
+        scratch = ensure(scratch, n);
+        for (int l = 0; l < n; l++) last[l] = new int[0];
+    }
+
+    /**
+     * Per-line cursors over the history, for one thread: repeated reads of an interval
+     * and stepping forward replay only the deltas in between. Not thread-safe.
+     */
+    public final class Reader {
+        private Cursor[] cursors = new Cursor[0];
+
+        private Reader() {}
+
+        /** @return ids in {@code line} after {@code interval}, in queue order */
+        public int[] ids(int interval, int line) {
+            checkInterval(interval);
+            if (cursors.length < lineCount) cursors = Arrays.copyOf(cursors, lineCount);
+            Cursor cursor = cursors[line];
+            if (cursor == null) cursor = cursors[line] = new Cursor();
+            cursor.seek(line, interval);
+            return cursor.ids();
+        }
+    }
+
+    /** One line rebuilt at {@code interval}: its ids are {@code buf[head .. head + length)}. */
+    private final class Cursor {
+        private int interval = -1;
+        private int[] buf = new int[16];
+        private int head;
+        private int length;
+
+        int[] ids() {
+            return Arrays.copyOfRange(buf, head, head + length);
+        }
+
+        /** Moves to {@code target}, replaying from its checkpoint unless already between. */
+        void seek(int line, int target) {
+            int from = interval;
+            int checkpoint = target - target % CHECKPOINT_INTERVAL;
+            if (from == target) return;
+            if (from < checkpoint || from > target) {
+                from = checkpoint - 1;          // replay from the checkpoint's full copy
+                head = 0;
+                length = 0;
+            }
+            for (int t = from + 1; t <= target; t++) apply(line, t);
+            interval = target;
+        }
+
+        private void apply(int line, int t) {
+            long start = recordStart(t);
+            if (start == UNCHANGED) return;
+            int offset = records.get(start + line);
+            if (offset == UNCHANGED) return;
+
+            long at = start + offset;
+            int marker = records.get(at);
+            int n = records.get(at + 1);
+            if (marker == FULL) {
+                buf = ensure(buf, n);
+                records.get(at + 2, buf, 0, n);
+                head = 0;
+                length = n;
+                return;
+            }
+            head += marker;
+            length -= marker;
+            if (head + length + n > buf.length) {
+                int[] moved = (length + n > buf.length) ? new int[Math.max(length + n, buf.length * 2)] : buf;
+                System.arraycopy(buf, head, moved, 0, length);
+                buf = moved;
+                head = 0;
+            }
+            records.get(at + 2, buf, head + length, n);
+            length += n;
+        }
+    }
+
+    /** interval → line → passengers, rebuilt on access */
+    private final class Rows extends AbstractList<List<List<Passenger>>> implements RandomAccess {
+        @Override
+        public List<List<Passenger>> get(int interval) {
+            if (interval < 0 || interval >= size) {
+                throw new IndexOutOfBoundsException("Index: " + interval + ", Size: " + size);
+            }
+            return new Row(interval);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class Row extends AbstractList<List<Passenger>> implements RandomAccess {
+        private final int interval;
+        private final List<Passenger>[] lines;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Row(int interval) {
+            this.interval = interval;
+            this.lines = new List[lineCount];
+        }
+
+        @Override
+        public List<Passenger> get(int line) {
+            List<Passenger> l = lines[line];
+            if (l == null) l = lines[line] = new PassengerIdList(store, ids(interval, line), interval + 1);
+            return l;
+        }
+
+        @Override
+        public int size() {
+            return lineCount;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package sim.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link HistoryBuffer} in a memory-mapped, append-only temp file.
+ *
+ * The file is mapped in fixed-size segments: the segment being appended to stays
+ * mapped, earlier ones are mapped on demand and kept in a small LRU page cache.
+ * Only the mappings live outside the heap, so heap use does not grow with the run.
+ * The file is deleted on exit.
+ *
+ * One thread appends; reads do not move any buffer position and the segment lookup
+ * is locked, so other threads may read what was appended before they were handed it.
+ */
+public class MappedHistoryBuffer implements HistoryBuffer {
+    private static final int SEGMENT_SHIFT = 20;                  // 1M ints = 4 MB per segment
+    private static final int SEGMENT_INTS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_INTS - 1;
+    private static final int PAGE_CACHE_SEGMENTS = 8;
+
+    private final Path file;
+    private final FileChannel channel;
+    private long size;
+
+    // written by the appending thread under the pageCache lock
+    private long writeSegment = -1;
+    private IntBuffer writeBuffer;
+
+    // recently read segments (LRU; access-ordered, so every lookup holds its lock)
+    private final LinkedHashMap<Long, IntBuffer> pageCache =
+            new LinkedHashMap<Long, IntBuffer>(PAGE_CACHE_SEGMENTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, IntBuffer> eldest) {
+                    return size() > PAGE_CACHE_SEGMENTS;
+                }
+            };
+
+    /** Creates the buffer in a new temp file under {@code directory}. */
+    public MappedHistoryBuffer(Path directory) {
+        try {
+            file = Files.createTempFile(directory, "history-", ".bin");
+            file.toFile().deleteOnExit();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create history file in " + directory, e);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void append(int value) {
+        writable().put((int) (size & SEGMENT_MASK), value);
+        size++;
+    }
+
+    @Override
+    public void append(int[] src, int offset, int length) {
+        while (length > 0) {
+            int at = (int) (size & SEGMENT_MASK);
+            int n = Math.min(length, SEGMENT_INTS - at);
+            IntBuffer buf = writable();
+            buf.position(at);
+            buf.put(src, offset, n);
+            size += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public int get(long position) {
+        return segment(position >>> SEGMENT_SHIFT).get((int) (position & SEGMENT_MASK));
+    }
+
+    @Override
+    public void get(long position, int[] dst, int offset, int length) {
+        while (length > 0) {
+            int at = (int) (position & SEGMENT_MASK);
+            int n = Math.min(length, SEGMENT_INTS - at);
+            IntBuffer buf = segment(position >>> SEGMENT_SHIFT).duplicate();   // own position
+            buf.position(at);
+            buf.get(dst, offset, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        synchronized (pageCache) {
+            writeSegment = -1;
+            writeBuffer = null;
+            pageCache.clear();
+        }
+    }
+
+    /** Closes the file; its mappings are released once they are no longer referenced. */
+    public void close() {
+        clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // still mapped on some platforms; deleteOnExit covers it
+        }
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    /** Mapping of the segment that the next int goes to. */
+    private IntBuffer writable() {
+        long segment = size >>> SEGMENT_SHIFT;
+        if (segment != writeSegment) {
+            IntBuffer buf = map(segment, FileChannel.MapMode.READ_WRITE);
+            synchronized (pageCache) {
+                writeBuffer = buf;
+                writeSegment = segment;
+                pageCache.remove(segment);
+            }
+        }
+        return writeBuffer;
+    }
+
+    /** Mapping of {@code segment} for reading; only absolute gets or a duplicate may use it. */
+    private IntBuffer segment(long segment) {
+        synchronized (pageCache) {
+            if (segment == writeSegment) return writeBuffer;
+            IntBuffer buf = pageCache.get(segment);
+            if (buf == null) {
+                buf = map(segment, FileChannel.MapMode.READ_ONLY);
+                pageCache.put(segment, buf);
+            }
+            return buf;
+        }
+    }
+
+    private IntBuffer map(long segment, FileChannel.MapMode mode) {
+        try {
+            return channel.map(mode, segment * SEGMENT_INTS * Integer.BYTES, (long) SEGMENT_INTS * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asIntBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map history file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package sim.service;
+
+import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
+import sim.model.HoldRoomConfig;
+import sim.model.PassengerStore;
+import sim.model.TicketCounterConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a grid of configurations: the template's setup with up to a few inputs
+ * varied along {@link Axis axes}, one run per cell. A count axis (ticket counters,
+ * checkpoints) keeps the template's first counters or checkpoints as configured and
+ * adds any beyond them at the template's average rate (extra counters take every flight).
+ *
+ * Cells run on a work-stealing {@link ForkJoinPool} in coarse-to-fine order: the
+ * corners and a coarse sub-grid first, then the points halfway between, and so on,
+ * so a partial result already covers the whole grid. Every finished cell goes to
+ * the {@link Listener} right away. Cell runs record counts only and are dropped
+ * once their results are taken, so a sweep of thousands of cells fits in memory.
+ */
+public class ParameterSweep {
+
+    /** Values of one input along the grid. */
+    public static final class Axis {
+        private final SweepParameter parameter;
+        private final double[] values;
+
+        public Axis(SweepParameter parameter, double[] values) {
+            if (parameter == null) throw new IllegalArgumentException("parameter must not be null");
+            if (values == null || values.length == 0) throw new IllegalArgumentException("an axis needs values");
+            this.parameter = parameter;
+            this.values = values.clone();
+            if (parameter.isInteger()) {
+                for (int i = 0; i < this.values.length; i++) this.values[i] = Math.round(this.values[i]);
+            }
+        }
+
+        /** {@code from, from + step, ...} up to {@code to}. */
+        public static Axis range(SweepParameter parameter, double from, double to, double step) {
+            if (step <= 0 || to < from) throw new IllegalArgumentException("need from <= to and step > 0");
+            int n = (int) Math.floor((to - from) / step + 1e-9) + 1;
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) values[i] = from + i * step;
+            return new Axis(parameter, values);
+        }
+
+        public SweepParameter getParameter() { return parameter; }
+        public int size() { return values.length; }
+        public double value(int index) { return values[index]; }
+    }
+
+    /** Results of one grid point. */
+    public static final class Cell {
+        private final int index;
+        private final int[] coordinates;
+        private final int missedPassengers;
+        private final int peakHoldRoomPopulation;
+
+        Cell(int index, int[] coordinates, int missedPassengers, int peakHoldRoomPopulation) {
+            this.index = index;
+            this.coordinates = coordinates;
+            this.missedPassengers = missedPassengers;
+            this.peakHoldRoomPopulation = peakHoldRoomPopulation;
+        }
+
+        /** @return position in grid order (first axis slowest) */
+        public int getIndex() { return index; }
+        /** @return value index along {@code axis} */
+        public int getCoordinate(int axis) { return coordinates[axis]; }
+        public int getMissedPassengers() { return missedPassengers; }
+        public int getPeakHoldRoomPopulation() { return peakHoldRoomPopulation; }
+    }
+
+    /** Gets each cell as it finishes, on a pool thread. */
+    @FunctionalInterface
+    public interface Listener {
+        void cellFinished(Cell cell, int finishedCells, int totalCells);
+    }
+
+    private final SimulationEngine template;
+    private final List<Axis> axes;
+    private final int cellCount;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** @param template setup every cell starts from (it is not run) */
+    public ParameterSweep(SimulationEngine template, List<Axis> axes) {
+        if (template == null) throw new IllegalArgumentException("template must not be null");
+        if (axes == null || axes.isEmpty()) throw new IllegalArgumentException("a sweep needs at least one axis");
+        long cells = 1;
+        for (Axis axis : axes) cells *= axis.size();
+        if (cells > Integer.MAX_VALUE) throw new IllegalArgumentException("too many cells: " + cells);
+        this.template = template;
+        this.axes = Collections.unmodifiableList(new ArrayList<>(axes));
+        this.cellCount = (int) cells;
+    }
+
+    public List<Axis> getAxes() { return axes; }
+    public int getCellCount() { return cellCount; }
+
+    /** Cells run at once (default: one per core). */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs every cell. Interrupting the calling thread cancels the sweep.
+     *
+     * @param listener gets each cell as it finishes (may be null)
+     * @return the cells in grid order
+     * @throws CancellationException if the calling thread was interrupted
+     */
+    public Cell[] run(Listener listener) {
+        Cell[] cells = new Cell[cellCount];
+        AtomicInteger finished = new AtomicInteger();
+        // FIFO queues, so the pool starts cells in submission (coarse-to-fine) order
+        ForkJoinPool pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(cellCount);
+            for (int index : coarseToFineOrder()) {
+                tasks.add(pool.submit(() -> {
+                    Cell cell = runCell(index);
+                    cells[index] = cell;
+                    if (listener != null) listener.cellFinished(cell, finished.incrementAndGet(), cellCount);
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) task.get();
+            return cells;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Sweep cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Sweep cell failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** @return value index along each axis of cell {@code index} */
+    public int[] coordinates(int index) {
+        int[] coordinates = new int[axes.size()];
+        for (int a = axes.size() - 1; a >= 0; a--) {
+            coordinates[a] = index % axes.get(a).size();
+            index /= axes.get(a).size();
+        }
+        return coordinates;
+    }
+
+    // ============================
+    // Cells
+    // ============================
+
+    private Cell runCell(int index) {
+        int[] coordinates = coordinates(index);
+        SimulationEngine engine = createEngine(coordinates);
+        engine.setHistoryFidelity(HistoryFidelity.COUNTS);
+        engine.setSnapshotMemoryBudgetBytes(0);
+        engine.runAllIntervals();
+
+        PassengerStore store = engine.getStore();
+        int missed = 0;
+        for (int id = 0; id < store.size(); id++) {
+            if (store.isMissed(id)) missed++;
+        }
+        int peakHold = 0;
+        for (int t = 0; t <= engine.getTotalIntervals(); t++) {
+            peakHold = Math.max(peakHold, engine.getHoldRoomTotalAtInterval(t));
+        }
+        return new Cell(index, coordinates, missed, peakHold);
+    }
+
+    /** The template's setup with this cell's values. */
+    private SimulationEngine createEngine(int[] coordinates) {
+        double percentInPerson = template.getPercentInPerson();
+        int transitDelay = template.getTransitDelayMinutes();
+        int holdDelay = template.getHoldDelayMinutes();
+        boolean holdDelayAxis = false;
+        Integer counters = null;
+        Integer checkpoints = null;
+        Double checkpointRate = null;
+
+        for (int a = 0; a < axes.size(); a++) {
+            double v = axes.get(a).value(coordinates[a]);
+            switch (axes.get(a).getParameter()) {
+                case PERCENT_IN_PERSON: percentInPerson = Math.max(0, Math.min(1, v)); break;
+                case CHECKPOINTS:       checkpoints = Math.max(1, (int) v); break;
+                case CHECKPOINT_RATE:   checkpointRate = Math.max(0, v); break;
+                case TICKET_COUNTERS:   counters = Math.max(1, (int) v); break;
+                case TRANSIT_DELAY:     transitDelay = Math.max(0, (int) v); break;
+                case HOLD_DELAY:        holdDelay = Math.max(0, (int) v); holdDelayAxis = true; break;
+            }
+        }
+
+        // counters along the axis: the template's first ones as they are (rate and allowed
+        // flights), then counters for all flights at the template's average rate
+        List<TicketCounterConfig> templateCounters = template.getCounterConfigs();
+        List<TicketCounterConfig> counterConfigs = new ArrayList<>(templateCounters);
+        if (counters != null) {
+            double averageCounterRate = templateCounters.stream().mapToDouble(TicketCounterConfig::getRate).average().orElse(1.0);
+            counterConfigs.clear();
+            for (int i = 1; i <= counters; i++) {
+                counterConfigs.add(i <= templateCounters.size()
+                        ? templateCounters.get(i - 1)
+                        : new TicketCounterConfig(i, averageCounterRate, new HashSet<>()));
+            }
+        }
+
+        List<CheckpointConfig> templateCheckpoints = template.getCheckpointConfigs();
+        double averageRate = templateCheckpoints.stream().mapToDouble(CheckpointConfig::getRatePerHour).average().orElse(120.0);
+        int checkpointCount = (checkpoints != null) ? checkpoints : templateCheckpoints.size();
+        List<CheckpointConfig> checkpointConfigs = new ArrayList<>();
+        for (int i = 1; i <= checkpointCount; i++) {
+            CheckpointConfig c = new CheckpointConfig(i);
+            if (checkpointRate != null) c.setRatePerHour(checkpointRate);
+            else c.setRatePerHour(i <= templateCheckpoints.size() ? templateCheckpoints.get(i - 1).getRatePerHour() : averageRate);
+            checkpointConfigs.add(c);
+        }
+
+        // the engine walks passengers by each room's own time (holdDelay only builds default
+        // rooms), so a hold delay axis sets every room's walk time to the cell's value
+        List<HoldRoomConfig> holdRoomConfigs = new ArrayList<>();
+        for (HoldRoomConfig room : template.getHoldRoomConfigs()) {
+            if (!holdDelayAxis) {
+                holdRoomConfigs.add(room);
+                continue;
+            }
+            HoldRoomConfig copy = new HoldRoomConfig(room.getId(), holdDelay * 60);
+            copy.setAllowedFlightNumbers(room.getAllowedFlightNumbers());
+            holdRoomConfigs.add(copy);
+        }
+
+        ArrivalCurveConfig curve = template.getArrivalCurveConfigCopy();
+        SimulationEngine engine = new SimulationEngine(percentInPerson, counterConfigs, checkpointConfigs,
+                template.getArrivalSpan(), template.getInterval(), transitDelay, holdDelay,
+                template.getFlights(), holdRoomConfigs);
+        engine.setArrivalCurveConfig(curve);
+        return engine;
+    }
+
+    // ============================
+    // Coarse-to-fine order
+    // ============================
+
+    /**
+     * Cell indices by refinement level, then grid order. Along an axis the ends are
+     * level 0, then each level adds the points halfway between those before it; a
+     * cell's level is the finest of its coordinates.
+     */
+    private Integer[] coarseToFineOrder() {
+        int[] level = new int[cellCount];
+        for (int index = 0; index < cellCount; index++) {
+            int[] coordinates = coordinates(index);
+            for (int a = 0; a < axes.size(); a++) {
+                level[index] = Math.max(level[index], refinementLevel(coordinates[a], axes.get(a).size()));
+            }
+        }
+        Integer[] order = new Integer[cellCount];
+        for (int i = 0; i < cellCount; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> level[i]).thenComparingInt(i -> i));
+        return order;
+    }
+
+    private static int refinementLevel(int index, int size) {
+        if (index == 0 || index == size - 1) return 0;
+        int coarsest = 32 - Integer.numberOfLeadingZeros(size - 2);   // log2 of the smallest power of two >= size - 1
+        return coarsest - Integer.numberOfTrailingZeros(index);
+    }
+}
@@ -0,0 +1,38 @@
+package sim.service;
+
+import sim.model.Passenger;
+import sim.model.PassengerStore;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of passenger ids, exposed to the UI as a List of Passenger views.
+ * Used for history rows so every recorded minute costs one int per passenger;
+ * the views show the passengers as of {@code asOf} (the interval after the row's minute).
+ */
+public final class PassengerIdList extends AbstractList<Passenger> implements RandomAccess {
+    private final PassengerStore store;
+    private final int[] ids;
+    private final int asOf;
+
+    public PassengerIdList(PassengerStore store, int[] ids, int asOf) {
+        this.store = store;
+        this.ids = ids;
+        this.asOf = asOf;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public Passenger get(int index) {
+        return store.view(ids[index], asOf);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
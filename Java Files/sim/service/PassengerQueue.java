@@ -0,0 +1,300 @@
+package sim.service;
+
+import sim.model.Passenger;
+import sim.model.PassengerStore;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+
+/**
+ * Growable ring-buffer queue of passenger ids used for every engine line
+ * (ticket, checkpoint, completed and hold-room lines).
+ *
+ * - O(1) tail append and head removal
+ * - O(1) indexed access (GridRenderer walks lines by index)
+ * - removal from the middle shifts the shorter side only
+ *
+ * The engine works on the int ids; as a List it is a read-only view that
+ * hands out {@link Passenger} views from the backing {@link PassengerStore}.
+ * Iteration order is queue order (head first).
+ *
+ * Tombstones: a queue may carry a tombstone test (missed passengers from earlier
+ * minutes). Tombstoned ids stay in the ring until they reach the head or the queue
+ * is compacted; {@link #size()} and the List view leave them out, the raw
+ * {@link #rawSize()}/{@link #getId(int)} accessors do not.
+ *
+ * Snapshots: {@link #snapshot()} hands out a frozen copy and keeps handing out the
+ * same one until the queue changes, so consecutive rewind snapshots share every
+ * line that did not move in between.
+ */
+public class PassengerQueue extends AbstractList<Passenger> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final PassengerStore store;
+    private final IntPredicate tombstone;   // null = this queue never holds tombstones
+    private int[] elements;
+    private int head;
+    private int size;
+    private int tombstones;
+
+    // List-view cache of the live ids (only used while tombstones > 0)
+    private int[] liveCache;
+    private int liveCacheMod = -1;
+
+    // frozen copy last handed out by snapshot(), valid while modCount == snapshotMod
+    private PassengerQueue snapshot;
+    private int snapshotMod = -1;
+
+    public PassengerQueue(PassengerStore store) {
+        this(store, null);
+    }
+
+    public PassengerQueue(PassengerStore store, IntPredicate tombstone) {
+        this.store = store;
+        this.tombstone = tombstone;
+        elements = new int[DEFAULT_CAPACITY];
+    }
+
+    /** Copy constructor (flat array copy, used by snapshots) */
+    public PassengerQueue(PassengerQueue other) {
+        store = other.store;
+        tombstone = other.tombstone;
+        elements = new int[Math.max(1, other.size)];
+        other.copyInto(elements);
+        size = other.size;
+        tombstones = other.tombstones;
+    }
+
+    // ============================
+    // Queue operations (ids)
+    // ============================
+
+    public void addId(int id) {
+        if (size == elements.length) grow(size + 1);
+        elements[physical(size)] = id;
+        size++;
+        modCount++;
+    }
+
+    /** @return id at the head, or -1 if empty */
+    public int peekFirstId() {
+        return size == 0 ? -1 : elements[head];
+    }
+
+    /** @return removed id at the head, or -1 if empty */
+    public int pollFirstId() {
+        if (size == 0) return -1;
+        int id = elements[head];
+        head = (head + 1 == elements.length) ? 0 : head + 1;
+        size--;
+        modCount++;
+        forget(id);
+        return id;
+    }
+
+    /** Raw access, tombstones included ({@code 0 <= index < rawSize()}). */
+    public int getId(int index) {
+        checkIndex(index);
+        return elements[physical(index)];
+    }
+
+    /** @return number of ids in the ring, tombstones included */
+    public int rawSize() {
+        return size;
+    }
+
+    /**
+     * Removes the id at {@code index}, shifting whichever side of the ring is shorter.
+     */
+    public int removeIdAt(int index) {
+        checkIndex(index);
+        if (index == 0) return pollFirstId();
+
+        int removed = elements[physical(index)];
+        if (index < size / 2) {
+            // shift the front part one slot towards the tail
+            for (int i = index; i > 0; i--) {
+                elements[physical(i)] = elements[physical(i - 1)];
+            }
+            head = (head + 1 == elements.length) ? 0 : head + 1;
+        } else {
+            // shift the back part one slot towards the head
+            for (int i = index; i < size - 1; i++) {
+                elements[physical(i)] = elements[physical(i + 1)];
+            }
+        }
+        size--;
+        modCount++;
+        forget(removed);
+        return removed;
+    }
+
+    public boolean removeFirstOccurrence(int id) {
+        for (int i = 0; i < size; i++) {
+            if (elements[physical(i)] == id) {
+                removeIdAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Single compacting pass; keeps the relative order of the survivors. */
+    public boolean removeIds(IntPredicate filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int id = elements[physical(i)];
+            if (!filter.test(id)) {
+                if (kept != i) elements[physical(kept)] = id;
+                kept++;
+            } else {
+                forget(id);
+            }
+        }
+        if (kept == size) return false;
+
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    // ============================
+    // Tombstones
+    // ============================
+
+    /** Counts one more tombstoned id in this queue (called when a queued passenger is retired). */
+    public void addTombstone() {
+        tombstones++;
+        modCount++;
+    }
+
+    public int getTombstones() {
+        return tombstones;
+    }
+
+    /** Drops every tombstoned id in one pass. */
+    public void compact() {
+        if (tombstones > 0) removeIds(tombstone);
+    }
+
+    /** @return the live ids in queue order, as an exact-size array */
+    public int[] toLiveIdArray() {
+        if (tombstones == 0) return toIdArray();
+        int[] out = new int[size - tombstones];
+        int n = 0;
+        for (int i = 0; i < size && n < out.length; i++) {
+            int id = elements[physical(i)];
+            if (!tombstone.test(id)) out[n++] = id;
+        }
+        return out;
+    }
+
+    /**
+     * Replace the contents with a copy of {@code source}, a frozen snapshot copy
+     * (used by snapshot restore; the source becomes this queue's current snapshot).
+     */
+    public void copyFrom(PassengerQueue source) {
+        clear();
+        if (elements.length < source.size) elements = new int[source.size];
+        source.copyInto(elements);
+        size = source.size;
+        tombstones = source.tombstones;
+        snapshot = source;
+        snapshotMod = modCount;
+    }
+
+    /**
+     * Frozen copy of the current contents; callers must never modify it.
+     * Returns the previous copy again while the queue is unchanged.
+     */
+    public PassengerQueue snapshot() {
+        if (snapshot == null || snapshotMod != modCount) {
+            snapshot = new PassengerQueue(this);
+            snapshotMod = modCount;
+        }
+        return snapshot;
+    }
+
+    /** @return the ids in queue order, as an exact-size array */
+    public int[] toIdArray() {
+        int[] out = new int[size];
+        copyInto(out);
+        return out;
+    }
+
+    public PassengerStore getStore() {
+        return store;
+    }
+
+    // ============================
+    // List view
+    // ============================
+
+    @Override
+    public Passenger get(int index) {
+        if (tombstones == 0) return store.view(getId(index));
+        int[] live = liveIds();
+        if (index < 0 || index >= live.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + live.length);
+        }
+        return store.view(live[index]);
+    }
+
+    /** @return number of live (non-tombstoned) passengers */
+    @Override
+    public int size() {
+        return size - tombstones;
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+        tombstones = 0;
+        modCount++;
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    /** Keeps the tombstone count in step when an id leaves the ring. */
+    private void forget(int id) {
+        if (tombstones > 0 && tombstone.test(id)) tombstones--;
+    }
+
+    private int[] liveIds() {
+        if (liveCacheMod != modCount) {
+            liveCache = toLiveIdArray();
+            liveCacheMod = modCount;
+        }
+        return liveCache;
+    }
+
+    private int physical(int index) {
+        int i = head + index;
+        return (i >= elements.length) ? i - elements.length : i;
+    }
+
+    /** Copies the queue in head-first order to the start of {@code dst}. */
+    private void copyInto(int[] dst) {
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, dst, 0, firstPart);
+        if (firstPart < size) System.arraycopy(elements, 0, dst, firstPart, size - firstPart);
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(Math.max(minCapacity, DEFAULT_CAPACITY), elements.length * 2);
+        int[] grown = new int[newCapacity];
+        copyInto(grown);
+        elements = grown;
+        head = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package sim.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates ahead of the AutoRun view on a producer thread.
+ *
+ * The producer advances the engine one interval at a time and hands each
+ * {@link IntervalFrame} to the consumer (the AutoRun timer on the EDT) through a
+ * bounded single-producer/single-consumer ring: one slot array plus a head and a
+ * tail counter, each written by one side only, so neither side ever takes a lock.
+ * A full ring parks the producer until the consumer takes a frame.
+ *
+ * While the buffer runs the producer owns the engine; only frames may be read.
+ * After {@link #stop()} the engine sits at the last produced interval, which is
+ * usually ahead of the last frame shown, so the caller moves it back.
+ */
+public class PlaybackBuffer {
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final SimulationEngine engine;
+    private final AtomicReferenceArray<IntervalFrame> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();   // next slot to take (consumer)
+    private final AtomicLong tail = new AtomicLong();   // next slot to fill (producer)
+
+    private volatile boolean running;
+    private volatile boolean finished;                  // producer reached the last interval or failed
+    private volatile RuntimeException failure;
+    private Thread producer;
+
+    /** @param capacity frames kept ready (rounded up to a power of two) */
+    public PlaybackBuffer(SimulationEngine engine, int capacity) {
+        int n = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.engine = engine;
+        this.slots = new AtomicReferenceArray<>(n);
+        this.mask = n - 1;
+    }
+
+    /** Starts simulating ahead from the engine's current interval. */
+    public void start() {
+        if (producer != null) throw new IllegalStateException("Playback buffer already started");
+        running = true;
+        producer = new Thread(this::produce, "playback-buffer");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Stops the producer and waits for the interval it is working on. Does not use
+     * interruption: it would close the channels of a memory-mapped history.
+     */
+    public void stop() {
+        running = false;
+        if (producer == null) return;
+        LockSupport.unpark(producer);
+        boolean interrupted = false;
+        while (producer.isAlive()) {
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /** @return the next ready frame, or null if the producer has not caught up */
+    public IntervalFrame poll() {
+        long h = head.get();
+        if (h == tail.get()) return null;
+        int slot = (int) (h & mask);
+        IntervalFrame frame = slots.get(slot);
+        slots.lazySet(slot, null);
+        head.lazySet(h + 1);
+        LockSupport.unpark(producer);
+        return frame;
+    }
+
+    /** @return true once every frame up to the last interval has been taken (or the producer failed) */
+    public boolean isDrained() {
+        return finished && head.get() == tail.get();
+    }
+
+    /** @return what stopped the producer, or null */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    // ============================
+    // Producer
+    // ============================
+
+    private void produce() {
+        try {
+            while (running && engine.getCurrentInterval() < engine.getTotalIntervals()) {
+                engine.computeNextInterval();
+                IntervalFrame frame = engine.captureFrame();
+
+                long t = tail.get();
+                while (running && t - head.get() > mask) {
+                    LockSupport.park(this);
+                }
+                if (!running) return;
+                slots.lazySet((int) (t & mask), frame);
+                tail.set(t + 1);   // publishes the frame and everything the engine wrote before it
+            }
+        } catch (RuntimeException ex) {
+            failure = ex;
+        } finally {
+            finished = true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package sim.service;
+
+import sim.model.Flight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Monte Carlo replications of one configuration.
+ *
+ * Every replication is a fresh engine from the factory with a random stream of its
+ * own, split off one master {@link SplittableRandom} before anything runs, so the
+ * master seed reproduces the whole set whatever the pool size or finishing order.
+ * Replications run in parallel on a {@link ForkJoinPool} and share nothing but the
+ * configuration objects, which the engines only read. They keep no history and no
+ * rewind snapshots, just the metric series the summary is built from.
+ */
+public class ReplicationRunner {
+    private final Supplier<SimulationEngine> factory;
+    private boolean stochasticArrivals = true;
+    private boolean stochasticService = true;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** @param factory builds one engine per replication, all for the same configuration */
+    public ReplicationRunner(Supplier<SimulationEngine> factory) {
+        if (factory == null) throw new IllegalArgumentException("factory must not be null");
+        this.factory = factory;
+    }
+
+    /** Draws each passenger's arrival minute from the arrival curve (default on). */
+    public void setStochasticArrivals(boolean stochasticArrivals) { this.stochasticArrivals = stochasticArrivals; }
+    public boolean isStochasticArrivals() { return stochasticArrivals; }
+
+    /** Serves a Poisson number of passengers per minute around each rate (default on). */
+    public void setStochasticService(boolean stochasticService) { this.stochasticService = stochasticService; }
+    public boolean isStochasticService() { return stochasticService; }
+
+    /** Worker threads (default: one per core). */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        this.parallelism = parallelism;
+    }
+    public int getParallelism() { return parallelism; }
+
+    /**
+     * Runs {@code replications} engines to the end and summarizes them.
+     * Interrupting the calling thread cancels the remaining replications.
+     *
+     * @throws CancellationException if the calling thread was interrupted
+     */
+    public ReplicationSummary run(int replications, long masterSeed) {
+        if (replications <= 0) throw new IllegalArgumentException("replications must be > 0");
+
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        List<SplittableRandom> streams = new ArrayList<>(replications);
+        for (int i = 0; i < replications; i++) streams.add(master.split());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Replication>> tasks = new ArrayList<>(replications);
+            for (SplittableRandom stream : streams) tasks.add(pool.submit(() -> replicate(stream)));
+
+            List<Replication> results = new ArrayList<>(replications);
+            for (ForkJoinTask<Replication> task : tasks) results.add(task.get());
+            return new ReplicationSummary(masterSeed, results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Replications cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Replication failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Replication replicate(SplittableRandom stream) {
+        SimulationEngine engine = factory.get();
+        engine.setHistoryFidelity(HistoryFidelity.NONE);
+        engine.setSnapshotMemoryBudgetBytes(0);
+        engine.setRandomStream(stream, stochasticArrivals, stochasticService);
+        engine.runAllIntervals();
+
+        int total = engine.getTotalIntervals();
+        int[] ticketQueued = new int[total + 1];
+        int[] checkpointQueued = new int[total + 1];
+        int[] holdRoomTotal = new int[total + 1];
+        for (int t = 0; t <= total; t++) {
+            ticketQueued[t] = engine.getTicketQueuedAtInterval(t);
+            checkpointQueued[t] = engine.getCheckpointQueuedAtInterval(t);
+            holdRoomTotal[t] = engine.getHoldRoomTotalAtInterval(t);
+        }
+
+        List<Flight> flights = engine.getFlights();
+        int[] missed = new int[flights.size()];
+        for (int f = 0; f < missed.length; f++) missed[f] = engine.getMissedCount(flights.get(f));
+
+        return new Replication(flights, ticketQueued, checkpointQueued, holdRoomTotal, missed);
+    }
+
+    /** Results of one replication, per interval and per flight. */
+    static final class Replication {
+        final List<Flight> flights;
+        final int[] ticketQueued;
+        final int[] checkpointQueued;
+        final int[] holdRoomTotal;
+        final int[] missed;
+
+        Replication(List<Flight> flights, int[] ticketQueued, int[] checkpointQueued,
+                    int[] holdRoomTotal, int[] missed) {
+            this.flights = flights;
+            this.ticketQueued = ticketQueued;
+            this.checkpointQueued = checkpointQueued;
+            this.holdRoomTotal = holdRoomTotal;
+            this.missed = missed;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package sim.service;
+
+import sim.model.Flight;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregate of a set of replications from {@link ReplicationRunner}: percentile
+ * bands of the queue totals per interval, and the distribution of missed passengers
+ * per flight. Percentiles are nearest-rank over the replications, given in percent
+ * (50 = median).
+ */
+public final class ReplicationSummary {
+    private final long masterSeed;
+    private final int replications;
+    private final List<Flight> flights;
+
+    // [interval][replication], each row sorted
+    private final int[][] ticketQueued;
+    private final int[][] checkpointQueued;
+    private final int[][] holdRoomTotal;
+
+    // [flight][replication], each row sorted
+    private final int[][] missed;
+
+    ReplicationSummary(long masterSeed, List<ReplicationRunner.Replication> results) {
+        ReplicationRunner.Replication first = results.get(0);
+        this.masterSeed = masterSeed;
+        this.replications = results.size();
+        this.flights = first.flights;
+
+        int intervals = first.ticketQueued.length;
+        ticketQueued = new int[intervals][replications];
+        checkpointQueued = new int[intervals][replications];
+        holdRoomTotal = new int[intervals][replications];
+        missed = new int[flights.size()][replications];
+
+        for (int r = 0; r < replications; r++) {
+            ReplicationRunner.Replication rep = results.get(r);
+            for (int t = 0; t < intervals; t++) {
+                ticketQueued[t][r] = rep.ticketQueued[t];
+                checkpointQueued[t][r] = rep.checkpointQueued[t];
+                holdRoomTotal[t][r] = rep.holdRoomTotal[t];
+            }
+            for (int f = 0; f < missed.length; f++) missed[f][r] = rep.missed[f];
+        }
+        for (int[] row : ticketQueued) Arrays.sort(row);
+        for (int[] row : checkpointQueued) Arrays.sort(row);
+        for (int[] row : holdRoomTotal) Arrays.sort(row);
+        for (int[] row : missed) Arrays.sort(row);
+    }
+
+    public long getMasterSeed() { return masterSeed; }
+    public int getReplications() { return replications; }
+    public int getTotalIntervals() { return ticketQueued.length - 1; }
+    public List<Flight> getFlights() { return flights; }
+
+    // ============================
+    // Queue totals per interval
+    // ============================
+
+    public int getTicketQueuedPercentile(int interval, double percent) {
+        return percentile(ticketQueued[interval], percent);
+    }
+
+    public int getCheckpointQueuedPercentile(int interval, double percent) {
+        return percentile(checkpointQueued[interval], percent);
+    }
+
+    public int getHoldRoomTotalPercentile(int interval, double percent) {
+        return percentile(holdRoomTotal[interval], percent);
+    }
+
+    /** @return the given percentile of the ticket-queue total at every interval */
+    public int[] getTicketQueuedBand(double percent) { return band(ticketQueued, percent); }
+    public int[] getCheckpointQueuedBand(double percent) { return band(checkpointQueued, percent); }
+    public int[] getHoldRoomTotalBand(double percent) { return band(holdRoomTotal, percent); }
+
+    // ============================
+    // Missed passengers per flight
+    // ============================
+
+    /** @return missed passengers of {@code f} in each replication, ascending */
+    public int[] getMissedDistribution(Flight f) {
+        return missed[flightIndex(f)].clone();
+    }
+
+    public int getMissedPercentile(Flight f, double percent) {
+        return percentile(missed[flightIndex(f)], percent);
+    }
+
+    public double getMeanMissed(Flight f) {
+        return Arrays.stream(missed[flightIndex(f)]).average().orElse(0);
+    }
+
+    /** @return share of replications in which more than {@code passengers} missed {@code f} */
+    public double getProbabilityMissedMoreThan(Flight f, int passengers) {
+        int[] row = missed[flightIndex(f)];
+        int atMost = 0;
+        while (atMost < row.length && row[atMost] <= passengers) atMost++;
+        return (row.length - atMost) / (double) row.length;
+    }
+
+    private int flightIndex(Flight f) {
+        int i = flights.indexOf(f);
+        if (i < 0) throw new IllegalArgumentException("Flight is not part of the replications: " + f);
+        return i;
+    }
+
+    private static int[] band(int[][] sortedRows, double percent) {
+        int[] band = new int[sortedRows.length];
+        for (int t = 0; t < band.length; t++) band[t] = percentile(sortedRows[t], percent);
+        return band;
+    }
+
+    private static int percentile(int[] sorted, double percent) {
+        if (percent < 0 || percent > 100) throw new IllegalArgumentException("percent must be in [0, 100]");
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,728 @@
+package sim.service;
+
+import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
+import sim.model.Flight;
+import sim.model.HoldRoomConfig;
+import sim.model.PassengerStore;
+import sim.model.TicketCounterConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary archive of a finished run, reopened for playback without simulating again.
+ *
+ * Sections, in order: configuration, per-minute arrivals, per-interval metrics and
+ * line counts, the passenger event stream (every write-once field of every
+ * passenger), the line histories and the displayed line state of every interval.
+ * Ints are varints, minutes are stored relative to the passenger's arrival and ids
+ * as zigzag deltas; lines are stored as the head pops and tail appends since the
+ * previous interval, like {@link LineHistory}. The stream is deflated in blocks.
+ *
+ * {@link #read(Path)} returns an engine in playback mode (see
+ * {@link SimulationEngine#isPlayback()}): every interval counts as computed and
+ * moving between intervals applies the archived state.
+ */
+public final class RunArchive {
+    private static final int MAGIC = 0x52554e41;   // "RUNA"
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    // passenger field presence bits (a cleared bit = the store default)
+    private static final int HAS_TICKET_COMPLETION    = 1;
+    private static final int HAS_COUNTER              = 1 << 1;
+    private static final int HAS_CHECKPOINT_ENTRY     = 1 << 2;
+    private static final int HAS_CHECKPOINT_COMPLETION = 1 << 3;
+    private static final int HAS_HOLD_ENTRY           = 1 << 4;
+    private static final int HAS_HOLD_SEQUENCE        = 1 << 5;
+    private static final int HAS_ROOM                 = 1 << 6;
+    private static final int HAS_MISSED_MINUTE        = 1 << 7;
+    private static final int IN_PERSON                = 1 << 8;
+    private static final int MISSED                   = 1 << 9;
+
+    // line entries
+    private static final int LINE_UNCHANGED = 0;
+    private static final int LINE_DELTA = 1;
+    private static final int LINE_FULL = 2;
+
+    private RunArchive() { }
+
+    // ============================
+    // Writing
+    // ============================
+
+    /**
+     * Finishes the run if needed and writes it to {@code file}. The engine is left at
+     * the interval it was showing.
+     */
+    public static void write(SimulationEngine engine, Path file) throws IOException {
+        write(engine, Files.newOutputStream(file));
+    }
+
+    /** Same as {@link #write(SimulationEngine, Path)}; closes {@code stream}. */
+    public static void write(SimulationEngine engine, OutputStream stream) throws IOException {
+        int resume = engine.getCurrentInterval();
+        int total = engine.getTotalIntervals();
+        engine.goToInterval(engine.getMaxComputedInterval());
+        while (engine.getCurrentInterval() < total) engine.computeNextInterval();
+
+        try (Output out = new Output(new DataOutputStream(new BufferedOutputStream(stream)))) {
+            List<Flight> flights = engine.getFlights();
+            Map<Flight, Integer> flightIndex = flightIndex(engine);
+
+            writeConfig(engine, flightIndex, out);
+            for (int room : engine.getChosenHoldRooms()) out.writeZigzag(room);
+            for (Flight f : flights) {
+                int[] perMin = engine.getMinuteArrivalsMap().get(f);
+                out.writeInts(perMin == null ? new int[0] : perMin);
+            }
+            for (IntSeries series : engine.getMetricSeries()) {
+                out.writeVarint(series.end() - series.firstIndex());
+                for (int i = series.firstIndex(); i < series.end(); i++) out.writeVarint(series.get(i, 0));
+            }
+            out.writeVarint(engine.getHistoryFidelity().ordinal());
+            for (LineCountHistory counts : engine.getLineCountHistories()) writeCounts(counts, out);
+            writePassengers(engine.getStore(), flightIndex, out);
+            for (LineHistory history : engine.getLineHistories()) writeHistory(history, out);
+            writePlayback(engine, flightIndex, out);
+        } finally {
+            engine.goToInterval(resume);
+        }
+    }
+
+    private static void writeConfig(SimulationEngine engine, Map<Flight, Integer> flightIndex, Output out) throws IOException {
+        out.writeDouble(engine.getPercentInPerson());
+        out.writeVarint(engine.getArrivalSpan());
+        out.writeVarint(engine.getInterval());
+        out.writeVarint(engine.getTransitDelayMinutes());
+        out.writeVarint(engine.getHoldDelayMinutes());
+
+        List<Flight> flights = engine.getFlights();
+        out.writeVarint(flights.size());
+        for (Flight f : flights) {
+            out.writeString(f.getFlightNumber());
+            out.writeVarlong(f.getDepartureTime().toNanoOfDay());
+            out.writeVarint(f.getSeats());
+            out.writeDouble(f.getFillPercent());
+            out.writeVarint(f.getShape() == null ? 0 : f.getShape().ordinal() + 1);
+        }
+
+        List<TicketCounterConfig> counters = engine.getCounterConfigs();
+        out.writeVarint(counters.size());
+        for (TicketCounterConfig c : counters) {
+            out.writeZigzag(c.getId());
+            out.writeDouble(c.getRate());
+            List<Integer> allowed = new ArrayList<>();
+            for (Flight f : c.getAllowedFlights()) {
+                Integer i = flightIndex.get(f);
+                if (i != null) allowed.add(i);
+            }
+            Collections.sort(allowed);   // set order is not stable between runs
+            out.writeVarint(allowed.size());
+            for (int i : allowed) out.writeVarint(i);
+        }
+
+        List<CheckpointConfig> checkpoints = engine.getCheckpointConfigs();
+        out.writeVarint(checkpoints.size());
+        for (CheckpointConfig c : checkpoints) {
+            out.writeZigzag(c.getId());
+            out.writeDouble(c.getRatePerHour());
+        }
+
+        List<HoldRoomConfig> rooms = engine.getHoldRoomConfigs();
+        out.writeVarint(rooms.size());
+        for (HoldRoomConfig r : rooms) {
+            out.writeZigzag(r.getId());
+            out.writeVarint(r.getWalkSecondsFromCheckpoint());
+            List<String> allowed = new ArrayList<>(r.getAllowedFlightNumbers());
+            Collections.sort(allowed);
+            out.writeVarint(allowed.size());
+            for (String number : allowed) out.writeString(number);
+        }
+
+        ArrivalCurveConfig curve = engine.getArrivalCurveConfigCopy();
+        out.writeVarint(curve.isLegacyMode() ? 1 : 0);
+        out.writeZigzag(curve.getPeakMinutesBeforeDeparture());
+        out.writeZigzag(curve.getLeftSigmaMinutes());
+        out.writeZigzag(curve.getRightSigmaMinutes());
+        out.writeVarint(curve.isLateClampEnabled() ? 1 : 0);
+        out.writeZigzag(curve.getLateClampMinutesBeforeDeparture());
+        out.writeZigzag(curve.getWindowStartMinutesBeforeDeparture());
+        out.writeZigzag(curve.getBoardingCloseMinutesBeforeDeparture());
+    }
+
+    /**
+     * @return the engine's configuration in archive form: equal for engines that
+     *         simulate the same run, whatever Flight / config instances they use
+     */
+    static byte[] configBytes(SimulationEngine engine) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output out = new Output(new DataOutputStream(bytes))) {
+            writeConfig(engine, flightIndex(engine), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<Flight, Integer> flightIndex(SimulationEngine engine) {
+        List<Flight> flights = engine.getFlights();
+        Map<Flight, Integer> flightIndex = new IdentityHashMap<>();
+        for (int i = 0; i < flights.size(); i++) flightIndex.put(flights.get(i), i);
+        return flightIndex;
+    }
+
+    private static void writeCounts(LineCountHistory counts, Output out) throws IOException {
+        int lines = counts.lineCount();
+        out.writeVarint(lines);
+        out.writeVarint(counts.size());
+        for (int t = 0; t < counts.size(); t++) {
+            for (int l = 0; l < lines; l++) {
+                out.writeZigzag(counts.get(t, l) - (t == 0 ? 0 : counts.get(t - 1, l)));
+            }
+        }
+    }
+
+    private static void writePassengers(PassengerStore store, Map<Flight, Integer> flightIndex, Output out) throws IOException {
+        out.writeVarint(store.flightCount());
+        for (int i = 0; i < store.flightCount(); i++) {
+            Integer idx = flightIndex.get(store.flightAt(i));
+            if (idx == null) throw new IllegalStateException("Passenger flight is not part of the run: " + store.flightAt(i));
+            out.writeVarint(idx);
+        }
+
+        out.writeVarint(store.size());
+        int lastFlight = 0;
+        int lastArrival = 0;
+        for (int id = 0; id < store.size(); id++) {
+            int flight = store.getFlightIndex(id);
+            int arrival = store.getArrivalMinute(id);
+            int ticket = store.getTicketCompletionMinute(id);
+            int counter = store.getTicketCounterIndex(id);
+            int cpEntry = store.getCheckpointEntryMinute(id);
+            int cpDone = store.getCheckpointCompletionMinute(id);
+            int holdEntry = store.getHoldRoomEntryMinute(id);
+            int holdSeq = store.getHoldRoomSequence(id);
+            int room = store.getAssignedHoldRoomIndex(id);
+            int missedAt = store.getMissedMinute(id);
+
+            int mask = 0;
+            if (ticket != 0) mask |= HAS_TICKET_COMPLETION;
+            if (counter != -1) mask |= HAS_COUNTER;
+            if (cpEntry != 0) mask |= HAS_CHECKPOINT_ENTRY;
+            if (cpDone != 0) mask |= HAS_CHECKPOINT_COMPLETION;
+            if (holdEntry != -1) mask |= HAS_HOLD_ENTRY;
+            if (holdSeq != -1) mask |= HAS_HOLD_SEQUENCE;
+            if (room != -1) mask |= HAS_ROOM;
+            if (missedAt != -1) mask |= HAS_MISSED_MINUTE;
+            if (store.isInPerson(id)) mask |= IN_PERSON;
+            if (store.isMissed(id)) mask |= MISSED;
+
+            out.writeZigzag(flight - lastFlight);
+            out.writeZigzag(arrival - lastArrival);
+            out.writeVarint(mask);
+            if ((mask & HAS_TICKET_COMPLETION) != 0) out.writeZigzag(ticket - arrival);
+            if ((mask & HAS_COUNTER) != 0) out.writeVarint(counter);
+            if ((mask & HAS_CHECKPOINT_ENTRY) != 0) out.writeZigzag(cpEntry - arrival);
+            if ((mask & HAS_CHECKPOINT_COMPLETION) != 0) out.writeZigzag(cpDone - arrival);
+            if ((mask & HAS_HOLD_ENTRY) != 0) out.writeZigzag(holdEntry - arrival);
+            if ((mask & HAS_HOLD_SEQUENCE) != 0) out.writeVarint(holdSeq);
+            if ((mask & HAS_ROOM) != 0) out.writeVarint(room);
+            if ((mask & HAS_MISSED_MINUTE) != 0) out.writeZigzag(missedAt - arrival);
+            lastFlight = flight;
+            lastArrival = arrival;
+        }
+    }
+
+    private static void writeHistory(LineHistory history, Output out) throws IOException {
+        int lines = history.lineCount();
+        out.writeVarint(lines);
+        out.writeVarint(history.size());
+        LineWriter writer = new LineWriter(lines);
+        LineHistory.Reader reader = history.reader();
+        for (int t = 0; t < history.size(); t++) {
+            for (int l = 0; l < lines; l++) writer.write(l, reader.ids(t, l), out);
+        }
+    }
+
+    /** The displayed state of every interval 0..total, captured by stepping the engine through the run. */
+    private static void writePlayback(SimulationEngine engine, Map<Flight, Integer> flightIndex, Output out) throws IOException {
+        List<List<PassengerQueue>> families = engine.getLineFamilies();
+        LineWriter[] lineWriters = new LineWriter[families.size()];
+        for (int f = 0; f < families.size(); f++) {
+            lineWriters[f] = new LineWriter(families.get(f).size());
+            out.writeVarint(families.get(f).size());
+        }
+        int counters = engine.getCompletedTicketLines().size();
+        LineWriter visibleWriter = new LineWriter(counters);
+        LineWriter closedWriter = new LineWriter(1);
+
+        int total = engine.getTotalIntervals();
+        out.writeVarint(total);
+        for (int t = 0; t <= total; t++) {
+            if (Thread.currentThread().isInterrupted()) throw new InterruptedIOException("Run archive cancelled");
+            engine.goToInterval(t);
+            for (int f = 0; f < families.size(); f++) {
+                List<PassengerQueue> lines = families.get(f);
+                for (int l = 0; l < lines.size(); l++) lineWriters[f].write(l, lines.get(l).toLiveIdArray(), out);
+            }
+            for (int c = 0; c < counters; c++) {
+                PassengerIdList visible = (PassengerIdList) engine.getVisibleCompletedTicketLine(c);
+                int[] ids = new int[visible.size()];
+                for (int i = 0; i < ids.length; i++) ids[i] = visible.getId(i);
+                visibleWriter.write(c, ids, out);
+            }
+            List<Flight> closed = engine.getFlightsJustClosed();
+            int[] closedIdx = new int[closed.size()];
+            for (int i = 0; i < closedIdx.length; i++) closedIdx[i] = flightIndex.get(closed.get(i));
+            closedWriter.write(0, closedIdx, out);
+            out.writeVarint(engine.getMetricSeries()[1].end());
+        }
+    }
+
+    // ============================
+    // Reading
+    // ============================
+
+    /** Reads an archive written by {@link #write} into a new engine in playback mode. */
+    public static SimulationEngine read(Path file) throws IOException {
+        return read(Files.newInputStream(file));
+    }
+
+    /** Same as {@link #read(Path)}; closes {@code stream}. */
+    public static SimulationEngine read(InputStream stream) throws IOException {
+        try (Input in = new Input(new DataInputStream(new BufferedInputStream(stream)))) {
+            double percentInPerson = in.readDouble();
+            int arrivalSpan = in.readVarint();
+            int interval = in.readVarint();
+            int transitDelay = in.readVarint();
+            int holdDelay = in.readVarint();
+
+            int flightCount = in.readVarint();
+            List<Flight> flights = new ArrayList<>(flightCount);
+            Flight.ShapeType[] shapes = Flight.ShapeType.values();
+            for (int i = 0; i < flightCount; i++) {
+                String number = in.readString();
+                LocalTime departure = LocalTime.ofNanoOfDay(in.readVarlong());
+                int seats = in.readVarint();
+                double fill = in.readDouble();
+                int shape = in.readVarint();
+                flights.add(new Flight(number, departure, seats, fill, shape == 0 ? null : shapes[shape - 1]));
+            }
+
+            int counterCount = in.readVarint();
+            List<TicketCounterConfig> counters = new ArrayList<>(counterCount);
+            for (int i = 0; i < counterCount; i++) {
+                int id = in.readZigzag();
+                double rate = in.readDouble();
+                Set<Flight> allowed = new HashSet<>();
+                for (int n = in.readVarint(); n > 0; n--) allowed.add(flights.get(in.readVarint()));
+                counters.add(new TicketCounterConfig(id, rate, allowed));
+            }
+
+            int checkpointCount = in.readVarint();
+            List<CheckpointConfig> checkpoints = new ArrayList<>(checkpointCount);
+            for (int i = 0; i < checkpointCount; i++) {
+                CheckpointConfig c = new CheckpointConfig(in.readZigzag());
+                c.setRatePerHour(in.readDouble());
+                checkpoints.add(c);
+            }
+
+            int roomCount = in.readVarint();
+            List<HoldRoomConfig> rooms = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                HoldRoomConfig r = new HoldRoomConfig(in.readZigzag(), in.readVarint());
+                List<String> allowed = new ArrayList<>();
+                for (int n = in.readVarint(); n > 0; n--) allowed.add(in.readString());
+                r.setAllowedFlightNumbers(allowed);
+                rooms.add(r);
+            }
+
+            ArrivalCurveConfig curve = ArrivalCurveConfig.legacyDefault();
+            curve.setLegacyMode(in.readVarint() != 0);
+            curve.setPeakMinutesBeforeDeparture(in.readZigzag());
+            curve.setLeftSigmaMinutes(in.readZigzag());
+            curve.setRightSigmaMinutes(in.readZigzag());
+            curve.setLateClampEnabled(in.readVarint() != 0);
+            curve.setLateClampMinutesBeforeDeparture(in.readZigzag());
+            curve.setWindowStartMinutesBeforeDeparture(in.readZigzag());
+            curve.setBoardingCloseMinutesBeforeDeparture(in.readZigzag());
+
+            int[] chosenRooms = new int[flightCount];
+            for (int i = 0; i < flightCount; i++) chosenRooms[i] = in.readZigzag();
+
+            SimulationEngine engine = new SimulationEngine(percentInPerson, counters, checkpoints,
+                    arrivalSpan, interval, transitDelay, holdDelay, flights, rooms);
+            engine.setArrivalCurveConfig(curve);
+
+            Map<Flight, int[]> arrivals = new HashMap<>();
+            for (Flight f : flights) arrivals.put(f, in.readInts());
+
+            for (IntSeries series : engine.getMetricSeries()) {
+                series.clear();
+                int n = in.readVarint();
+                for (int i = 0; i < n; i++) series.put(series.firstIndex() + i, in.readVarint());
+            }
+
+            engine.setHistoryFidelity(HistoryFidelity.values()[in.readVarint()]);
+            for (LineCountHistory counts : engine.getLineCountHistories()) readCounts(counts, in);
+            readPassengers(engine.getStore(), flights, in);
+            for (LineHistory history : engine.getLineHistories()) readHistory(history, in);
+
+            PassengerStore store = engine.getStore();
+            LineHistory[] lines = new LineHistory[engine.getLineFamilies().size()];
+            LineReader[] lineReaders = new LineReader[lines.length];
+            for (int f = 0; f < lines.length; f++) {
+                lines[f] = new LineHistory(store);
+                lineReaders[f] = new LineReader(in.readVarint());
+            }
+            LineHistory visible = new LineHistory(store);
+            LineReader visibleReader = new LineReader(counterCount);
+            LineHistory closed = new LineHistory(store);
+            LineReader closedReader = new LineReader(1);
+
+            int total = in.readVarint();
+            if (total != engine.getTotalIntervals()) {
+                throw new IOException("Archive has " + total + " intervals, the configuration gives " + engine.getTotalIntervals());
+            }
+            int[] metricsEnd = new int[total + 1];
+            for (int t = 0; t <= total; t++) {
+                for (int f = 0; f < lines.length; f++) lines[f].add(lineReaders[f].read(in));
+                visible.add(visibleReader.read(in));
+                closed.add(closedReader.read(in));
+                metricsEnd[t] = in.readVarint();
+            }
+            in.expectEnd();
+
+            engine.loadPlayback(chosenRooms, arrivals, lines, visible, closed, metricsEnd);
+            return engine;
+        }
+    }
+
+    private static void readCounts(LineCountHistory counts, Input in) throws IOException {
+        int lines = in.readVarint();
+        int size = in.readVarint();
+        int[] row = new int[lines];
+        for (int t = 0; t < size; t++) {
+            for (int l = 0; l < lines; l++) row[l] += in.readZigzag();
+            counts.add(row);
+        }
+    }
+
+    private static void readPassengers(PassengerStore store, List<Flight> flights, Input in) throws IOException {
+        int[] storeFlight = new int[in.readVarint()];
+        for (int i = 0; i < storeFlight.length; i++) storeFlight[i] = store.indexOf(flights.get(in.readVarint()));
+
+        int n = in.readVarint();
+        int flight = 0;
+        int arrival = 0;
+        for (int k = 0; k < n; k++) {
+            flight += in.readZigzag();
+            arrival += in.readZigzag();
+            int mask = in.readVarint();
+            int id = store.add(storeFlight[flight], arrival, (mask & IN_PERSON) != 0);
+            if ((mask & HAS_TICKET_COMPLETION) != 0) store.setTicketCompletionMinute(id, arrival + in.readZigzag());
+            if ((mask & HAS_COUNTER) != 0) store.setTicketCounterIndex(id, in.readVarint());
+            if ((mask & HAS_CHECKPOINT_ENTRY) != 0) store.setCheckpointEntryMinute(id, arrival + in.readZigzag());
+            if ((mask & HAS_CHECKPOINT_COMPLETION) != 0) store.setCheckpointCompletionMinute(id, arrival + in.readZigzag());
+            if ((mask & HAS_HOLD_ENTRY) != 0) store.setHoldRoomEntryMinute(id, arrival + in.readZigzag());
+            if ((mask & HAS_HOLD_SEQUENCE) != 0) store.setHoldRoomSequence(id, in.readVarint());
+            if ((mask & HAS_ROOM) != 0) store.setAssignedHoldRoomIndex(id, in.readVarint());
+            int missedAt = ((mask & HAS_MISSED_MINUTE) != 0) ? arrival + in.readZigzag() : -1;
+            if ((mask & MISSED) != 0) {
+                if (missedAt >= 0) store.markMissed(id, missedAt);
+                else store.setMissed(id, true);
+            }
+        }
+    }
+
+    private static void readHistory(LineHistory history, Input in) throws IOException {
+        int lines = in.readVarint();
+        int size = in.readVarint();
+        LineReader reader = new LineReader(lines);
+        for (int t = 0; t < size; t++) history.add(reader.read(in));
+    }
+
+    // ============================
+    // Line deltas
+    // ============================
+
+    /** Writes each line as unchanged, head pops plus appended ids, or a full copy. */
+    private static final class LineWriter {
+        private final int[][] last;
+
+        LineWriter(int lines) {
+            last = new int[lines][];
+            Arrays.fill(last, new int[0]);
+        }
+
+        void write(int line, int[] ids, Output out) throws IOException {
+            int[] previous = last[line];
+            last[line] = ids;
+            if (Arrays.equals(previous, ids)) {
+                out.writeVarint(LINE_UNCHANGED);
+                return;
+            }
+            int pops = LineHistory.headPops(previous, ids);
+            int from = 0;
+            int base = 0;
+            if (pops >= 0) {
+                int kept = previous.length - pops;
+                out.writeVarint(LINE_DELTA);
+                out.writeVarint(pops);
+                from = kept;
+                if (kept > 0) base = ids[kept - 1];
+            } else {
+                out.writeVarint(LINE_FULL);
+            }
+            out.writeVarint(ids.length - from);
+            for (int i = from; i < ids.length; i++) {
+                out.writeZigzag(ids[i] - base);
+                base = ids[i];
+            }
+        }
+    }
+
+    private static final class LineReader {
+        private final int[][] last;
+
+        LineReader(int lines) {
+            last = new int[lines][];
+            Arrays.fill(last, new int[0]);
+        }
+
+        /** @return the next interval's lines (unchanged lines share the previous array) */
+        int[][] read(Input in) throws IOException {
+            int[][] row = new int[last.length][];
+            for (int l = 0; l < last.length; l++) {
+                int[] previous = last[l];
+                int tag = in.readVarint();
+                int[] ids;
+                if (tag == LINE_UNCHANGED) {
+                    ids = previous;
+                } else {
+                    int kept = 0;
+                    int base = 0;
+                    if (tag == LINE_DELTA) {
+                        kept = previous.length - in.readVarint();
+                        if (kept > 0) base = previous[previous.length - 1];
+                    } else if (tag != LINE_FULL) {
+                        throw new IOException("Corrupt line entry: " + tag);
+                    }
+                    int appended = in.readVarint();
+                    int from = previous.length - kept;
+                    ids = Arrays.copyOfRange(previous, from, from + kept + appended);
+                    for (int i = kept; i < ids.length; i++) {
+                        base += in.readZigzag();
+                        ids[i] = base;
+                    }
+                }
+                row[l] = last[l] = ids;
+            }
+            return row;
+        }
+    }
+
+    // ============================
+    // Block-compressed varint streams
+    // ============================
+
+    /** Varint writer that deflates every {@link #BLOCK_SIZE} bytes as one block: rawLength, length, bytes. */
+    private static final class Output implements Closeable {
+        private final DataOutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] block = new byte[BLOCK_SIZE + 16];
+        private byte[] packed = new byte[BLOCK_SIZE + 1024];
+        private int n;
+
+        Output(DataOutputStream out) throws IOException {
+            this.out = out;
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        void writeVarint(int v) throws IOException {
+            writeVarlong(v & 0xffffffffL);
+        }
+
+        void writeVarlong(long v) throws IOException {
+            if (n >= BLOCK_SIZE) flushBlock();
+            while ((v & ~0x7fL) != 0) {
+                block[n++] = (byte) ((v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+            block[n++] = (byte) v;
+        }
+
+        void writeZigzag(int v) throws IOException {
+            writeVarint((v << 1) ^ (v >> 31));
+        }
+
+        void writeDouble(double v) throws IOException {
+            long bits = Double.doubleToLongBits(v);
+            if (n >= BLOCK_SIZE) flushBlock();
+            for (int i = 0; i < 8; i++) block[n++] = (byte) (bits >>> (8 * i));
+        }
+
+        void writeString(String s) throws IOException {
+            byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            for (byte b : bytes) {
+                if (n >= BLOCK_SIZE) flushBlock();
+                block[n++] = b;
+            }
+        }
+
+        void writeInts(int[] values) throws IOException {
+            writeVarint(values.length);
+            for (int v : values) writeZigzag(v);
+        }
+
+        private void flushBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(block, 0, n);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == packed.length) packed = Arrays.copyOf(packed, packed.length * 2);
+                length += deflater.deflate(packed, length, packed.length - length);
+            }
+            out.writeInt(n);
+            out.writeInt(length);
+            out.write(packed, 0, length);
+            n = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (n > 0) flushBlock();
+                out.writeInt(0);   // end marker
+                out.writeInt(0);
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+    }
+
+    private static final class Input implements Closeable {
+        private final DataInputStream in;
+        private final Inflater inflater = new Inflater();
+        private byte[] block = new byte[0];
+        private byte[] packed = new byte[0];
+        private int n;
+        private int at;
+
+        Input(DataInputStream in) throws IOException {
+            this.in = in;
+            if (in.readInt() != MAGIC) throw new IOException("Not a run archive");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported run archive version " + version);
+        }
+
+        int readVarint() throws IOException {
+            return (int) readVarlong();
+        }
+
+        long readVarlong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                v |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("Corrupt varint");
+        }
+
+        int readZigzag() throws IOException {
+            int v = readVarint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        double readDouble() throws IOException {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) bits |= (long) readByte() << (8 * i);
+            return Double.longBitsToDouble(bits);
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = new byte[readVarint()];
+            for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) readByte();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int[] readInts() throws IOException {
+            int[] values = new int[readVarint()];
+            for (int i = 0; i < values.length; i++) values[i] = readZigzag();
+            return values;
+        }
+
+        void expectEnd() throws IOException {
+            if (at < n || nextBlock()) throw new IOException("Trailing data in run archive");
+        }
+
+        private int readByte() throws IOException {
+            if (at == n && !nextBlock()) throw new EOFException("Run archive is truncated");
+            return block[at++] & 0xff;
+        }
+
+        private boolean nextBlock() throws IOException {
+            int raw = in.readInt();
+            int length = in.readInt();
+            if (raw == 0) return false;
+            if (block.length < raw) block = new byte[raw];
+            if (packed.length < length) packed = new byte[length];
+            in.readFully(packed, 0, length);
+            inflater.reset();
+            inflater.setInput(packed, 0, length);
+            try {
+                int done = 0;
+                while (done < raw && !inflater.finished()) {
+                    int k = inflater.inflate(block, done, raw - done);
+                    if (k == 0 && inflater.needsInput()) break;
+                    done += k;
+                }
+                if (done != raw) throw new IOException("Corrupt block in run archive");
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block in run archive", e);
+            }
+            n = raw;
+            at = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+    }
+}
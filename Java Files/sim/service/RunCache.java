@@ -0,0 +1,173 @@
+package sim.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finished runs keyed by a hash of their configuration, so an unchanged setup is
+ * simulated only once.
+ *
+ * The key is the SHA-256 of the configuration in {@link RunArchive} form (flights,
+ * counters, checkpoints, hold rooms, global inputs, arrival curve) plus the history
+ * fidelity and, for a stochastic run, its random seed. Runs are kept as archives: in memory, least recently used first out
+ * once over the byte budget, and optionally as files in a directory, which also
+ * survive restarts. A hit is an engine in playback mode.
+ *
+ * Thread-safe; a run missing from the cache is simulated outside the lock.
+ */
+public class RunCache {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private static final String FILE_SUFFIX = ".run";
+
+    private final long memoryBudgetBytes;
+    private final Path directory;   // null = memory only
+    private long memoryBytes;
+
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** In-memory cache with the default budget. */
+    public RunCache() {
+        this(DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * @param memoryBudgetBytes archive bytes kept in memory
+     * @param directory         where archives are also written (null = memory only)
+     */
+    public RunCache(long memoryBudgetBytes, Path directory) {
+        if (memoryBudgetBytes < 0) throw new IllegalArgumentException("memoryBudgetBytes must be >= 0");
+        if (directory != null && !Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.directory = directory;
+    }
+
+    /** @return cache key of the run {@code engine} is configured for (it does not have to be run) */
+    public static String key(SimulationEngine engine) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(RunArchive.configBytes(engine));
+            sha.update((byte) engine.getHistoryFidelity().ordinal());
+            if (engine.isStochasticArrivals() || engine.isStochasticService()) {
+                sha.update((byte) ((engine.isStochasticArrivals() ? 1 : 0) | (engine.isStochasticService() ? 2 : 0)));
+                sha.update(ByteBuffer.allocate(Long.BYTES).putLong(engine.getRandomSeed()).array());
+            }
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : sha.digest()) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** @return the cached run (a playback engine), or null */
+    public SimulationEngine get(String key) {
+        byte[] archive = lookup(key);
+        if (archive == null) return null;
+        try {
+            return RunArchive.read(new ByteArrayInputStream(archive));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cached run " + key + " is unreadable", e);
+        }
+    }
+
+    /** Finishes {@code engine}'s run if needed and caches it under its key. */
+    public void put(SimulationEngine engine) {
+        String key = key(engine);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            RunArchive.write(engine, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // in-memory stream
+        }
+        byte[] archive = bytes.toByteArray();
+        remember(key, archive);
+        if (directory != null) store(key, archive);
+    }
+
+    /**
+     * @return the cached run for {@code engine}'s configuration if there is one,
+     *         otherwise {@code engine} itself after running and caching it
+     */
+    public SimulationEngine computeIfAbsent(SimulationEngine engine) {
+        SimulationEngine cached = get(key(engine));
+        if (cached != null) return cached;
+        engine.runAllIntervals();
+        put(engine);
+        return engine;
+    }
+
+    public synchronized boolean contains(String key) {
+        return memory.containsKey(key) || (directory != null && Files.isRegularFile(fileOf(key)));
+    }
+
+    /** @return archive bytes held in memory */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized void clear() {
+        memory.clear();
+        memoryBytes = 0;
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    private byte[] lookup(String key) {
+        synchronized (this) {
+            byte[] archive = memory.get(key);
+            if (archive != null || directory == null) return archive;
+        }
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            byte[] archive = Files.readAllBytes(file);
+            remember(key, archive);
+            return archive;
+        } catch (IOException e) {
+            return null;   // unreadable entry: simulate again
+        }
+    }
+
+    private synchronized void remember(String key, byte[] archive) {
+        byte[] old = memory.put(key, archive);
+        if (old != null) memoryBytes -= old.length;
+        memoryBytes += archive.length;
+
+        Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > memoryBudgetBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    /** Writes through a temp file so a reader never sees a half-written archive. */
+    private void store(String key, byte[] archive) {
+        try {
+            Path tmp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(tmp, archive);
+            Files.move(tmp, fileOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write cached run to " + directory, e);
+        }
+    }
+
+    private Path fileOf(String key) {
+        return directory.resolve(key + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,229 @@
+package sim.service;
+
+import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
+import sim.model.Flight;
+import sim.model.HoldRoomConfig;
+import sim.model.TicketCounterConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Setup of one run as a hand-editable properties file, for running without the
+ * setup window:
+ *
+ * <pre>
+ * percentInPerson = 0.4
+ * arrivalSpan     = 120
+ * transitDelay    = 2
+ * holdDelay       = 5
+ *
+ * # number, departure, seats, fill, shape
+ * flight.1 = AA100, 08:00, 180, 0.85, CIRCLE
+ * # passengers/minute, then the flights it serves (none = all)
+ * counter.1 = 1.0
+ * counter.2 = 1.5, AA100
+ * # passengers/hour
+ * checkpoint.1 = 120
+ * # walk seconds from the checkpoint, then the flights it accepts (none = all);
+ * # without hold rooms every flight gets its own
+ * holdRoom.1 = 300, AA100
+ *
+ * # arrival curve (default: legacy)
+ * curve.legacyMode = false
+ * curve.peakMinutesBeforeDeparture = 70
+ * </pre>
+ *
+ * The other curve keys are {@code leftSigmaMinutes}, {@code rightSigmaMinutes},
+ * {@code lateClampEnabled}, {@code lateClampMinutesBeforeDeparture} and
+ * {@code windowStartMinutesBeforeDeparture}. Numbered entries are taken in number
+ * order. As in the setup window, the interval is always 1 minute and the arrival
+ * span is widened to the curve's window start.
+ */
+public final class ScenarioFile {
+    private ScenarioFile() {}
+
+    /** @return an engine for the scenario in {@code file} (not yet run) */
+    public static SimulationEngine read(Path file) throws IOException {
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(in);
+        }
+        try {
+            return build(p);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Writes {@code engine}'s setup in scenario form. */
+    public static void write(SimulationEngine engine, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("percentInPerson = " + engine.getPercentInPerson() + "\n");
+            out.write("arrivalSpan = " + engine.getArrivalSpan() + "\n");
+            out.write("transitDelay = " + engine.getTransitDelayMinutes() + "\n");
+            out.write("holdDelay = " + engine.getHoldDelayMinutes() + "\n\n");
+
+            int n = 0;
+            for (Flight f : engine.getFlights()) {
+                out.write("flight." + (++n) + " = " + f.getFlightNumber() + ", " + f.getDepartureTime()
+                        + ", " + f.getSeats() + ", " + f.getFillPercent()
+                        + (f.getShape() == null ? "" : ", " + f.getShape()) + "\n");
+            }
+            n = 0;
+            for (TicketCounterConfig c : engine.getCounterConfigs()) {
+                StringBuilder line = new StringBuilder("counter." + (++n) + " = " + c.getRate());
+                for (Flight f : c.getAllowedFlights()) line.append(", ").append(f.getFlightNumber());
+                out.write(line + "\n");
+            }
+            n = 0;
+            for (CheckpointConfig c : engine.getCheckpointConfigs()) {
+                out.write("checkpoint." + (++n) + " = " + c.getRatePerHour() + "\n");
+            }
+            n = 0;
+            for (HoldRoomConfig r : engine.getHoldRoomConfigs()) {
+                StringBuilder line = new StringBuilder("holdRoom." + (++n) + " = " + r.getWalkSecondsFromCheckpoint());
+                for (String number : r.getAllowedFlightNumbers()) line.append(", ").append(number);
+                out.write(line + "\n");
+            }
+
+            ArrivalCurveConfig c = engine.getArrivalCurveConfigCopy();
+            out.write("\ncurve.legacyMode = " + c.isLegacyMode() + "\n");
+            out.write("curve.peakMinutesBeforeDeparture = " + c.getPeakMinutesBeforeDeparture() + "\n");
+            out.write("curve.leftSigmaMinutes = " + c.getLeftSigmaMinutes() + "\n");
+            out.write("curve.rightSigmaMinutes = " + c.getRightSigmaMinutes() + "\n");
+            out.write("curve.lateClampEnabled = " + c.isLateClampEnabled() + "\n");
+            out.write("curve.lateClampMinutesBeforeDeparture = " + c.getLateClampMinutesBeforeDeparture() + "\n");
+            out.write("curve.windowStartMinutesBeforeDeparture = " + c.getWindowStartMinutesBeforeDeparture() + "\n");
+        }
+    }
+
+    // ============================
+    // Parsing
+    // ============================
+
+    private static SimulationEngine build(Properties p) {
+        double percentInPerson = Double.parseDouble(p.getProperty("percentInPerson", "0.4").trim());
+        if (percentInPerson < 0 || percentInPerson > 1) {
+            throw new IllegalArgumentException("percentInPerson must be between 0 and 1");
+        }
+        int arrivalSpan = intValue(p, "arrivalSpan", 120);
+        int transitDelay = intValue(p, "transitDelay", 2);
+        int holdDelay = intValue(p, "holdDelay", 5);
+
+        List<Flight> flights = new ArrayList<>();
+        Map<String, Flight> byNumber = new HashMap<>();
+        for (Map.Entry<Integer, String[]> e : numbered(p, "flight").entrySet()) {
+            String[] v = e.getValue();
+            if (v.length < 4) throw new IllegalArgumentException("flight." + e.getKey() + ": need number, departure, seats, fill");
+            Flight.ShapeType shape = v.length > 4
+                    ? Flight.ShapeType.valueOf(v[4].toUpperCase())
+                    : Flight.ShapeType.values()[flights.size() % Flight.ShapeType.values().length];
+            Flight f = new Flight(v[0], LocalTime.parse(v[1]), Integer.parseInt(v[2]), Double.parseDouble(v[3]), shape);
+            flights.add(f);
+            byNumber.put(f.getFlightNumber(), f);
+        }
+        if (flights.isEmpty()) throw new IllegalArgumentException("no flight.N entries");
+
+        List<TicketCounterConfig> counters = new ArrayList<>();
+        for (Map.Entry<Integer, String[]> e : numbered(p, "counter").entrySet()) {
+            String[] v = e.getValue();
+            Set<Flight> allowed = new HashSet<>();
+            for (int i = 1; i < v.length; i++) allowed.add(flight(byNumber, v[i], "counter." + e.getKey()));
+            counters.add(new TicketCounterConfig(counters.size() + 1, Double.parseDouble(v[0]), allowed));
+        }
+        if (counters.isEmpty()) throw new IllegalArgumentException("no counter.N entries");
+
+        List<CheckpointConfig> checkpoints = new ArrayList<>();
+        for (String[] v : numbered(p, "checkpoint").values()) {
+            CheckpointConfig c = new CheckpointConfig(checkpoints.size() + 1);
+            c.setRatePerHour(Double.parseDouble(v[0]));
+            checkpoints.add(c);
+        }
+        if (checkpoints.isEmpty()) throw new IllegalArgumentException("no checkpoint.N entries");
+
+        List<HoldRoomConfig> holdRooms = new ArrayList<>();
+        for (Map.Entry<Integer, String[]> e : numbered(p, "holdRoom").entrySet()) {
+            String[] v = e.getValue();
+            HoldRoomConfig r = new HoldRoomConfig(holdRooms.size() + 1, Integer.parseInt(v[0]));
+            List<String> allowed = new ArrayList<>();
+            for (int i = 1; i < v.length; i++) allowed.add(flight(byNumber, v[i], "holdRoom." + e.getKey()).getFlightNumber());
+            r.setAllowedFlightNumbers(allowed);
+            holdRooms.add(r);
+        }
+
+        ArrivalCurveConfig curve = ArrivalCurveConfig.legacyDefault();
+        curve.setLegacyMode(Boolean.parseBoolean(p.getProperty("curve.legacyMode", "true").trim()));
+        curve.setPeakMinutesBeforeDeparture(intValue(p, "curve.peakMinutesBeforeDeparture", curve.getPeakMinutesBeforeDeparture()));
+        curve.setLeftSigmaMinutes(intValue(p, "curve.leftSigmaMinutes", curve.getLeftSigmaMinutes()));
+        curve.setRightSigmaMinutes(intValue(p, "curve.rightSigmaMinutes", curve.getRightSigmaMinutes()));
+        curve.setLateClampEnabled(Boolean.parseBoolean(p.getProperty("curve.lateClampEnabled",
+                String.valueOf(curve.isLateClampEnabled())).trim()));
+        curve.setLateClampMinutesBeforeDeparture(intValue(p, "curve.lateClampMinutesBeforeDeparture",
+                curve.getLateClampMinutesBeforeDeparture()));
+        curve.setWindowStartMinutesBeforeDeparture(intValue(p, "curve.windowStartMinutesBeforeDeparture",
+                curve.getWindowStartMinutesBeforeDeparture()));
+        curve.validateAndClamp();
+
+        int curveStart = curve.isLegacyMode()
+                ? ArrivalCurveConfig.DEFAULT_WINDOW_START
+                : curve.getWindowStartMinutesBeforeDeparture();
+
+        SimulationEngine engine = new SimulationEngine(percentInPerson, counters, checkpoints,
+                Math.max(arrivalSpan, curveStart), 1, transitDelay, holdDelay,
+                flights, holdRooms.isEmpty() ? null : holdRooms);
+        engine.setArrivalCurveConfig(curve);
+        return engine;
+    }
+
+    /** @return comma-separated values of {@code prefix.N} keys by N */
+    private static TreeMap<Integer, String[]> numbered(Properties p, String prefix) {
+        TreeMap<Integer, String[]> entries = new TreeMap<>();
+        for (String key : p.stringPropertyNames()) {
+            if (!key.startsWith(prefix + ".")) continue;
+            String suffix = key.substring(prefix.length() + 1);
+            int n;
+            try {
+                n = Integer.parseInt(suffix);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(key + ": expected " + prefix + ".<number>");
+            }
+            String[] values = p.getProperty(key).split(",");
+            for (int i = 0; i < values.length; i++) values[i] = values[i].trim();
+            if (values[0].isEmpty()) throw new IllegalArgumentException(key + ": no value");
+            entries.put(n, values);
+        }
+        return entries;
+    }
+
+    private static Flight flight(Map<String, Flight> byNumber, String number, String key) {
+        Flight f = byNumber.get(number);
+        if (f == null) throw new IllegalArgumentException(key + ": unknown flight " + number);
+        return f;
+    }
+
+    private static int intValue(Properties p, String key, int fallback) {
+        String v = p.getProperty(key);
+        if (v == null || v.trim().isEmpty()) return fallback;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + ": not a whole number: " + v.trim());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sim.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tournament tree over line lengths used for shortest-queue assignment.
+ *
+ * Each slot is one candidate line. {@link #takeShortest()} returns the shortest
+ * line and counts one passenger onto it in O(log L). Ties go to the lowest slot;
+ * slots are filled in ascending line order, which reproduces the engine's
+ * "first minimum wins" linear scans exactly.
+ */
+public class ShortestQueueIndex {
+    private int[] lineOfSlot = new int[0];
+    private int[] length = new int[0];
+    private int[] tree = new int[0];    // winning slot per node (heap layout, root at 1)
+    private int leaves;
+    private int count;
+
+    /** Index every queue in {@code queues} (slot i = line i). */
+    public void buildAll(List<PassengerQueue> queues) {
+        int n = queues.size();
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            lineOfSlot[i] = i;
+            length[i] = queues.get(i).size();
+        }
+        buildTree(n);
+    }
+
+    /** Index only {@code lines} (ascending line indices) of {@code queues}. */
+    public void build(int[] lines, List<PassengerQueue> queues) {
+        int n = lines.length;
+        ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            lineOfSlot[i] = lines[i];
+            length[i] = queues.get(lines[i]).size();
+        }
+        buildTree(n);
+    }
+
+    /**
+     * @return line index of the current shortest line (lowest index on ties),
+     *         after counting one more passenger onto it; -1 if nothing is indexed
+     */
+    public int takeShortest() {
+        if (count == 0) return -1;
+        int slot = tree[1];
+        length[slot]++;
+        for (int node = (leaves + slot) >> 1; node >= 1; node >>= 1) {
+            tree[node] = better(tree[node << 1], tree[(node << 1) | 1]);
+        }
+        return lineOfSlot[slot];
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    private void buildTree(int n) {
+        count = n;
+        leaves = 1;
+        while (leaves < n) leaves <<= 1;
+        if (tree.length < 2 * leaves) tree = new int[2 * leaves];
+
+        for (int i = 0; i < leaves; i++) tree[leaves + i] = (i < n) ? i : -1;
+        for (int node = leaves - 1; node >= 1; node--) {
+            tree[node] = better(tree[node << 1], tree[(node << 1) | 1]);
+        }
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (length[a] != length[b]) return (length[a] < length[b]) ? a : b;
+        return Math.min(a, b);
+    }
+
+    private void ensureCapacity(int n) {
+        if (lineOfSlot.length < n) {
+            lineOfSlot = Arrays.copyOf(lineOfSlot, n);
+            length = Arrays.copyOf(length, n);
+        }
+    }
+}
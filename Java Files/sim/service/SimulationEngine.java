@@ -1,20 +1,24 @@
 package sim.service;
 
 import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 import sim.model.Passenger;
+import sim.model.PassengerStore;
+import sim.model.TicketCounterConfig;
 import sim.service.arrivals.ArrivalCurveGenerator;
 import sim.service.arrivals.EditedSplitGaussianArrivalGenerator;
-import sim.ui.CheckpointConfig;
-import sim.ui.GridRenderer;
-import sim.ui.TicketCounterConfig;
-import sim.ui.HoldRoomConfig;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
 
-public class SimulationEngine {
+public class SimulationEngine implements AutoCloseable {
     private final List<Flight> flights;
 
     // ============================
@@ -25,13 +29,13 @@ public class SimulationEngine {
     // Precomputed: exactly ONE chosen physical room per flight
     private final Map<Flight, Integer> chosenHoldRoomIndexByFlight = new HashMap<>();
 
-    // Existing held-ups series
-    private final Map<Integer, Integer> heldUpsByInterval = new LinkedHashMap<>();
+    // Existing held-ups series (recorded after each step, so it starts at interval 1)
+    private final IntSeries heldUpsByInterval = new IntSeries(1);
 
     // NEW: queue totals series (waiting lines only)
-    private final Map<Integer, Integer> ticketQueuedByInterval = new LinkedHashMap<>();
-    private final Map<Integer, Integer> checkpointQueuedByInterval = new LinkedHashMap<>();
-    private final Map<Integer, Integer> holdRoomTotalByInterval = new LinkedHashMap<>();
+    private final IntSeries ticketQueuedByInterval = new IntSeries(0);
+    private final IntSeries checkpointQueuedByInterval = new IntSeries(0);
+    private final IntSeries holdRoomTotalByInterval = new IntSeries(0);
 
     // ============================
     // ✅ Arrival curve support (Step 6)
@@ -47,7 +51,37 @@ public class SimulationEngine {
     // Used by DataTableModel/DataTableFrame
     private final Map<Flight, int[]> minuteArrivalsMap = new HashMap<>();
 
-    private final Map<Flight, Integer> holdRoomCellSize;
+    // ============================
+    // Per-flight schedule (precomputed, indexed like flights)
+    // ============================
+    private Flight[] flightAt = new Flight[0];
+    private int[] flightArrivalOffset = new int[0];   // minute that perMin[0] maps to
+    private int[] flightCloseIdx = new int[0];
+    private int[] flightDepartureIdx = new int[0];
+    private int[][] flightPerMin = new int[0][];
+    private int[][] flightAllowedCounters = new int[0][];
+
+    // active-flight sweep: a flight is active from its first to its last event minute
+    private int[][] flightsActivatedAt = new int[0][];
+    private int[][] flightsRetiredAfter = new int[0][];
+    private final BitSet activeFlights = new BitSet();
+    private int activeSweepMinute = NO_SWEEP;
+
+    // shortest-queue lookups (checkpoint index is shared by steps 1 and 3)
+    private final ShortestQueueIndex ticketLineIndex = new ShortestQueueIndex();
+    private final ShortestQueueIndex checkpointLineIndex = new ShortestQueueIndex();
+
+    private static final int NO_SWEEP = Integer.MIN_VALUE;
+
+    // ============================
+    // Event-driven stepping: between two events (arrival, close, departure, due
+    // transfer, service completion) nothing moves, so the engine jumps over the
+    // quiet minutes in one go instead of simulating them one by one
+    // ============================
+    private boolean eventDriven = true;
+    private SimulationProgressListener progressListener;
+    private final BitSet scheduledEventMinutes = new BitSet();   // minutes with arrivals, a close or a departure
+    private final BitSet minutesWithMisses = new BitSet();       // minutes in which someone was marked missed
 
     private final int arrivalSpanMinutes;
     private final int intervalMinutes;
@@ -73,13 +107,45 @@ public class SimulationEngine {
     private final double defaultCheckpointRatePerHour;
 
     private final LocalTime globalStart;
+    private volatile FrameContext frameContext;   // shared by every IntervalFrame; rebuilt with the flight schedule
+    private final GraphSeries.Builder graphSeries = new GraphSeries.Builder();
     private final List<Flight> justClosedFlights = new ArrayList<>();
-    private final Set<Passenger> ticketCompletedVisible = new HashSet<>();
+    private final BitSet ticketCompletedVisible = new BitSet();
+
+    // every passenger of the current run lives here; lines/history hold int ids
+    private final PassengerStore store = new PassengerStore();
 
-    private final List<LinkedList<Passenger>> ticketLines;
-    private final List<LinkedList<Passenger>> checkpointLines;
-    private final List<LinkedList<Passenger>> completedTicketLines;
-    private final List<LinkedList<Passenger>> completedCheckpointLines;
+    // per-flight membership: arrival cohorts of every passenger created for a flight (by store flight index)
+    private final List<CohortList> passengersByFlight = new ArrayList<>();
+
+    // ============================
+    // Tombstones: missed passengers stay in their lines as tombstones
+    // after the minute they were marked, until dequeued or compacted
+    // ============================
+    private static final double COMPACT_TOMBSTONE_RATIO = 0.5;
+
+    private static final int LINE_TICKET = 0;
+    private static final int LINE_CHECKPOINT = 1;
+    private static final int LINE_CHECKPOINT_DONE = 2;
+    private static final int LINE_HOLD = 3;
+    private static final int LINE_FAMILY_SHIFT = 24;
+    private static final int NO_LINE = -1;
+
+    private int[] lineOf = new int[0];          // encoded (family, index) of the waiting/done/hold line per id
+    private int[] servedLineOf = new int[0];    // completed ticket line per id
+    private final PassengerQueue missedThisInterval = new PassengerQueue(store);
+    private final BitSet missedThisIntervalIds = new BitSet();
+
+    /** Missed in an earlier minute than the one being simulated/shown. */
+    private final IntPredicate isTombstone = id -> {
+        int m = store.getMissedMinute(id);
+        return m >= 0 && m < currentInterval && store.isMissed(id);
+    };
+
+    private final List<PassengerQueue> ticketLines;
+    private final List<PassengerQueue> checkpointLines;
+    private final List<PassengerQueue> completedTicketLines;
+    private final List<PassengerQueue> completedCheckpointLines;
 
     // per-flight counts (kept)
     private final List<Map<Flight, Integer>> historyArrivals = new ArrayList<>();
@@ -93,76 +159,133 @@ public class SimulationEngine {
     private final List<List<List<Passenger>>> historyFromTicketArrivals = new ArrayList<>();
 
     // the hold-room queues (PHYSICAL ROOMS)
-    private final List<LinkedList<Passenger>> holdRoomLines;
-
-    // histories for the UI panels
-    private final List<List<List<Passenger>>> historyServedTicket = new ArrayList<>();
-    private final List<List<List<Passenger>>> historyQueuedTicket = new ArrayList<>();
-    private final List<List<List<Passenger>>> historyServedCheckpoint = new ArrayList<>();
-    private final List<List<List<Passenger>>> historyQueuedCheckpoint = new ArrayList<>();
-    private final List<List<List<Passenger>>> historyHoldRooms = new ArrayList<>();
-
-    private final Random rand = new Random();
+    private final List<PassengerQueue> holdRoomLines;
+
+    // histories for the UI panels (line contents as deltas: FULL fidelity only)
+    private HistoryFidelity historyFidelity = HistoryFidelity.FULL;
+    private int historyIntervals;   // intervals recorded so far
+    private LineHistory historyServedTicket = new LineHistory(store);
+    private LineHistory historyQueuedTicket = new LineHistory(store);
+    private LineHistory historyServedCheckpoint = new LineHistory(store);
+    private LineHistory historyQueuedCheckpoint = new LineHistory(store);
+    private LineHistory historyHoldRooms = new LineHistory(store);
+
+    // per-line counts (COUNTS and FULL fidelity)
+    private LineCountHistory servedTicketCounts = new LineCountHistory();
+    private LineCountHistory queuedTicketCounts = new LineCountHistory();
+    private LineCountHistory servedCheckpointCounts = new LineCountHistory();
+    private LineCountHistory queuedCheckpointCounts = new LineCountHistory();
+    private LineCountHistory holdRoomCounts = new LineCountHistory();
+
+    // history spill: null = histories on the heap, else memory-mapped files in this directory
+    private Path historySpillDirectory;
+    private final List<MappedHistoryBuffer> spillBuffers = new ArrayList<>();
+
+    // every random choice of a run derives from this seed (unseeded by default)
+    private long randomSeed = new SplittableRandom().nextLong();
+    private boolean stochasticArrivals;
+    private boolean stochasticService;
+    private static final long HOLD_ROOM_STREAM = 1;   // sub-stream offsets of randomSeed
+    private static final long ARRIVAL_STREAM = 2;
+    private static final long SERVICE_STREAM = 1L << 32;
 
     private double[] counterProgress;
     private double[] checkpointProgress;
-    private final Map<Integer, List<Passenger>> pendingToCP;
-    private final Map<Integer, List<Passenger>> pendingToHold;
-    private Passenger[] counterServing;
-    private Passenger[] checkpointServing;
+    private final TimingWheel pendingToCP;     // ticket → checkpoint transit, keyed by due minute
+    private final TimingWheel pendingToHold;   // checkpoint → hold-room walk, keyed by due minute
+    private int[] counterServing;       // passenger id or NO_PASSENGER
+    private int[] checkpointServing;    // passenger id or NO_PASSENGER
+
+    private static final int NO_PASSENGER = -1;
 
     // ============================
     // PHASES 0–3: REWIND SUPPORT
     // ============================
 
+    // Keyframes: stateSnapshots[i] is kept for every i that is a multiple of keyframeInterval,
+    // plus the frontier (maxComputedInterval); the slots in between are null. Other intervals
+    // are rebuilt by replaying forward from the nearest earlier keyframe / cached state.
     private final List<EngineSnapshot> stateSnapshots = new ArrayList<>();
     private int maxComputedInterval = 0;
 
+    private static final long DEFAULT_SNAPSHOT_MEMORY_BUDGET = 64L << 20;
+    private static final int RESTORE_CACHE_SIZE = 16;
+
+    private long snapshotMemoryBudgetBytes = DEFAULT_SNAPSHOT_MEMORY_BUDGET;
+    private int keyframeInterval = 1;     // doubles whenever the kept snapshots outgrow the budget
+    private long keyframeBytes;           // estimated size of the kept snapshots
+
+    // recently replayed states (LRU), so scrubbing back and forth does not replay again
+    private final LinkedHashMap<Integer, EngineSnapshot> restoreCache =
+            new LinkedHashMap<Integer, EngineSnapshot>(RESTORE_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, EngineSnapshot> eldest) {
+                    return size() > RESTORE_CACHE_SIZE;
+                }
+            };
+
+    // Replay re-simulates already computed intervals: history, metrics and snapshots are not
+    // written, and store fields (which hold the frontier state) are read as of the replayed minute.
+    private boolean replaying;
+    private int createdCount;   // passengers created up to the current interval (ids below this)
+
+    // ============================
+    // Playback of an archived run (see RunArchive): every interval counts as computed
+    // and moving between them applies its archived line state instead of simulating
+    // ============================
+    private LineHistory[] playbackLines;    // ticket, served ticket, checkpoint, served checkpoint, hold room
+    private LineHistory playbackVisible;    // visible served-ticket ids per counter
+    private LineHistory playbackClosed;     // indices of the flights that just closed
+    private int[] playbackMetricsEnd;
+    // the engine's own cursors over the above (viewAt and other threads read cursor-free)
+    private LineHistory.Reader[] playbackLineReaders;
+    private LineHistory.Reader playbackVisibleReader;
+    private LineHistory.Reader playbackClosedReader;
+
     private static final class EngineSnapshot {
         final int currentInterval;
 
-        final List<LinkedList<Passenger>> ticketLines;
-        final List<LinkedList<Passenger>> completedTicketLines;
-        final List<LinkedList<Passenger>> checkpointLines;
-        final List<LinkedList<Passenger>> completedCheckpointLines;
-        final List<LinkedList<Passenger>> holdRoomLines;
+        final List<PassengerQueue> ticketLines;
+        final List<PassengerQueue> completedTicketLines;
+        final List<PassengerQueue> checkpointLines;
+        final List<PassengerQueue> completedCheckpointLines;
+        final List<PassengerQueue> holdRoomLines;
 
         final double[] counterProgress;
         final double[] checkpointProgress;
 
-        final Map<Integer, List<Passenger>> pendingToCP;
-        final Map<Integer, List<Passenger>> pendingToHold;
+        final TimingWheel pendingToCP;
+        final TimingWheel pendingToHold;
 
-        final Passenger[] counterServing;
-        final Passenger[] checkpointServing;
+        final int[] counterServing;
+        final int[] checkpointServing;
 
-        final Set<Passenger> ticketCompletedVisible;
+        final BitSet ticketCompletedVisible;
         final List<Flight> justClosedFlights;
+        final int createdCount;
 
-        final LinkedHashMap<Integer, Integer> heldUpsByInterval;
-        final LinkedHashMap<Integer, Integer> ticketQueuedByInterval;
-        final LinkedHashMap<Integer, Integer> checkpointQueuedByInterval;
-        final LinkedHashMap<Integer, Integer> holdRoomTotalByInterval;
+        // the metric series are append-only: a snapshot only records where they end
+        final int metricsEnd;
+
+        final long bytes;
 
         EngineSnapshot(
                 int currentInterval,
-                List<LinkedList<Passenger>> ticketLines,
-                List<LinkedList<Passenger>> completedTicketLines,
-                List<LinkedList<Passenger>> checkpointLines,
-                List<LinkedList<Passenger>> completedCheckpointLines,
-                List<LinkedList<Passenger>> holdRoomLines,
+                List<PassengerQueue> ticketLines,
+                List<PassengerQueue> completedTicketLines,
+                List<PassengerQueue> checkpointLines,
+                List<PassengerQueue> completedCheckpointLines,
+                List<PassengerQueue> holdRoomLines,
                 double[] counterProgress,
                 double[] checkpointProgress,
-                Map<Integer, List<Passenger>> pendingToCP,
-                Map<Integer, List<Passenger>> pendingToHold,
-                Passenger[] counterServing,
-                Passenger[] checkpointServing,
-                Set<Passenger> ticketCompletedVisible,
+                TimingWheel pendingToCP,
+                TimingWheel pendingToHold,
+                int[] counterServing,
+                int[] checkpointServing,
+                BitSet ticketCompletedVisible,
                 List<Flight> justClosedFlights,
-                LinkedHashMap<Integer, Integer> heldUpsByInterval,
-                LinkedHashMap<Integer, Integer> ticketQueuedByInterval,
-                LinkedHashMap<Integer, Integer> checkpointQueuedByInterval,
-                LinkedHashMap<Integer, Integer> holdRoomTotalByInterval
+                int createdCount,
+                int metricsEnd
         ) {
             this.currentInterval = currentInterval;
             this.ticketLines = ticketLines;
@@ -182,11 +305,25 @@ public class SimulationEngine {
 
             this.ticketCompletedVisible = ticketCompletedVisible;
             this.justClosedFlights = justClosedFlights;
+            this.createdCount = createdCount;
+
+            this.metricsEnd = metricsEnd;
+
+            this.bytes = estimateBytes();
+        }
 
-            this.heldUpsByInterval = heldUpsByInterval;
-            this.ticketQueuedByInterval = ticketQueuedByInterval;
-            this.checkpointQueuedByInterval = checkpointQueuedByInterval;
-            this.holdRoomTotalByInterval = holdRoomTotalByInterval;
+        /** Rough retained size, checked against the snapshot memory budget. */
+        private long estimateBytes() {
+            long b = 128;
+            for (List<PassengerQueue> family : Arrays.asList(ticketLines, completedTicketLines,
+                    checkpointLines, completedCheckpointLines, holdRoomLines)) {
+                for (PassengerQueue q : family) b += 32 + 4L * q.rawSize();
+            }
+            b += 8L * (counterProgress.length + checkpointProgress.length);
+            b += 4L * (counterServing.length + checkpointServing.length);
+            b += 4L * (pendingToCP.size() + pendingToHold.size());
+            b += ticketCompletedVisible.size() / 8;
+            return b;
         }
     }
 
@@ -294,50 +431,39 @@ public class SimulationEngine {
 
         computeChosenHoldRooms();
 
-        holdRoomCellSize = new HashMap<>();
-        for (Flight f : this.flights) {
-            int total = (int) Math.round(f.getSeats() * f.getFillPercent());
-            int bestCell = GridRenderer.MIN_CELL_SIZE;
-            for (int rows = 1; rows <= Math.max(1, total); rows++) {
-                int cols = (total + rows - 1) / rows;
-                int cellByRows = GridRenderer.HOLD_BOX_SIZE / rows;
-                int cellByCols = GridRenderer.HOLD_BOX_SIZE / cols;
-                int cell = Math.min(cellByRows, cellByCols);
-                bestCell = Math.max(bestCell, cell);
-            }
-            holdRoomCellSize.put(f, bestCell);
-        }
-
         this.currentInterval = 0;
+        store.setViewInterval(currentInterval);
 
         // ticket lines
         ticketLines = new ArrayList<>();
         completedTicketLines = new ArrayList<>();
         for (int i = 0; i < this.counterConfigs.size(); i++) {
-            ticketLines.add(new LinkedList<>());
-            completedTicketLines.add(new LinkedList<>());
+            ticketLines.add(new PassengerQueue(store, isTombstone));
+            completedTicketLines.add(new PassengerQueue(store, isTombstone));
         }
 
         // checkpoint lines
         checkpointLines = new ArrayList<>();
         completedCheckpointLines = new ArrayList<>();
         for (int i = 0; i < this.numCheckpoints; i++) {
-            checkpointLines.add(new LinkedList<>());
-            completedCheckpointLines.add(new LinkedList<>());
+            checkpointLines.add(new PassengerQueue(store, isTombstone));
+            completedCheckpointLines.add(new PassengerQueue(store, isTombstone));
         }
 
         // hold-room lines (PHYSICAL rooms)
         holdRoomLines = new ArrayList<>();
         for (int i = 0; i < this.holdRoomConfigs.size(); i++) {
-            holdRoomLines.add(new LinkedList<>());
+            holdRoomLines.add(new PassengerQueue(store, isTombstone));
         }
 
         counterProgress = new double[this.counterConfigs.size()];
         checkpointProgress = new double[this.numCheckpoints];
-        pendingToCP = new HashMap<>();
-        pendingToHold = new HashMap<>();
-        counterServing = new Passenger[this.counterConfigs.size()];
-        checkpointServing = new Passenger[this.numCheckpoints];
+        pendingToCP = new TimingWheel(Math.max(0, transitDelayMinutes));
+        pendingToHold = new TimingWheel(maxWalkDelayMinutes());
+        counterServing = new int[this.counterConfigs.size()];
+        checkpointServing = new int[this.numCheckpoints];
+        Arrays.fill(counterServing, NO_PASSENGER);
+        Arrays.fill(checkpointServing, NO_PASSENGER);
 
         captureSnapshot0();
     }
@@ -363,6 +489,7 @@ public class SimulationEngine {
         this.arrivalCurveConfig = copy;
 
         rebuildMinuteArrivalsMap();
+        rebuildFlightSchedule();
     }
 
     public ArrivalCurveConfig getArrivalCurveConfigCopy() {
@@ -391,6 +518,7 @@ public class SimulationEngine {
 
     private void rebuildMinuteArrivalsMap() {
         minuteArrivalsMap.clear();
+        SplittableRandom arrivalRand = new SplittableRandom(mix64(randomSeed + ARRIVAL_STREAM));
 
         for (Flight f : flights) {
             int totalPassengers = (int) Math.round(f.getSeats() * f.getFillPercent());
@@ -409,8 +537,155 @@ public class SimulationEngine {
                 );
             }
 
-            minuteArrivalsMap.put(f, (perMin == null) ? new int[0] : perMin);
+            if (perMin == null) perMin = new int[0];
+            if (stochasticArrivals) perMin = sampleArrivals(perMin, arrivalRand);
+            minuteArrivalsMap.put(f, perMin);
+        }
+    }
+
+    /**
+     * Draws the arrival minute of each of the flight's passengers independently, with
+     * the deterministic per-minute counts as weights: same total, random spread.
+     */
+    private static int[] sampleArrivals(int[] perMin, SplittableRandom rand) {
+        int[] cumulative = new int[perMin.length];
+        int total = 0;
+        for (int m = 0; m < perMin.length; m++) {
+            total += Math.max(0, perMin[m]);
+            cumulative[m] = total;
+        }
+        int[] sampled = new int[perMin.length];
+        for (int p = 0; p < total; p++) {
+            int u = rand.nextInt(total);
+            int m = Arrays.binarySearch(cumulative, u + 1);
+            if (m < 0) m = -m - 1;
+            else while (m > 0 && cumulative[m - 1] == u + 1) m--;
+            sampled[m]++;
+        }
+        return sampled;
+    }
+
+    /**
+     * Precompute per-flight arrival offset, close/departure indices, arrivals and
+     * allowed counters, plus the minute buckets used by the active-flight sweep.
+     */
+    private void rebuildFlightSchedule() {
+        int n = flights.size();
+        flightAt = flights.toArray(new Flight[0]);
+        flightArrivalOffset = new int[n];
+        flightCloseIdx = new int[n];
+        flightDepartureIdx = new int[n];
+        flightPerMin = new int[n][];
+        flightAllowedCounters = new int[n][];
+
+        int[] first = new int[n];
+        int[] last = new int[n];
+        scheduledEventMinutes.clear();
+
+        for (int i = 0; i < n; i++) {
+            Flight f = flightAt[i];
+            flightArrivalOffset[i] = (int) Duration.between(globalStart,
+                    f.getDepartureTime().minusMinutes(arrivalSpanMinutes)).toMinutes();
+            flightCloseIdx[i] = getBoardingCloseIdx(f);
+            flightDepartureIdx[i] = getDepartureIdx(f);
+            flightPerMin[i] = minuteArrivalsMap.get(f);
+            flightAllowedCounters[i] = allowedCountersFor(f);
+
+            int arrivalsEnd = flightArrivalOffset[i] + ((flightPerMin[i] == null) ? 0 : flightPerMin[i].length) - 1;
+            markScheduledEvents(i);
+            first[i] = Math.min(flightArrivalOffset[i], Math.min(flightCloseIdx[i], flightDepartureIdx[i]));
+            last[i] = Math.max(arrivalsEnd, Math.max(flightCloseIdx[i], flightDepartureIdx[i]));
+        }
+
+        flightsActivatedAt = bucketByMinute(first, last, true);
+        flightsRetiredAfter = bucketByMinute(first, last, false);
+
+        activeFlights.clear();
+        activeSweepMinute = NO_SWEEP;
+
+        int[] arrivals = new int[totalIntervals + 1];
+        for (int t = 0; t <= totalIntervals; t++) arrivals[t] = getTotalArrivalsAtInterval(t);
+        frameContext = new FrameContext(flights, counterConfigs, holdRoomConfigs, minuteArrivalsMap,
+                arrivalCurveConfig == null || arrivalCurveConfig.isLegacyMode(), arrivals,
+                arrivalSpanMinutes, intervalMinutes, globalStart);
+    }
+
+    /** Adds flight i's arrival minutes (non-zero only), close and departure to scheduledEventMinutes. */
+    private void markScheduledEvents(int i) {
+        int[] perMin = flightPerMin[i];
+        if (perMin != null) {
+            for (int k = 0; k < perMin.length; k++) {
+                if (perMin[k] != 0) markScheduledEvent(flightArrivalOffset[i] + k);
+            }
+        }
+        markScheduledEvent(flightCloseIdx[i]);
+        markScheduledEvent(flightDepartureIdx[i]);
+    }
+
+    private void markScheduledEvent(int minute) {
+        if (minute >= 0 && minute < totalIntervals) scheduledEventMinutes.set(minute);
+    }
+
+    private int[] allowedCountersFor(Flight f) {
+        int[] allowed = new int[counterConfigs.size()];
+        int n = 0;
+        for (int j = 0; j < counterConfigs.size(); j++) {
+            if (counterConfigs.get(j).accepts(f)) allowed[n++] = j;
+        }
+        if (n == 0) {
+            // nobody accepts this flight: fall back to every counter
+            for (int j = 0; j < counterConfigs.size(); j++) allowed[n++] = j;
         }
+        return Arrays.copyOf(allowed, n);
+    }
+
+    /** Flight indices grouped by their first (or last) active minute, clamped to [0, totalIntervals). */
+    private int[][] bucketByMinute(int[] first, int[] last, boolean byFirst) {
+        int[] counts = new int[totalIntervals];
+        for (int i = 0; i < first.length; i++) {
+            int m = bucketMinute(first[i], last[i], byFirst);
+            if (m >= 0) counts[m]++;
+        }
+        int[][] buckets = new int[totalIntervals][];
+        for (int m = 0; m < totalIntervals; m++) buckets[m] = new int[counts[m]];
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < first.length; i++) {
+            int m = bucketMinute(first[i], last[i], byFirst);
+            if (m >= 0) buckets[m][counts[m]++] = i;
+        }
+        return buckets;
+    }
+
+    /** @return bucket minute, or -1 if the flight never overlaps the simulated range */
+    private int bucketMinute(int first, int last, boolean byFirst) {
+        int lo = Math.max(0, first);
+        int hi = Math.min(totalIntervals - 1, last);
+        if (lo > hi) return -1;
+        return byFirst ? lo : hi;
+    }
+
+    /** Bring the active set up to {@code minute}; rebuilds it after a jump (restore / rerun). */
+    private void sweepActiveFlights(int minute) {
+        if (minute < 0 || minute >= totalIntervals) {
+            activeFlights.clear();
+            activeSweepMinute = NO_SWEEP;
+            return;
+        }
+        if (minute == activeSweepMinute + 1) {
+            for (int i : flightsActivatedAt[minute]) activeFlights.set(i);
+            return;
+        }
+        activeFlights.clear();
+        for (int m = 0; m <= minute; m++) {
+            for (int i : flightsActivatedAt[m]) activeFlights.set(i);
+            if (m < minute) for (int i : flightsRetiredAfter[m]) activeFlights.clear(i);
+        }
+    }
+
+    private void retireActiveFlights(int minute) {
+        if (minute < 0 || minute >= totalIntervals) return;
+        for (int i : flightsRetiredAfter[minute]) activeFlights.clear(i);
+        activeSweepMinute = minute;
     }
 
     private static List<CheckpointConfig> buildDefaultCheckpointConfigs(int numCheckpoints, double checkpointRatePerHour) {
@@ -457,6 +732,31 @@ public class SimulationEngine {
         return perIntervalFromPerHour(checkpointConfigs.get(checkpointIdx).getRatePerHour());
     }
 
+    /** Poisson draw with the given mean (normal approximation for large means). */
+    private static int poisson(SplittableRandom rand, double mean) {
+        if (mean <= 0) return 0;
+        if (mean > 30) {
+            double u1 = 1.0 - rand.nextDouble();
+            double gaussian = Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * rand.nextDouble());
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * gaussian));
+        }
+        double limit = Math.exp(-mean);
+        double p = rand.nextDouble();
+        int k = 0;
+        while (p > limit) {
+            p *= rand.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    /** Scrambles a seed (Stafford variant 13) so nearby sub-stream seeds give unrelated streams. */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
     // ==========================================================
     // Default HoldRoomConfig builder (old behavior)
     // ==========================================================
@@ -476,6 +776,7 @@ public class SimulationEngine {
 
     private void computeChosenHoldRooms() {
         chosenHoldRoomIndexByFlight.clear();
+        SplittableRandom rand = new SplittableRandom(mix64(randomSeed + HOLD_ROOM_STREAM));
 
         int roomCount = holdRoomConfigs.size();
         if (roomCount <= 0) return;
@@ -539,6 +840,15 @@ public class SimulationEngine {
         ).toMinutes();
     }
 
+    /** Longest checkpoint → hold-room walk, in whole minutes (sizes the pendingToHold wheel). */
+    private int maxWalkDelayMinutes() {
+        int max = ceilMinutesFromSeconds(safeWalkSeconds(null));
+        for (HoldRoomConfig cfg : holdRoomConfigs) {
+            max = Math.max(max, ceilMinutesFromSeconds(safeWalkSeconds(cfg)));
+        }
+        return max;
+    }
+
     private int ceilMinutesFromSeconds(int seconds) {
         int s = Math.max(0, seconds);
         return (s / 60) + ((s % 60) > 0 ? 1 : 0);
@@ -550,6 +860,9 @@ public class SimulationEngine {
 
     private void captureSnapshot0() {
         stateSnapshots.clear();
+        restoreCache.clear();
+        keyframeInterval = 1;
+        keyframeBytes = 0;
 
         heldUpsByInterval.clear();
         ticketQueuedByInterval.clear();
@@ -563,58 +876,152 @@ public class SimulationEngine {
 
         EngineSnapshot s0 = makeSnapshot();
         stateSnapshots.add(s0);
+        keyframeBytes = s0.bytes;
         maxComputedInterval = 0;
     }
 
     private EngineSnapshot makeSnapshot() {
         return new EngineSnapshot(
                 currentInterval,
-                deepCopyLinkedLists(ticketLines),
-                deepCopyLinkedLists(completedTicketLines),
-                deepCopyLinkedLists(checkpointLines),
-                deepCopyLinkedLists(completedCheckpointLines),
-                deepCopyLinkedLists(holdRoomLines),
+                snapshotQueues(ticketLines),
+                snapshotQueues(completedTicketLines),
+                snapshotQueues(checkpointLines),
+                snapshotQueues(completedCheckpointLines),
+                snapshotQueues(holdRoomLines),
                 Arrays.copyOf(counterProgress, counterProgress.length),
                 Arrays.copyOf(checkpointProgress, checkpointProgress.length),
-                deepCopyPendingMap(pendingToCP),
-                deepCopyPendingMap(pendingToHold),
+                new TimingWheel(pendingToCP),
+                new TimingWheel(pendingToHold),
                 Arrays.copyOf(counterServing, counterServing.length),
                 Arrays.copyOf(checkpointServing, checkpointServing.length),
-                new HashSet<>(ticketCompletedVisible),
+                (BitSet) ticketCompletedVisible.clone(),
+                new ArrayList<>(justClosedFlights),
+                createdCount,
+                ticketQueuedByInterval.end()
+        );
+    }
+
+    /**
+     * Snapshot at {@code interval} inside a quiet run: lines, pending transfers and
+     * visibility are unchanged since {@code prev}, the snapshot the run started from,
+     * so they are shared with it (snapshots are never mutated).
+     */
+    private EngineSnapshot makeQuietSnapshot(EngineSnapshot prev, int interval) {
+        return new EngineSnapshot(
+                interval,
+                prev.ticketLines,
+                prev.completedTicketLines,
+                prev.checkpointLines,
+                prev.completedCheckpointLines,
+                prev.holdRoomLines,
+                Arrays.copyOf(counterProgress, counterProgress.length),
+                Arrays.copyOf(checkpointProgress, checkpointProgress.length),
+                prev.pendingToCP,
+                prev.pendingToHold,
+                prev.counterServing,
+                prev.checkpointServing,
+                prev.ticketCompletedVisible,
                 new ArrayList<>(justClosedFlights),
-                new LinkedHashMap<>(heldUpsByInterval),
-                new LinkedHashMap<>(ticketQueuedByInterval),
-                new LinkedHashMap<>(checkpointQueuedByInterval),
-                new LinkedHashMap<>(holdRoomTotalByInterval)
+                createdCount,
+                ticketQueuedByInterval.end()
         );
     }
 
     private void appendSnapshotAfterInterval() {
-        EngineSnapshot snap = makeSnapshot();
+        storeSnapshot(currentInterval, makeSnapshot());
+    }
 
-        if (currentInterval < stateSnapshots.size()) {
-            stateSnapshots.set(currentInterval, snap);
+    /** Makes {@code snap} the frontier snapshot at {@code interval} (null = not kept, inside a quiet run). */
+    private void storeSnapshot(int interval, EngineSnapshot snap) {
+        if (interval < stateSnapshots.size()) {
+            dropSnapshot(interval);
+            stateSnapshots.set(interval, snap);
         } else {
             stateSnapshots.add(snap);
         }
-        maxComputedInterval = Math.max(maxComputedInterval, currentInterval);
+        if (snap != null) keyframeBytes += snap.bytes;
+        maxComputedInterval = Math.max(maxComputedInterval, interval);
+
+        // the previous frontier is only kept if it is a keyframe
+        int prev = interval - 1;
+        if (prev > 0 && prev % keyframeInterval != 0) dropSnapshot(prev);
+
+        enforceSnapshotBudget();
+    }
+
+    /** Doubles the keyframe interval (thinning the kept snapshots) until they fit the budget. */
+    private void enforceSnapshotBudget() {
+        while (keyframeBytes > snapshotMemoryBudgetBytes && keyframeInterval < totalIntervals) {
+            keyframeInterval *= 2;
+            for (int i = 1; i < maxComputedInterval; i++) {
+                if (i % keyframeInterval != 0) dropSnapshot(i);
+            }
+        }
+    }
+
+    private void dropSnapshot(int interval) {
+        EngineSnapshot s = stateSnapshots.get(interval);
+        if (s == null) return;
+        keyframeBytes -= s.bytes;
+        stateSnapshots.set(interval, null);
     }
 
     // ============================
     // Restore snapshots
     // ============================
 
+    /**
+     * Brings the engine to {@code targetInterval}: straight from its snapshot if one is kept,
+     * otherwise by replaying forward from the closest earlier state (keyframe, recently
+     * restored state, or the current state when the target is just ahead of it).
+     */
     private void restoreSnapshot(int targetInterval) {
         int t = clamp(targetInterval, 0, maxComputedInterval);
-        EngineSnapshot s = stateSnapshots.get(t);
+        if (t == currentInterval) return;
+        if (playbackLines != null) {
+            applyPlaybackState(t);
+            return;
+        }
+
+        EngineSnapshot exact = stateSnapshots.get(t);
+        if (exact == null) exact = restoreCache.get(t);
+        if (exact != null) {
+            applySnapshot(exact);
+            return;
+        }
 
+        int base = t - 1;
+        while (stateSnapshots.get(base) == null) base--;    // interval 0 is always kept
+        EngineSnapshot from = stateSnapshots.get(base);
+        for (Map.Entry<Integer, EngineSnapshot> e : restoreCache.entrySet()) {
+            if (e.getKey() < t && e.getKey() > base) {
+                base = e.getKey();
+                from = e.getValue();
+            }
+        }
+        if (currentInterval < t && currentInterval >= base) from = null;   // just step on
+        if (from != null) applySnapshot(from);
+
+        replaying = true;
+        try {
+            while (currentInterval < t) advanceInterval(t);
+        } finally {
+            replaying = false;
+        }
+        setMetricsEnd(t + 1);
+        restoreCache.put(t, makeSnapshot());
+    }
+
+    private void applySnapshot(EngineSnapshot s) {
         this.currentInterval = s.currentInterval;
+        this.createdCount = s.createdCount;
+        store.setViewInterval(currentInterval);
 
-        restoreLinkedListsInPlace(ticketLines, s.ticketLines);
-        restoreLinkedListsInPlace(completedTicketLines, s.completedTicketLines);
-        restoreLinkedListsInPlace(checkpointLines, s.checkpointLines);
-        restoreLinkedListsInPlace(completedCheckpointLines, s.completedCheckpointLines);
-        restoreLinkedListsInPlace(holdRoomLines, s.holdRoomLines);
+        restoreQueuesInPlace(ticketLines, s.ticketLines);
+        restoreQueuesInPlace(completedTicketLines, s.completedTicketLines);
+        restoreQueuesInPlace(checkpointLines, s.checkpointLines);
+        restoreQueuesInPlace(completedCheckpointLines, s.completedCheckpointLines);
+        restoreQueuesInPlace(holdRoomLines, s.holdRoomLines);
 
         if (this.counterProgress == null || this.counterProgress.length != s.counterProgress.length) {
             this.counterProgress = Arrays.copyOf(s.counterProgress, s.counterProgress.length);
@@ -628,11 +1035,9 @@ public class SimulationEngine {
             System.arraycopy(s.checkpointProgress, 0, this.checkpointProgress, 0, s.checkpointProgress.length);
         }
 
-        this.pendingToCP.clear();
-        this.pendingToCP.putAll(deepCopyPendingMap(s.pendingToCP));
+        this.pendingToCP.copyFrom(s.pendingToCP);
 
-        this.pendingToHold.clear();
-        this.pendingToHold.putAll(deepCopyPendingMap(s.pendingToHold));
+        this.pendingToHold.copyFrom(s.pendingToHold);
 
         if (this.counterServing == null || this.counterServing.length != s.counterServing.length) {
             this.counterServing = Arrays.copyOf(s.counterServing, s.counterServing.length);
@@ -647,22 +1052,42 @@ public class SimulationEngine {
         }
 
         this.ticketCompletedVisible.clear();
-        this.ticketCompletedVisible.addAll(s.ticketCompletedVisible);
+        this.ticketCompletedVisible.or(s.ticketCompletedVisible);
 
         this.justClosedFlights.clear();
         this.justClosedFlights.addAll(s.justClosedFlights);
 
-        this.heldUpsByInterval.clear();
-        this.heldUpsByInterval.putAll(s.heldUpsByInterval);
+        setMetricsEnd(s.metricsEnd);
 
-        this.ticketQueuedByInterval.clear();
-        this.ticketQueuedByInterval.putAll(s.ticketQueuedByInterval);
+        missedThisInterval.clear();
+        missedThisIntervalIds.clear();
+        rebuildLineIndex();
+    }
 
-        this.checkpointQueuedByInterval.clear();
-        this.checkpointQueuedByInterval.putAll(s.checkpointQueuedByInterval);
+    private void setMetricsEnd(int end) {
+        heldUpsByInterval.setEnd(end);
+        ticketQueuedByInterval.setEnd(end);
+        checkpointQueuedByInterval.setEnd(end);
+        holdRoomTotalByInterval.setEnd(end);
+    }
 
-        this.holdRoomTotalByInterval.clear();
-        this.holdRoomTotalByInterval.putAll(s.holdRoomTotalByInterval);
+    /** Recomputes lineOf / servedLineOf from the restored lines. */
+    private void rebuildLineIndex() {
+        int n = Math.min(store.size(), lineOf.length);
+        Arrays.fill(lineOf, 0, n, NO_LINE);
+        Arrays.fill(servedLineOf, 0, n, NO_LINE);
+        for (int family = LINE_TICKET; family <= LINE_HOLD; family++) {
+            List<PassengerQueue> lines = lineFamily(family);
+            for (int index = 0; index < lines.size(); index++) {
+                PassengerQueue q = lines.get(index);
+                int code = (family << LINE_FAMILY_SHIFT) | index;
+                for (int i = 0; i < q.rawSize(); i++) lineOf[q.getId(i)] = code;
+            }
+        }
+        for (int c = 0; c < completedTicketLines.size(); c++) {
+            PassengerQueue q = completedTicketLines.get(c);
+            for (int i = 0; i < q.rawSize(); i++) servedLineOf[q.getId(i)] = c;
+        }
     }
 
     private static int clamp(int v, int lo, int hi) {
@@ -673,6 +1098,17 @@ public class SimulationEngine {
     // Rewind API
     // ============================
 
+    /**
+     * Memory budget for the kept rewind snapshots. When they outgrow it, only every
+     * K-th interval is kept (K doubles as needed) and the rest is replayed on demand.
+     */
+    public void setSnapshotMemoryBudgetBytes(long bytes) {
+        snapshotMemoryBudgetBytes = Math.max(0, bytes);
+        enforceSnapshotBudget();
+    }
+    public long getSnapshotMemoryBudgetBytes() { return snapshotMemoryBudgetBytes; }
+    public int getKeyframeInterval() { return keyframeInterval; }
+
     public boolean canRewind() { return currentInterval > 0; }
     public boolean canFastForward() { return currentInterval < maxComputedInterval; }
     public int getMaxComputedInterval() { return maxComputedInterval; }
@@ -688,6 +1124,102 @@ public class SimulationEngine {
         }
     }
 
+    // ============================
+    // Archived runs (see RunArchive)
+    // ============================
+
+    /** @return true if this engine plays back an archived run instead of simulating */
+    public boolean isPlayback() { return playbackLines != null; }
+
+    public double getPercentInPerson() { return percentInPerson; }
+
+    PassengerStore getStore() { return store; }
+
+    /** @return chosen hold-room index per flight, indexed like {@link #getFlights()} (-1 = none) */
+    int[] getChosenHoldRooms() {
+        int[] chosen = new int[flights.size()];
+        for (int i = 0; i < chosen.length; i++) {
+            chosen[i] = chosenHoldRoomIndexByFlight.getOrDefault(flights.get(i), -1);
+        }
+        return chosen;
+    }
+
+    /** Held-up, ticket, checkpoint and hold-room totals per interval. */
+    IntSeries[] getMetricSeries() {
+        return new IntSeries[] { heldUpsByInterval, ticketQueuedByInterval, checkpointQueuedByInterval, holdRoomTotalByInterval };
+    }
+
+    /** Same order as the playback line states. */
+    LineHistory[] getLineHistories() {
+        return new LineHistory[] { historyQueuedTicket, historyServedTicket, historyQueuedCheckpoint, historyServedCheckpoint, historyHoldRooms };
+    }
+
+    LineCountHistory[] getLineCountHistories() {
+        return new LineCountHistory[] { queuedTicketCounts, servedTicketCounts, queuedCheckpointCounts, servedCheckpointCounts, holdRoomCounts };
+    }
+
+    /** Live lines in the order of {@link #getLineHistories()}. */
+    List<List<PassengerQueue>> getLineFamilies() {
+        return Arrays.asList(ticketLines, completedTicketLines, checkpointLines, completedCheckpointLines, holdRoomLines);
+    }
+
+    /**
+     * Switches a freshly built engine to playback of an archived run. The store, the
+     * histories and the metric series must already hold the archived values; the
+     * line states hold one entry per interval 0..totalIntervals.
+     */
+    void loadPlayback(int[] chosenHoldRooms, Map<Flight, int[]> minuteArrivals,
+                      LineHistory[] lines, LineHistory visible, LineHistory closed, int[] metricsEnd) {
+        chosenHoldRoomIndexByFlight.clear();
+        for (int i = 0; i < chosenHoldRooms.length; i++) {
+            if (chosenHoldRooms[i] >= 0) chosenHoldRoomIndexByFlight.put(flights.get(i), chosenHoldRooms[i]);
+        }
+        minuteArrivalsMap.clear();
+        minuteArrivalsMap.putAll(minuteArrivals);
+        rebuildFlightSchedule();
+
+        stateSnapshots.clear();
+        restoreCache.clear();
+        keyframeBytes = 0;
+        playbackLines = lines;
+        playbackVisible = visible;
+        playbackClosed = closed;
+        playbackMetricsEnd = metricsEnd;
+        playbackLineReaders = new LineHistory.Reader[lines.length];
+        for (int f = 0; f < lines.length; f++) playbackLineReaders[f] = lines[f].reader();
+        playbackVisibleReader = visible.reader();
+        playbackClosedReader = closed.reader();
+        historyIntervals = totalIntervals;
+        maxComputedInterval = totalIntervals;
+        currentInterval = -1;
+        applyPlaybackState(0);
+    }
+
+    private void applyPlaybackState(int t) {
+        currentInterval = t;
+        store.setViewInterval(t);
+
+        List<List<PassengerQueue>> families = getLineFamilies();
+        for (int f = 0; f < families.size(); f++) {
+            List<PassengerQueue> lines = families.get(f);
+            for (int l = 0; l < lines.size(); l++) {
+                PassengerQueue q = lines.get(l);
+                q.clear();
+                for (int id : playbackLineReaders[f].ids(t, l)) q.addId(id);
+            }
+        }
+        ticketCompletedVisible.clear();
+        for (int l = 0; l < completedTicketLines.size(); l++) {
+            for (int id : playbackVisibleReader.ids(t, l)) ticketCompletedVisible.set(id);
+        }
+        justClosedFlights.clear();
+        for (int i : playbackClosedReader.ids(t, 0)) justClosedFlights.add(flights.get(i));
+
+        setMetricsEnd(playbackMetricsEnd[t]);
+        missedThisInterval.clear();
+        missedThisIntervalIds.clear();
+    }
+
     // ============================
     // Existing API
     // ============================
@@ -700,11 +1232,32 @@ public class SimulationEngine {
             return;
         }
 
-        simulateInterval();
+        advanceInterval(currentInterval + 1);
     }
 
+    /**
+     * Event-driven mode (default): the minutes between two events are skipped in one
+     * jump (see {@link #simulateQuietRun(int)}) instead of simulated one by one.
+     * Results are identical to the minute-stepped mode.
+     */
+    public void setEventDriven(boolean eventDriven) { this.eventDriven = eventDriven; }
+    public boolean isEventDriven() { return eventDriven; }
+
+    /**
+     * Listener told about newly computed intervals (null = none): after every
+     * simulated minute, and once at the end of each skipped quiet run.
+     * {@link #runAllIntervals()} stops with a CancellationException when the
+     * running thread is interrupted.
+     */
+    public void setProgressListener(SimulationProgressListener listener) { this.progressListener = listener; }
+
     public void runAllIntervals() {
+        if (playbackLines != null) {
+            goToInterval(maxComputedInterval);   // already complete
+            return;
+        }
         currentInterval = 0;
+        store.setViewInterval(currentInterval);
 
         clearHistory();
 
@@ -715,21 +1268,40 @@ public class SimulationEngine {
 
         justClosedFlights.clear();
         ticketCompletedVisible.clear();
-        ticketLines.forEach(LinkedList::clear);
-        completedTicketLines.forEach(LinkedList::clear);
-        checkpointLines.forEach(LinkedList::clear);
-        completedCheckpointLines.forEach(LinkedList::clear);
-        holdRoomLines.forEach(LinkedList::clear);
+        ticketLines.forEach(PassengerQueue::clear);
+        completedTicketLines.forEach(PassengerQueue::clear);
+        checkpointLines.forEach(PassengerQueue::clear);
+        completedCheckpointLines.forEach(PassengerQueue::clear);
+        holdRoomLines.forEach(PassengerQueue::clear);
         Arrays.fill(counterProgress, 0);
         Arrays.fill(checkpointProgress, 0);
         pendingToCP.clear();
         pendingToHold.clear();
-        Arrays.fill(counterServing, null);
-        Arrays.fill(checkpointServing, null);
+        Arrays.fill(counterServing, NO_PASSENGER);
+        Arrays.fill(checkpointServing, NO_PASSENGER);
+        store.clear();
+        passengersByFlight.forEach(CohortList::clear);
+        missedThisInterval.clear();
+        missedThisIntervalIds.clear();
+        minutesWithMisses.clear();
+        createdCount = 0;
 
         captureSnapshot0();
 
         while (currentInterval < totalIntervals) {
+            if (Thread.currentThread().isInterrupted()) {
+                // the intervals computed so far stay valid; computeNextInterval() can go on
+                throw new CancellationException("Simulation cancelled at interval " + currentInterval);
+            }
+            advanceInterval(totalIntervals);
+        }
+    }
+
+    /** Simulates the current minute, or skips the quiet run starting at it (not past {@code limit}). */
+    private void advanceInterval(int limit) {
+        if (eventDriven && isQuietInterval()) {
+            simulateQuietRun(quietRunEnd(limit));
+        } else {
             simulateInterval();
         }
     }
@@ -738,96 +1310,75 @@ public class SimulationEngine {
     // Boarding close MARK
     // ============================
 
+    /**
+     * Every passenger of f that is not already in its hold room misses the flight.
+     * Hold-room membership is read from the store (entry minute is set once, and
+     * hold rooms only lose f's passengers at departure, which is after close).
+     * Pending transfers are not searched: missed passengers are skipped when drained.
+     */
     private void handleBoardingCloseMarkMissed(Flight f) {
         justClosedFlights.add(f);
 
-        int chosenRoom = chosenHoldRoomIndexByFlight.getOrDefault(f, 0);
-        chosenRoom = clamp(chosenRoom, 0, holdRoomLines.size() - 1);
-
-        Set<Passenger> inChosen = new HashSet<>();
-        for (Passenger p : holdRoomLines.get(chosenRoom)) {
-            if (p != null && p.getFlight() == f) inChosen.add(p);
-        }
-
-        markMissedNotInChosen(ticketLines, f, inChosen);
-        markMissedNotInChosen(completedTicketLines, f, inChosen);
-        markMissedNotInChosen(checkpointLines, f, inChosen);
-        markMissedNotInChosen(completedCheckpointLines, f, inChosen);
-
-        purgeFromPendingMap(pendingToCP, f, inChosen);
-        purgeFromPendingMap(pendingToHold, f, inChosen);
-
-        for (int i = 0; i < counterServing.length; i++) {
-            Passenger p = counterServing[i];
-            if (p != null && p.getFlight() == f && !inChosen.contains(p)) p.setMissed(true);
-        }
-        for (int i = 0; i < checkpointServing.length; i++) {
-            Passenger p = checkpointServing[i];
-            if (p != null && p.getFlight() == f && !inChosen.contains(p)) p.setMissed(true);
-        }
-    }
-
-    private void markMissedNotInChosen(List<LinkedList<Passenger>> lists, Flight f, Set<Passenger> inChosen) {
-        for (LinkedList<Passenger> line : lists) {
-            for (Passenger p : line) {
-                if (p != null && p.getFlight() == f && !inChosen.contains(p)) p.setMissed(true);
+        CohortList members = passengersOf(store.indexOf(f));
+        for (int c = 0; c < members.cohortCount() && members.firstId(c) < createdCount; c++) {
+            int end = Math.min(members.firstId(c) + members.count(c), createdCount);
+            for (int id = members.firstId(c); id < end; id++) {
+                int entered = store.getHoldRoomEntryMinute(id);
+                if (entered < 0 || entered >= currentInterval) markMissed(id);
             }
         }
     }
 
-    private void purgeFromPendingMap(Map<Integer, List<Passenger>> pending, Flight f, Set<Passenger> inChosen) {
-        Iterator<Map.Entry<Integer, List<Passenger>>> it = pending.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Integer, List<Passenger>> e = it.next();
-            List<Passenger> list = e.getValue();
-            if (list == null) continue;
-
-            list.removeIf(p -> {
-                if (p != null && p.getFlight() == f && !inChosen.contains(p)) {
-                    p.setMissed(true);
-                    return true;
-                }
-                return false;
-            });
+    /**
+     * Missed as of this point of the interval being simulated. Store flags hold the
+     * frontier state, so a replay must not see misses stamped later on; for the current
+     * minute only the ones already marked during this step count.
+     */
+    private boolean isMissedNow(int id) {
+        if (!store.isMissed(id)) return false;
+        int m = store.getMissedMinute(id);
+        if (m < 0 || m < currentInterval) return true;
+        return m == currentInterval && missedThisIntervalIds.get(id);
+    }
 
-            if (list.isEmpty()) it.remove();
-        }
+    private void markMissed(int id) {
+        if (isMissedNow(id)) return;
+        store.markMissed(id, currentInterval);
+        missedThisInterval.addId(id);
+        missedThisIntervalIds.set(id);
+        minutesWithMisses.set(currentInterval);
     }
 
     // ============================
     // CLOSE CLEAR (non-hold areas)
     // ============================
 
+    /**
+     * Runs after the history snapshot of the close minute. Ticket, checkpoint and
+     * completed-checkpoint lines now only hold missed passengers of f (retired in step 7);
+     * completed ticket lines also keep the ones already in the hold room, so only the
+     * counters that served f are compacted here.
+     */
     private void clearFlightFromNonHoldAreas(Flight f) {
-        for (LinkedList<Passenger> line : ticketLines) line.removeIf(p -> p != null && p.getFlight() == f);
-        for (LinkedList<Passenger> line : completedTicketLines) line.removeIf(p -> p != null && p.getFlight() == f);
-        for (LinkedList<Passenger> line : checkpointLines) line.removeIf(p -> p != null && p.getFlight() == f);
-        for (LinkedList<Passenger> line : completedCheckpointLines) line.removeIf(p -> p != null && p.getFlight() == f);
-
-        purgeAllFromPendingMap(pendingToCP, f);
-        purgeAllFromPendingMap(pendingToHold, f);
-
-        for (int i = 0; i < counterServing.length; i++) {
-            Passenger p = counterServing[i];
-            if (p != null && p.getFlight() == f) counterServing[i] = null;
-        }
-        for (int i = 0; i < checkpointServing.length; i++) {
-            Passenger p = checkpointServing[i];
-            if (p != null && p.getFlight() == f) checkpointServing[i] = null;
+        int fi = store.indexOf(f);
+        CohortList members = passengersOf(fi);
+
+        BitSet servedBy = new BitSet();
+        for (int k = 0; k < members.cohortCount() && members.firstId(k) < createdCount; k++) {
+            int first = members.firstId(k);
+            int end = Math.min(first + members.count(k), createdCount);
+            for (int id = first; id < end; id++) {
+                int c = store.getTicketCounterIndex(id);
+                if (c >= 0) servedBy.set(c);
+            }
+            ticketCompletedVisible.clear(first, end);
         }
-
-        ticketCompletedVisible.removeIf(p -> p != null && p.getFlight() == f);
-    }
-
-    private void purgeAllFromPendingMap(Map<Integer, List<Passenger>> pending, Flight f) {
-        Iterator<Map.Entry<Integer, List<Passenger>>> it = pending.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<Integer, List<Passenger>> e = it.next();
-            List<Passenger> list = e.getValue();
-            if (list == null) continue;
-
-            list.removeIf(p -> p != null && p.getFlight() == f);
-            if (list.isEmpty()) it.remove();
+        for (int c = servedBy.nextSetBit(0); c >= 0; c = servedBy.nextSetBit(c + 1)) {
+            completedTicketLines.get(c).removeIds(id -> {
+                if (store.getFlightIndex(id) != fi) return false;
+                servedLineOf[id] = NO_LINE;
+                return true;
+            });
         }
     }
 
@@ -835,40 +1386,88 @@ public class SimulationEngine {
     // DEPARTURE CLEAR (hold rooms)
     // ============================
 
+    /** All of f's hold-room passengers sit in its chosen room (see step 4). */
     private void clearFlightFromHoldRooms(Flight f) {
-        for (LinkedList<Passenger> room : holdRoomLines) {
-            room.removeIf(p -> p != null && p.getFlight() == f);
-        }
+        int fi = store.indexOf(f);
+        int room = clamp(chosenHoldRoomIndexByFlight.getOrDefault(f, 0), 0, holdRoomLines.size() - 1);
+        holdRoomLines.get(room).removeIds(id -> {
+            if (store.getFlightIndex(id) != fi) return false;
+            lineOf[id] = NO_LINE;
+            return true;
+        });
+    }
+
+    private CohortList passengersOf(int flightIndex) {
+        while (passengersByFlight.size() <= flightIndex) passengersByFlight.add(new CohortList());
+        return passengersByFlight.get(flightIndex);
     }
 
     // ============================
     // Queue helpers
     // ============================
 
-    private Passenger takeFirstNotMissed(LinkedList<Passenger> q) {
-        if (q == null || q.isEmpty()) return null;
-        Iterator<Passenger> it = q.iterator();
-        while (it.hasNext()) {
-            Passenger p = it.next();
-            if (p != null && !p.isMissed()) {
-                it.remove();
-                return p;
+    /**
+     * @return id of the first passenger not marked missed (removed from q), or NO_PASSENGER.
+     * Tombstones at the head are dropped on the way; passengers marked missed this minute
+     * stay in place so they still show up in this minute's history.
+     */
+    private int takeFirstNotMissed(PassengerQueue q) {
+        if (q == null) return NO_PASSENGER;
+        while (q.rawSize() > 0 && isTombstone.test(q.peekFirstId())) {
+            lineOf[q.pollFirstId()] = NO_LINE;
+        }
+        for (int i = 0; i < q.rawSize(); i++) {
+            int id = q.getId(i);
+            if (!isMissedNow(id)) {
+                lineOf[id] = NO_LINE;
+                return q.removeIdAt(i);
             }
         }
-        return null;
+        return NO_PASSENGER;
     }
 
-    private void removeFromCompletedCheckpointLines(Passenger p) {
-        if (p == null) return;
-        for (LinkedList<Passenger> line : completedCheckpointLines) {
-            Iterator<Passenger> it = line.iterator();
-            while (it.hasNext()) {
-                if (it.next() == p) {
-                    it.remove();
-                    return;
-                }
-            }
+    private void removeFromCompletedCheckpointLines(int id) {
+        int code = lineOf[id];
+        if (code == NO_LINE || (code >>> LINE_FAMILY_SHIFT) != LINE_CHECKPOINT_DONE) return;
+        completedCheckpointLines.get(code & ((1 << LINE_FAMILY_SHIFT) - 1)).removeFirstOccurrence(id);
+        lineOf[id] = NO_LINE;
+    }
+
+    private void enqueue(int family, int index, int id) {
+        lineFamily(family).get(index).addId(id);
+        lineOf[id] = (family << LINE_FAMILY_SHIFT) | index;
+    }
+
+    private List<PassengerQueue> lineFamily(int family) {
+        switch (family) {
+            case LINE_TICKET: return ticketLines;
+            case LINE_CHECKPOINT: return checkpointLines;
+            case LINE_CHECKPOINT_DONE: return completedCheckpointLines;
+            default: return holdRoomLines;
+        }
+    }
+
+    /** Ids for a new arrival batch; when replaying, the batch already exists with the same ids. */
+    private int createCohort(int flightIndex, CohortList members, int minute, boolean inPerson, int count) {
+        int first = createdCount;
+        createdCount += count;
+        if (first < store.size()) return first;
+
+        store.addCohort(flightIndex, minute, inPerson, count);
+        members.add(first, count);
+        return first;
+    }
+
+    /** Start tracking a freshly created passenger id. */
+    private int track(int id) {
+        if (id >= lineOf.length) {
+            int n = Math.max(id + 1, lineOf.length * 2);
+            lineOf = Arrays.copyOf(lineOf, n);
+            servedLineOf = Arrays.copyOf(servedLineOf, n);
         }
+        lineOf[id] = NO_LINE;
+        servedLineOf[id] = NO_LINE;
+        return id;
     }
 
     // ============================
@@ -882,14 +1481,15 @@ public class SimulationEngine {
         List<Flight> flightsDepartingThisMinute = new ArrayList<>();
 
         // 1) arrivals + detect boarding-close (mark missed only)
-        for (Flight f : flights) {
-            if (minute == getDepartureIdx(f)) flightsDepartingThisMinute.add(f);
+        //    only flights with an arrival, close or departure around this minute are visited
+        sweepActiveFlights(minute);
+        checkpointLineIndex.buildAll(checkpointLines);
+        for (int fIdx = activeFlights.nextSetBit(0); fIdx >= 0; fIdx = activeFlights.nextSetBit(fIdx + 1)) {
+            Flight f = flightAt[fIdx];
+            if (minute == flightDepartureIdx[fIdx]) flightsDepartingThisMinute.add(f);
 
-            int[] perMin = minuteArrivalsMap.get(f);
-            long offset = Duration.between(globalStart,
-                            f.getDepartureTime().minusMinutes(arrivalSpanMinutes))
-                    .toMinutes();
-            int idx = minute - (int) offset;
+            int[] perMin = flightPerMin[fIdx];
+            int idx = minute - flightArrivalOffset[fIdx];
 
             if (perMin != null && idx >= 0 && idx < perMin.length) {
                 int totalHere = perMin[idx];
@@ -903,163 +1503,163 @@ public class SimulationEngine {
                     inPerson = 0;
                 }
 
-                List<Integer> allowed = new ArrayList<>();
-                for (int j = 0; j < counterConfigs.size(); j++) {
-                    if (counterConfigs.get(j).accepts(f)) allowed.add(j);
-                }
-                if (allowed.isEmpty() && !counterConfigs.isEmpty()) {
-                    for (int j = 0; j < counterConfigs.size(); j++) allowed.add(j);
-                }
+                int[] allowed = flightAllowedCounters[fIdx];
 
-                // enqueue in-person to ticket counters
-                for (int i = 0; i < inPerson; i++) {
-                    Passenger p = new Passenger(f, minute, true);
-                    int best = allowed.get(0);
-                    for (int ci : allowed) {
-                        if (ticketLines.get(ci).size() < ticketLines.get(best).size()) best = ci;
+                int fi = store.indexOf(f);
+                CohortList members = passengersOf(fi);
+
+                // each batch is one cohort of consecutive ids; members only record the cohort
+                // enqueue in-person to ticket counters (shortest allowed line, lowest index on ties)
+                if (inPerson > 0) {
+                    int first = createCohort(fi, members, minute, true, inPerson);
+                    ticketLineIndex.build(allowed, ticketLines);
+                    for (int id = first; id < first + inPerson; id++) {
+                        enqueue(LINE_TICKET, ticketLineIndex.takeShortest(), track(id));
                     }
-                    ticketLines.get(best).add(p);
                 }
 
                 // online → checkpoint
-                for (int i = 0; i < online; i++) {
-                    Passenger p = new Passenger(f, minute, false);
-                    p.setCheckpointEntryMinute(minute);
-
-                    int bestC = 0;
-                    for (int j = 1; j < numCheckpoints; j++) {
-                        if (checkpointLines.get(j).size() < checkpointLines.get(bestC).size()) bestC = j;
+                if (online > 0) {
+                    int first = createCohort(fi, members, minute, false, online);
+                    for (int id = first; id < first + online; id++) {
+                        store.setCheckpointEntryMinute(track(id), minute);
+                        enqueue(LINE_CHECKPOINT, checkpointLineIndex.takeShortest(), id);
                     }
-                    checkpointLines.get(bestC).add(p);
                 }
             }
 
-            int closeIdx = getBoardingCloseIdx(f);
-            if (minute == closeIdx) handleBoardingCloseMarkMissed(f);
+            if (minute == flightCloseIdx[fIdx]) handleBoardingCloseMarkMissed(f);
         }
+        retireActiveFlights(minute);
+
+        // stochastic service draws from a stream of its own per minute, so a replay matches
+        SplittableRandom serviceRand = stochasticService
+                ? new SplittableRandom(mix64(randomSeed + SERVICE_STREAM + minute)) : null;
 
         // 2) ticket-counter service (TicketCounterConfig rate is passengers/minute)
         for (int c = 0; c < counterConfigs.size(); c++) {
             double ratePerInterval = getTicketCounterRatePerInterval(c);
+            if (serviceRand != null) ratePerInterval = poisson(serviceRand, ratePerInterval);
             counterProgress[c] += ratePerInterval;
 
             int toComplete = (int) Math.floor(counterProgress[c]);
             counterProgress[c] -= toComplete;
 
             for (int k = 0; k < toComplete; k++) {
-                Passenger next = takeFirstNotMissed(ticketLines.get(c));
-                if (next == null) break;
-
-                next.setTicketCompletionMinute(minute);
-                completedTicketLines.get(c).add(next);
-                ticketCompletedVisible.add(next);
-
-                if (!next.isMissed()) {
-                    pendingToCP.computeIfAbsent(minute + transitDelayMinutes, x -> new ArrayList<>())
-                            .add(next);
+                int next = takeFirstNotMissed(ticketLines.get(c));
+                if (next == NO_PASSENGER) break;
+
+                store.setTicketCompletionMinute(next, minute);
+                store.setTicketCounterIndex(next, c);
+                completedTicketLines.get(c).addId(next);
+                servedLineOf[next] = c;
+                ticketCompletedVisible.set(next);
+
+                // a negative transit delay is due in the past and never delivered
+                if (!isMissedNow(next) && transitDelayMinutes >= 0) {
+                    pendingToCP.schedule(minute + transitDelayMinutes, next);
                 }
             }
         }
 
         // 3) move from ticket → checkpoint
-        List<Passenger> toMove = pendingToCP.remove(minute);
-        if (toMove != null) {
-            for (Passenger p : toMove) {
-                if (p == null || p.isMissed()) continue;
-                ticketCompletedVisible.remove(p);
-                p.setCheckpointEntryMinute(minute);
-
-                int bestC = 0;
-                for (int j = 1; j < numCheckpoints; j++) {
-                    if (checkpointLines.get(j).size() < checkpointLines.get(bestC).size()) bestC = j;
-                }
-                checkpointLines.get(bestC).add(p);
-            }
+        //    (checkpoint lines are untouched since step 1, so checkpointLineIndex is still current)
+        int dueToCP = pendingToCP.dueCount(minute);
+        for (int i = 0; i < dueToCP; i++) {
+            int id = pendingToCP.dueId(minute, i);
+            if (isMissedNow(id)) continue;
+            ticketCompletedVisible.clear(id);
+            store.setCheckpointEntryMinute(id, minute);
+            enqueue(LINE_CHECKPOINT, checkpointLineIndex.takeShortest(), id);
         }
+        pendingToCP.clearDue(minute);
 
         // 4) checkpoint service (per-checkpoint passengers/hour -> per interval)
         for (int c = 0; c < numCheckpoints; c++) {
             double ratePerInterval = getCheckpointRatePerInterval(c);
+            if (serviceRand != null) ratePerInterval = poisson(serviceRand, ratePerInterval);
             checkpointProgress[c] += ratePerInterval;
 
             int toComplete = (int) Math.floor(checkpointProgress[c]);
             checkpointProgress[c] -= toComplete;
 
             for (int k = 0; k < toComplete; k++) {
-                Passenger next = takeFirstNotMissed(checkpointLines.get(c));
-                if (next == null) break;
+                int next = takeFirstNotMissed(checkpointLines.get(c));
+                if (next == NO_PASSENGER) break;
 
-                next.setCheckpointCompletionMinute(minute);
-                completedCheckpointLines.get(c).add(next);
+                store.setCheckpointCompletionMinute(next, minute);
+                enqueue(LINE_CHECKPOINT_DONE, c, next);
 
-                if (!next.isMissed()) {
-                    Flight f = next.getFlight();
+                if (!isMissedNow(next)) {
+                    Flight f = store.getFlight(next);
                     int targetRoom = chosenHoldRoomIndexByFlight.getOrDefault(f, 0);
                     targetRoom = clamp(targetRoom, 0, holdRoomConfigs.size() - 1);
 
-                    next.setAssignedHoldRoomIndex(targetRoom);
+                    store.setAssignedHoldRoomIndex(next, targetRoom);
 
                     int walkSeconds = safeWalkSeconds(holdRoomConfigs.get(targetRoom));
                     int delayMin = ceilMinutesFromSeconds(walkSeconds);
 
                     int arriveMinute = minute + delayMin;
-                    pendingToHold.computeIfAbsent(arriveMinute, x -> new ArrayList<>())
-                            .add(next);
+                    pendingToHold.schedule(arriveMinute, next);
                 }
             }
         }
 
         // 5) move from checkpoint → hold-room
-        List<Passenger> toHold = pendingToHold.remove(minute);
-        if (toHold != null) {
-            for (Passenger p : toHold) {
-                if (p == null || p.isMissed()) continue;
-
-                Flight f = p.getFlight();
-                int closeIdx = getBoardingCloseIdx(f);
-
-                if (minute < closeIdx) {
-                    int roomIdx = p.getAssignedHoldRoomIndex();
-                    if (roomIdx < 0) {
-                        roomIdx = chosenHoldRoomIndexByFlight.getOrDefault(f, 0);
-                        p.setAssignedHoldRoomIndex(roomIdx);
-                    }
-                    roomIdx = clamp(roomIdx, 0, holdRoomLines.size() - 1);
+        int dueToHold = pendingToHold.dueCount(minute);
+        for (int i = 0; i < dueToHold; i++) {
+            int id = pendingToHold.dueId(minute, i);
+            if (isMissedNow(id)) continue;
 
-                    removeFromCompletedCheckpointLines(p);
+            Flight f = store.getFlight(id);
+            int closeIdx = getBoardingCloseIdx(f);
 
-                    p.setHoldRoomEntryMinute(minute);
-                    int seq = holdRoomLines.get(roomIdx).size() + 1;
-                    p.setHoldRoomSequence(seq);
-                    holdRoomLines.get(roomIdx).add(p);
-                } else {
-                    p.setMissed(true);
+            if (minute < closeIdx) {
+                int roomIdx = store.getAssignedHoldRoomIndex(id);
+                if (roomIdx < 0) {
+                    roomIdx = chosenHoldRoomIndexByFlight.getOrDefault(f, 0);
+                    store.setAssignedHoldRoomIndex(id, roomIdx);
                 }
+                roomIdx = clamp(roomIdx, 0, holdRoomLines.size() - 1);
+
+                removeFromCompletedCheckpointLines(id);
+
+                store.setHoldRoomEntryMinute(id, minute);
+                int seq = holdRoomLines.get(roomIdx).size() + 1;
+                store.setHoldRoomSequence(id, seq);
+                enqueue(LINE_HOLD, roomIdx, id);
+            } else {
+                markMissed(id);
             }
         }
+        pendingToHold.clearDue(minute);
 
         // 5.5) Departure: clear hold rooms at departure time
         if (!flightsDepartingThisMinute.isEmpty()) {
             for (Flight f : flightsDepartingThisMinute) clearFlightFromHoldRooms(f);
         }
 
-        // 6) record history (snapshot moment)
-        historyServedTicket.add(deepCopyPassengerLists(completedTicketLines));
-        historyQueuedTicket.add(deepCopyPassengerLists(ticketLines));
-        historyServedCheckpoint.add(deepCopyPassengerLists(completedCheckpointLines));
-        historyQueuedCheckpoint.add(deepCopyPassengerLists(checkpointLines));
-        historyHoldRooms.add(deepCopyPassengerLists(holdRoomLines));
+        // 6) record history (snapshot moment; already recorded when replaying)
+        if (!replaying) recordHistory();
 
         // 6.5) close clear after snapshot
         if (!justClosedFlights.isEmpty()) {
             for (Flight f : justClosedFlights) clearFlightFromNonHoldAreas(f);
         }
 
-        // 7) purge missed passengers
-        removeMissedPassengers();
-
         // advance
         currentInterval++;
+        store.setViewInterval(currentInterval);
+
+        // 7) retire this minute's missed passengers (tombstones from here on)
+        retireMissedPassengers();
+
+        finishInterval();
+    }
+
+    private void finishInterval() {
+        if (replaying) return;
 
         int stillInTicketQueue = ticketLines.stream().mapToInt(List::size).sum();
         int stillInCheckpointQueue = checkpointLines.stream().mapToInt(List::size).sum();
@@ -1067,24 +1667,212 @@ public class SimulationEngine {
 
         recordQueueTotalsForCurrentInterval();
         appendSnapshotAfterInterval();
+        notifyProgress();
+    }
+
+    private void notifyProgress() {
+        if (progressListener != null) {
+            // frames built off this thread (viewAt) get the graph totals of what is reported
+            graphSeries.update(ticketQueuedByInterval, checkpointQueuedByInterval, holdRoomTotalByInterval, holdRoomCounts);
+            progressListener.intervalComputed(currentInterval, totalIntervals, getPassengersInSystem());
+        }
+    }
+
+    // ============================
+    // Event-driven jumps
+    // ============================
+
+    /**
+     * A minute is quiet when nothing is scheduled for it (arrival, close, departure,
+     * due transfer), no line has a service completion coming up, and the previous minute
+     * left nothing behind (close clear, freshly missed passengers turning into tombstones).
+     * Only checked at the frontier, where the history is complete up to this minute.
+     */
+    private boolean isQuietInterval() {
+        int minute = currentInterval;
+        if (minute <= 0 || minute >= totalIntervals) return false;
+        if (stochasticService) return false;   // any minute may complete a service
+        if (!replaying && historyIntervals != minute) return false;
+        if (scheduledEventMinutes.get(minute) || minutesWithMisses.get(minute - 1)) return false;
+        if (!justClosedFlights.isEmpty()) return false;
+        if (pendingToCP.dueCount(minute) > 0 || pendingToHold.dueCount(minute) > 0) return false;
+        return !serviceCompletesAt(minute);
+    }
+
+    /** @return true if a line with someone waiting serves a passenger in {@code minute} */
+    private boolean serviceCompletesAt(int minute) {
+        for (int c = 0; c < counterConfigs.size(); c++) {
+            if (ticketLines.get(c).rawSize() > 0
+                    && counterProgress[c] + getTicketCounterRatePerInterval(c) >= 1) return true;
+        }
+        for (int c = 0; c < numCheckpoints; c++) {
+            if (checkpointLines.get(c).rawSize() > 0
+                    && checkpointProgress[c] + getCheckpointRatePerInterval(c) >= 1) return true;
+        }
+        return false;
+    }
+
+    /**
+     * End (exclusive) of the quiet run starting at the current minute as far as the
+     * schedule goes: the next arrival, close, departure or due transfer, at most
+     * {@code limit}. Service completions end the run as it is skipped.
+     */
+    private int quietRunEnd(int limit) {
+        int minute = currentInterval;
+        int end = Math.min(limit, totalIntervals);
+        int nextScheduled = scheduledEventMinutes.nextSetBit(minute + 1);
+        if (nextScheduled >= 0) end = Math.min(end, nextScheduled);
+        end = Math.min(end, pendingToCP.nextDueMinute());
+        end = Math.min(end, pendingToHold.nextDueMinute());
+        return Math.max(end, minute + 1);
+    }
+
+    /**
+     * Skips quiet minutes from the current one up to {@code end} or the first service
+     * completion, whichever comes first. Lines, pending transfers and visibility stay
+     * put, so only the service progress moves (with the same additions as a simulated
+     * minute, so results do not drift). The history rows and metric values of the skipped
+     * minutes repeat the last ones and are written in one batch; a snapshot is only made
+     * for the keyframes inside the run and its last minute, sharing the lines of the
+     * snapshot the run started from.
+     */
+    private void simulateQuietRun(int end) {
+        int start = currentInterval;
+        EngineSnapshot from = replaying ? null : stateSnapshots.get(start);
+        int heldUps = heldUpsByInterval.get(start, 0);
+        int ticketWaiting = ticketQueuedByInterval.get(start, 0);
+        int checkpointWaiting = checkpointQueuedByInterval.get(start, 0);
+        int holdTotal = holdRoomTotalByInterval.get(start, 0);
+
+        int minute = start;
+        boolean more;
+        do {
+            sweepActiveFlights(minute);
+            retireActiveFlights(minute);
+            advanceServiceProgress();
+            minute++;
+            more = minute < end && !serviceCompletesAt(minute);
+
+            if (!replaying) {
+                heldUpsByInterval.put(minute, heldUps);
+                ticketQueuedByInterval.put(minute, ticketWaiting);
+                checkpointQueuedByInterval.put(minute, checkpointWaiting);
+                holdRoomTotalByInterval.put(minute, holdTotal);
+                boolean keep = !more || minute % keyframeInterval == 0;
+                storeSnapshot(minute, keep ? makeQuietSnapshot(from, minute) : null);
+            }
+        } while (more);
+
+        if (!replaying) repeatHistory(minute - start);
+
+        currentInterval = minute;
+        store.setViewInterval(currentInterval);
+        if (!replaying) notifyProgress();
+    }
+
+    /** One minute of service progress with nobody served (see {@link #isQuietInterval()}). */
+    private void advanceServiceProgress() {
+        for (int c = 0; c < counterConfigs.size(); c++) {
+            counterProgress[c] += getTicketCounterRatePerInterval(c);
+            int toComplete = (int) Math.floor(counterProgress[c]);
+            counterProgress[c] -= toComplete;
+        }
+        for (int c = 0; c < numCheckpoints; c++) {
+            checkpointProgress[c] += getCheckpointRatePerInterval(c);
+            int toComplete = (int) Math.floor(checkpointProgress[c]);
+            checkpointProgress[c] -= toComplete;
+        }
     }
 
     // ============================
     // Missed purge
     // ============================
 
+    /**
+     * Turns every passenger marked missed during the minute that just finished into a
+     * tombstone of the lines it sits in, then compacts only lines whose tombstone share
+     * passed COMPACT_TOMBSTONE_RATIO. Call after currentInterval has advanced.
+     */
+    private void retireMissedPassengers() {
+        if (missedThisInterval.rawSize() == 0) return;
+
+        for (int i = 0; i < missedThisInterval.rawSize(); i++) {
+            int id = missedThisInterval.getId(i);
+            int code = lineOf[id];
+            if (code != NO_LINE) {
+                lineFamily(code >>> LINE_FAMILY_SHIFT).get(code & ((1 << LINE_FAMILY_SHIFT) - 1)).addTombstone();
+            }
+            if (servedLineOf[id] != NO_LINE) completedTicketLines.get(servedLineOf[id]).addTombstone();
+            missedThisIntervalIds.clear(id);
+        }
+        missedThisInterval.clear();
+
+        for (int family = LINE_TICKET; family <= LINE_HOLD; family++) {
+            for (PassengerQueue line : lineFamily(family)) {
+                if (line.getTombstones() > line.rawSize() * COMPACT_TOMBSTONE_RATIO) compact(line, false);
+            }
+        }
+        for (PassengerQueue line : completedTicketLines) {
+            if (line.getTombstones() > line.rawSize() * COMPACT_TOMBSTONE_RATIO) compact(line, true);
+        }
+    }
+
+    private void compact(PassengerQueue line, boolean servedLine) {
+        line.removeIds(id -> {
+            if (!isTombstone.test(id)) return false;
+            if (servedLine) servedLineOf[id] = NO_LINE;
+            else lineOf[id] = NO_LINE;
+            return true;
+        });
+    }
+
+    /** Drops every tombstone from every line right away. */
     public void removeMissedPassengers() {
-        ticketLines.forEach(line -> line.removeIf(Passenger::isMissed));
-        completedTicketLines.forEach(line -> line.removeIf(Passenger::isMissed));
-        checkpointLines.forEach(line -> line.removeIf(Passenger::isMissed));
-        completedCheckpointLines.forEach(line -> line.removeIf(Passenger::isMissed));
-        holdRoomLines.forEach(line -> line.removeIf(Passenger::isMissed));
+        for (int family = LINE_TICKET; family <= LINE_HOLD; family++) {
+            for (PassengerQueue line : lineFamily(family)) compact(line, false);
+        }
+        for (PassengerQueue line : completedTicketLines) compact(line, true);
     }
 
-    private List<List<Passenger>> deepCopyPassengerLists(List<LinkedList<Passenger>> original) {
-        List<List<Passenger>> copy = new ArrayList<>();
-        for (LinkedList<Passenger> line : original) copy.add(new ArrayList<>(line));
-        return copy;
+    private void recordHistory() {
+        if (historyFidelity == HistoryFidelity.NONE) {
+            historyIntervals++;
+            return;
+        }
+        servedTicketCounts.add(completedTicketLines);
+        queuedTicketCounts.add(ticketLines);
+        servedCheckpointCounts.add(completedCheckpointLines);
+        queuedCheckpointCounts.add(checkpointLines);
+        holdRoomCounts.add(holdRoomLines);
+        if (historyFidelity == HistoryFidelity.FULL) {
+            historyServedTicket.add(completedTicketLines);
+            historyQueuedTicket.add(ticketLines);
+            historyServedCheckpoint.add(completedCheckpointLines);
+            historyQueuedCheckpoint.add(checkpointLines);
+            historyHoldRooms.add(holdRoomLines);
+        }
+        historyIntervals++;
+    }
+
+    /** History after {@code minutes} quiet minutes: nothing moved, so every line repeats its last entry. */
+    private void repeatHistory(int minutes) {
+        if (historyFidelity == HistoryFidelity.NONE) {
+            historyIntervals += minutes;
+            return;
+        }
+        servedTicketCounts.repeatLast(minutes);
+        queuedTicketCounts.repeatLast(minutes);
+        servedCheckpointCounts.repeatLast(minutes);
+        queuedCheckpointCounts.repeatLast(minutes);
+        holdRoomCounts.repeatLast(minutes);
+        if (historyFidelity == HistoryFidelity.FULL) {
+            historyServedTicket.repeatLast(minutes);
+            historyQueuedTicket.repeatLast(minutes);
+            historyServedCheckpoint.repeatLast(minutes);
+            historyQueuedCheckpoint.repeatLast(minutes);
+            historyHoldRooms.repeatLast(minutes);
+        }
+        historyIntervals += minutes;
     }
 
     private void clearHistory() {
@@ -1102,43 +1890,41 @@ public class SimulationEngine {
         historyServedCheckpoint.clear();
         historyQueuedCheckpoint.clear();
         historyHoldRooms.clear();
+        servedTicketCounts.clear();
+        queuedTicketCounts.clear();
+        servedCheckpointCounts.clear();
+        queuedCheckpointCounts.clear();
+        holdRoomCounts.clear();
+        graphSeries.clear();
+        historyIntervals = 0;
 
         Arrays.fill(counterProgress, 0);
         Arrays.fill(checkpointProgress, 0);
         pendingToCP.clear();
         pendingToHold.clear();
         ticketCompletedVisible.clear();
-        holdRoomLines.forEach(LinkedList::clear);
+        holdRoomLines.forEach(PassengerQueue::clear);
     }
 
-    private static List<LinkedList<Passenger>> deepCopyLinkedLists(List<LinkedList<Passenger>> original) {
-        List<LinkedList<Passenger>> copy = new ArrayList<>(original.size());
-        for (LinkedList<Passenger> line : original) copy.add(new LinkedList<>(line));
+    /** Frozen copies of every line; lines unchanged since the last snapshot share its copy. */
+    private static List<PassengerQueue> snapshotQueues(List<PassengerQueue> original) {
+        List<PassengerQueue> copy = new ArrayList<>(original.size());
+        for (PassengerQueue line : original) copy.add(line.snapshot());
         return copy;
     }
 
-    private static void restoreLinkedListsInPlace(List<LinkedList<Passenger>> target,
-                                                 List<LinkedList<Passenger>> source) {
+    private static void restoreQueuesInPlace(List<PassengerQueue> target,
+                                             List<PassengerQueue> source) {
         if (target.size() != source.size()) {
             target.clear();
-            for (LinkedList<Passenger> src : source) target.add(new LinkedList<>(src));
+            for (PassengerQueue src : source) target.add(new PassengerQueue(src));
             return;
         }
         for (int i = 0; i < target.size(); i++) {
-            LinkedList<Passenger> t = target.get(i);
-            t.clear();
-            t.addAll(source.get(i));
+            target.get(i).copyFrom(source.get(i));
         }
     }
 
-    private static Map<Integer, List<Passenger>> deepCopyPendingMap(Map<Integer, List<Passenger>> original) {
-        Map<Integer, List<Passenger>> copy = new HashMap<>();
-        for (Map.Entry<Integer, List<Passenger>> e : original.entrySet()) {
-            copy.put(e.getKey(), new ArrayList<>(e.getValue()));
-        }
-        return copy;
-    }
-
     // ============================
     // RESTORED METHODS (fix your red underlines)
     // ============================
@@ -1165,16 +1951,11 @@ public class SimulationEngine {
     public int getTotalArrivalsAtMinute(int minuteSinceGlobalStart) {
         int sum = 0;
 
-        for (Flight f : flights) {
-            int[] perMin = minuteArrivalsMap.get(f);
+        for (int i = 0; i < flightAt.length; i++) {
+            int[] perMin = flightPerMin[i];
             if (perMin == null) continue;
 
-            long offset = Duration.between(
-                    globalStart,
-                    f.getDepartureTime().minusMinutes(arrivalSpanMinutes)
-            ).toMinutes();
-
-            int idx = minuteSinceGlobalStart - (int) offset;
+            int idx = minuteSinceGlobalStart - flightArrivalOffset[i];
             if (idx >= 0 && idx < perMin.length) {
                 sum += perMin[idx];
             }
@@ -1185,13 +1966,109 @@ public class SimulationEngine {
     // ============================
     // HISTORY GETTERS
     // ============================
-    public List<List<List<Passenger>>> getHistoryServedTicket() { return historyServedTicket; }
-    public List<List<List<Passenger>>> getHistoryQueuedTicket() { return historyQueuedTicket; }
+    // line contents per interval, rebuilt from the delta history when read
+    public List<List<List<Passenger>>> getHistoryServedTicket() { return historyServedTicket.asList(); }
+    public List<List<List<Passenger>>> getHistoryQueuedTicket() { return historyQueuedTicket.asList(); }
     public List<List<List<Passenger>>> getHistoryOnlineArrivals() { return historyOnlineArrivals; }
     public List<List<List<Passenger>>> getHistoryFromTicketArrivals() { return historyFromTicketArrivals; }
-    public List<List<List<Passenger>>> getHistoryServedCheckpoint() { return historyServedCheckpoint; }
-    public List<List<List<Passenger>>> getHistoryQueuedCheckpoint() { return historyQueuedCheckpoint; }
-    public List<List<List<Passenger>>> getHistoryHoldRooms() { return historyHoldRooms; }
+    public List<List<List<Passenger>>> getHistoryServedCheckpoint() { return historyServedCheckpoint.asList(); }
+    public List<List<List<Passenger>>> getHistoryQueuedCheckpoint() { return historyQueuedCheckpoint.asList(); }
+    public List<List<List<Passenger>>> getHistoryHoldRooms() { return historyHoldRooms.asList(); }
+
+    // count histories (index = interval - 1, like the lists above; empty with NONE)
+    public LineCountHistory getServedTicketCounts() { return servedTicketCounts; }
+    public LineCountHistory getQueuedTicketCounts() { return queuedTicketCounts; }
+    public LineCountHistory getServedCheckpointCounts() { return servedCheckpointCounts; }
+    public LineCountHistory getQueuedCheckpointCounts() { return queuedCheckpointCounts; }
+    public LineCountHistory getHoldRoomCounts() { return holdRoomCounts; }
+
+    /**
+     * History fidelity (default FULL). COUNTS keeps only per-line counts, which is all
+     * the data table and graphs need; the passenger-list histories then stay empty.
+     * Must be chosen before the first interval is computed.
+     */
+    public void setHistoryFidelity(HistoryFidelity fidelity) {
+        if (fidelity == null) throw new IllegalArgumentException("fidelity must not be null");
+        if (historyIntervals > 0 && fidelity != historyFidelity) {
+            throw new IllegalStateException("History fidelity must be set before the first interval");
+        }
+        historyFidelity = fidelity;
+    }
+
+    public HistoryFidelity getHistoryFidelity() { return historyFidelity; }
+
+    /**
+     * Takes every random choice of the run from {@code stream}: ties between equally
+     * close hold rooms and, when enabled, the arrival minute of each passenger (drawn
+     * from the arrival curve) and the passengers served per minute (Poisson around the
+     * configured rate). Equal streams give equal runs.
+     * Must be set before the first interval is computed.
+     */
+    public void setRandomStream(SplittableRandom stream, boolean stochasticArrivals, boolean stochasticService) {
+        if (stream == null) throw new IllegalArgumentException("stream must not be null");
+        if (historyIntervals > 0) {
+            throw new IllegalStateException("Random stream must be set before the first interval");
+        }
+        this.randomSeed = stream.nextLong();
+        this.stochasticArrivals = stochasticArrivals;
+        this.stochasticService = stochasticService;
+
+        rebuildMinuteArrivalsMap();
+        rebuildFlightSchedule();
+        computeChosenHoldRooms();
+    }
+
+    public long getRandomSeed() { return randomSeed; }
+    public boolean isStochasticArrivals() { return stochasticArrivals; }
+    public boolean isStochasticService() { return stochasticService; }
+
+    /**
+     * Streams the histories into memory-mapped temp files under {@code directory}
+     * instead of keeping them on the heap (null = back to the heap), so heap use no
+     * longer grows with the number of intervals. Reads go through a small page cache.
+     * Must be chosen before the first interval is computed; {@link #close()} deletes
+     * the files once the engine is no longer needed.
+     */
+    public void setHistorySpillDirectory(Path directory) {
+        if (historyIntervals > 0) {
+            throw new IllegalStateException("History spill must be set before the first interval");
+        }
+        if (directory != null && !Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        close();
+        historySpillDirectory = directory;
+
+        historyServedTicket = new LineHistory(store, newHistoryBuffer(), newHistoryBuffer());
+        historyQueuedTicket = new LineHistory(store, newHistoryBuffer(), newHistoryBuffer());
+        historyServedCheckpoint = new LineHistory(store, newHistoryBuffer(), newHistoryBuffer());
+        historyQueuedCheckpoint = new LineHistory(store, newHistoryBuffer(), newHistoryBuffer());
+        historyHoldRooms = new LineHistory(store, newHistoryBuffer(), newHistoryBuffer());
+        servedTicketCounts = new LineCountHistory(newHistoryBuffer());
+        queuedTicketCounts = new LineCountHistory(newHistoryBuffer());
+        servedCheckpointCounts = new LineCountHistory(newHistoryBuffer());
+        queuedCheckpointCounts = new LineCountHistory(newHistoryBuffer());
+        holdRoomCounts = new LineCountHistory(newHistoryBuffer());
+    }
+
+    public Path getHistorySpillDirectory() { return historySpillDirectory; }
+
+    /**
+     * Closes and deletes the history spill files. The spilled history cannot be read
+     * afterwards; an engine that keeps its history on the heap is not affected.
+     */
+    @Override
+    public void close() {
+        spillBuffers.forEach(MappedHistoryBuffer::close);
+        spillBuffers.clear();
+    }
+
+    private HistoryBuffer newHistoryBuffer() {
+        if (historySpillDirectory == null) return new HeapHistoryBuffer();
+        MappedHistoryBuffer buffer = new MappedHistoryBuffer(historySpillDirectory);
+        spillBuffers.add(buffer);
+        return buffer;
+    }
 
     // ============================
     // PUBLIC GETTERS
@@ -1201,31 +2078,144 @@ public class SimulationEngine {
     public int getInterval() { return intervalMinutes; }
     public int getTotalIntervals() { return totalIntervals; }
     public int getCurrentInterval() { return currentInterval; }
-    public List<LinkedList<Passenger>> getTicketLines() { return ticketLines; }
-    public List<LinkedList<Passenger>> getCheckpointLines() { return checkpointLines; }
-    public List<LinkedList<Passenger>> getCompletedTicketLines() { return completedTicketLines; }
-    public List<LinkedList<Passenger>> getCompletedCheckpointLines() { return completedCheckpointLines; }
-    public List<LinkedList<Passenger>> getHoldRoomLines() { return holdRoomLines; }
+    public List<PassengerQueue> getTicketLines() { return ticketLines; }
+    public List<PassengerQueue> getCheckpointLines() { return checkpointLines; }
+    public List<PassengerQueue> getCompletedTicketLines() { return completedTicketLines; }
+    public List<PassengerQueue> getCompletedCheckpointLines() { return completedCheckpointLines; }
+    public List<PassengerQueue> getHoldRoomLines() { return holdRoomLines; }
     public int getTransitDelayMinutes() { return transitDelayMinutes; }
     public int getHoldDelayMinutes() { return holdDelayMinutes; }
     public List<HoldRoomConfig> getHoldRoomConfigs() { return Collections.unmodifiableList(holdRoomConfigs); }
     public List<TicketCounterConfig> getCounterConfigs() { return Collections.unmodifiableList(counterConfigs); }
     public List<CheckpointConfig> getCheckpointConfigs() { return Collections.unmodifiableList(checkpointConfigs); }
 
-    public int getHoldRoomCellSize(Flight f) {
-        return holdRoomCellSize.getOrDefault(f, GridRenderer.MIN_CELL_SIZE);
+    /** @return passengers waiting in a line, walking between areas or in a hold room */
+    public int getPassengersInSystem() {
+        int n = pendingToCP.size();   // walkers to the hold rooms are still in completedCheckpointLines
+        for (PassengerQueue q : ticketLines) n += q.size();
+        for (PassengerQueue q : checkpointLines) n += q.size();
+        for (PassengerQueue q : completedCheckpointLines) n += q.size();
+        for (PassengerQueue q : holdRoomLines) n += q.size();
+        return n;
+    }
+
+    /** @return passengers of {@code f} created up to the current interval */
+    public int getPassengerCount(Flight f) {
+        CohortList members = passengersOf(store.indexOf(f));
+        int n = 0;
+        for (int c = 0; c < members.cohortCount() && members.firstId(c) < createdCount; c++) {
+            n += Math.min(members.count(c), createdCount - members.firstId(c));
+        }
+        return n;
+    }
+
+    /** @return passengers of {@code f} who have missed it as of the current interval */
+    public int getMissedCount(Flight f) {
+        CohortList members = passengersOf(store.indexOf(f));
+        int missed = 0;
+        for (int c = 0; c < members.cohortCount() && members.firstId(c) < createdCount; c++) {
+            int end = Math.min(members.firstId(c) + members.count(c), createdCount);
+            for (int id = members.firstId(c); id < end; id++) {
+                if (store.isMissed(id, currentInterval)) missed++;
+            }
+        }
+        return missed;
     }
 
     public List<Passenger> getVisibleCompletedTicketLine(int idx) {
-        List<Passenger> visible = new ArrayList<>();
-        for (Passenger p : completedTicketLines.get(idx)) {
-            if (ticketCompletedVisible.contains(p)) visible.add(p);
+        PassengerQueue line = completedTicketLines.get(idx);
+        int[] visible = new int[line.rawSize()];
+        int n = 0;
+        for (int i = 0; i < line.rawSize(); i++) {
+            int id = line.getId(i);
+            if (ticketCompletedVisible.get(id) && !isTombstone.test(id)) visible[n++] = id;
+        }
+        return new PassengerIdList(store, Arrays.copyOf(visible, n), currentInterval);
+    }
+
+    // ============================
+    // Frames (see IntervalFrame)
+    // ============================
+
+    /**
+     * @return an immutable view of the current interval for the live simulation view.
+     *         Call it on the thread that advances the engine: it also brings the
+     *         graph series of later frames up to date.
+     */
+    public IntervalFrame captureFrame() {
+        graphSeries.update(ticketQueuedByInterval, checkpointQueuedByInterval, holdRoomTotalByInterval, holdRoomCounts);
+        return viewAt(currentInterval - 1);
+    }
+
+    /**
+     * Immutable view of history step {@code step}, i.e. the state after interval
+     * {@code step + 1} (-1 = interval 0, nothing drawn). Built from the recorded
+     * history only, so it does not depend on (or move) the engine's current interval.
+     */
+    public IntervalFrame viewAt(int step) {
+        List<List<Passenger>> servedTicket = frameRow(historyServedTicket, step, completedTicketLines.size());
+
+        List<Flight> closed = new ArrayList<>();
+        BitSet closedIdx = new BitSet();
+        for (int fIdx = 0; fIdx < flightAt.length; fIdx++) {
+            if (step >= 0 && flightCloseIdx[fIdx] == step) {
+                closed.add(flightAt[fIdx]);
+                closedIdx.set(store.indexOf(flightAt[fIdx]));
+            }
+        }
+
+        // served passengers stay at their counter until the transit delay is over (a
+        // negative delay never moves them) or their flight closes; the row was recorded
+        // before the close-time clear, so flights closing at this step are dropped here
+        List<List<Passenger>> visible = new ArrayList<>(servedTicket.size());
+        for (List<Passenger> line : servedTicket) {
+            PassengerIdList ids = (PassengerIdList) line;
+            int[] kept = new int[ids.size()];
+            int n = 0;
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.getId(i);
+                if (closedIdx.get(store.getFlightIndex(id))) continue;
+                if (transitDelayMinutes < 0 || store.getTicketCompletionMinute(id) + transitDelayMinutes > step) {
+                    kept[n++] = id;
+                }
+            }
+            visible.add(new PassengerIdList(store, Arrays.copyOf(kept, n), step + 1));
+        }
+
+        int[] maxTicket = new int[ticketLines.size()], maxTicketStep = new int[ticketLines.size()];
+        int[] maxCheckpoint = new int[checkpointLines.size()], maxCheckpointStep = new int[checkpointLines.size()];
+        queuedTicketCounts.copyMax(maxTicket, maxTicketStep);
+        queuedCheckpointCounts.copyMax(maxCheckpoint, maxCheckpointStep);
+
+        return new IntervalFrame(
+                step + 1,
+                maxComputedInterval,
+                totalIntervals,
+                frameContext,
+                graphSeries.current(),
+                frameRow(historyQueuedTicket, step, ticketLines.size()),
+                servedTicket,
+                Collections.unmodifiableList(visible),
+                frameRow(historyQueuedCheckpoint, step, checkpointLines.size()),
+                frameRow(historyServedCheckpoint, step, completedCheckpointLines.size()),
+                frameRow(historyHoldRooms, step, holdRoomLines.size()),
+                Collections.unmodifiableList(closed),
+                maxTicket, maxTicketStep, maxCheckpoint, maxCheckpointStep);
+    }
+
+    /** Materializes one history row, so the frame no longer reads the history (which keeps growing). */
+    private List<List<Passenger>> frameRow(LineHistory history, int step, int lineCount) {
+        List<List<Passenger>> row = new ArrayList<>(lineCount);
+        boolean recorded = step >= 0 && step < history.size();
+        for (int l = 0; l < lineCount; l++) {
+            int[] ids = recorded && l < history.lineCount() ? history.ids(step, l) : new int[0];
+            row.add(new PassengerIdList(store, ids, step + 1));
         }
-        return visible;
+        return Collections.unmodifiableList(row);
     }
 
     public Map<Integer, Integer> getHoldUpsByInterval() {
-        return new LinkedHashMap<>(heldUpsByInterval);
+        return heldUpsByInterval.toMap();
     }
 
     // ============================
@@ -1233,28 +2223,25 @@ public class SimulationEngine {
     // ============================
 
     public int getTicketQueuedAtInterval(int intervalIndex) {
-        Integer v = ticketQueuedByInterval.get(intervalIndex);
-        return v == null ? 0 : v;
+        return ticketQueuedByInterval.get(intervalIndex, 0);
     }
 
     public int getCheckpointQueuedAtInterval(int intervalIndex) {
-        Integer v = checkpointQueuedByInterval.get(intervalIndex);
-        return v == null ? 0 : v;
+        return checkpointQueuedByInterval.get(intervalIndex, 0);
     }
 
     public int getHoldRoomTotalAtInterval(int intervalIndex) {
-        Integer v = holdRoomTotalByInterval.get(intervalIndex);
-        return v == null ? 0 : v;
+        return holdRoomTotalByInterval.get(intervalIndex, 0);
     }
 
     public Map<Integer, Integer> getTicketQueuedByInterval() {
-        return new LinkedHashMap<>(ticketQueuedByInterval);
+        return ticketQueuedByInterval.toMap();
     }
     public Map<Integer, Integer> getCheckpointQueuedByInterval() {
-        return new LinkedHashMap<>(checkpointQueuedByInterval);
+        return checkpointQueuedByInterval.toMap();
     }
     public Map<Integer, Integer> getHoldRoomTotalByInterval() {
-        return new LinkedHashMap<>(holdRoomTotalByInterval);
+        return holdRoomTotalByInterval.toMap();
     }
 
     private void recordQueueTotalsForCurrentInterval() {
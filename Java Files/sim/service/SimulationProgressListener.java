@@ -0,0 +1,12 @@
+package sim.service;
+
+/**
+ * Progress of a running simulation. Called on the simulating thread after every
+ * newly computed interval, or once for a run of skipped quiet minutes (not while
+ * replaying for a rewind). Everything up to {@code interval} is recorded by then, so
+ * a thread that is handed the value (with a happens-before, such as a SwingWorker's
+ * publish) can build frames up to it with {@link SimulationEngine#viewAt(int)}.
+ */
+public interface SimulationProgressListener {
+    void intervalComputed(int interval, int totalIntervals, int passengersInSystem);
+}
@@ -0,0 +1,365 @@
+package sim.service;
+
+import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
+import sim.model.TicketCounterConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Finds the cheapest staffing that meets a {@link StaffingTarget}: the number of
+ * ticket counters and the checkpoint rate (passengers/hour, the same for every
+ * checkpoint), each within bounds.
+ *
+ * Counter counts are tried in ascending order. For each, the lowest rate on the
+ * rate grid that meets the target is narrowed down by a k-section search, which
+ * runs k candidate rates at once on a {@link ForkJoinPool}. More counters never need
+ * a higher rate, so the rate found for one count bounds the search for the next,
+ * and the search stops once even the lowest rate costs more than the best found.
+ * A candidate already in the {@link RunCache} is not simulated again, and whether a
+ * candidate met a target is remembered, so searching again for the same target (with
+ * other bounds, say) only runs new candidates. Only the run returned is archived into
+ * the cache: archiving replays every interval, which would double each candidate's cost.
+ *
+ * Cost is {@code counters * counterCost + sum of checkpoint rates * rateCost}; by
+ * default a counter costs as much as 60 passengers/hour of checkpoint throughput.
+ */
+public class StaffingOptimizer {
+
+    /** Builds the (not yet run) engine for one candidate staffing. */
+    @FunctionalInterface
+    public interface RunFactory {
+        SimulationEngine create(int counters, double checkpointRatePerHour);
+    }
+
+    private final RunFactory factory;
+    private final RunCache cache;
+    /** target -> run key -> met, for the candidates of earlier searches */
+    private final Map<StaffingTarget, Map<String, Boolean>> outcomes = new WeakHashMap<>();
+
+    private int minCounters = 1;
+    private int maxCounters = 10;
+    private double minRatePerHour = 60;
+    private double maxRatePerHour = 600;
+    private double rateStep = 10;
+    private double counterCost = 1;
+    private double rateCost = 1.0 / 60;
+    private HistoryFidelity historyFidelity = HistoryFidelity.COUNTS;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public StaffingOptimizer(RunFactory factory, RunCache cache) {
+        if (factory == null) throw new IllegalArgumentException("factory must not be null");
+        if (cache == null) throw new IllegalArgumentException("cache must not be null");
+        this.factory = factory;
+        this.cache = cache;
+    }
+
+    /**
+     * Candidates built like {@code template}: its flights, global inputs, hold rooms,
+     * arrival curve and number of checkpoints, with {@code counters} ticket counters
+     * for all flights at the rate of its first counter.
+     */
+    public static RunFactory fromTemplate(SimulationEngine template) {
+        List<TicketCounterConfig> templateCounters = template.getCounterConfigs();
+        double counterRate = templateCounters.isEmpty() ? 1.0 : templateCounters.get(0).getRate();
+        int checkpointCount = Math.max(1, template.getCheckpointConfigs().size());
+        ArrivalCurveConfig curve = template.getArrivalCurveConfigCopy();
+
+        return (counters, ratePerHour) -> {
+            List<TicketCounterConfig> counterConfigs = new ArrayList<>();
+            for (int i = 1; i <= counters; i++) counterConfigs.add(new TicketCounterConfig(i, counterRate, new HashSet<>()));
+            List<CheckpointConfig> checkpointConfigs = new ArrayList<>();
+            for (int i = 1; i <= checkpointCount; i++) {
+                CheckpointConfig c = new CheckpointConfig(i);
+                c.setRatePerHour(ratePerHour);
+                checkpointConfigs.add(c);
+            }
+            SimulationEngine engine = new SimulationEngine(template.getPercentInPerson(), counterConfigs,
+                    checkpointConfigs, template.getArrivalSpan(), template.getInterval(),
+                    template.getTransitDelayMinutes(), template.getHoldDelayMinutes(),
+                    template.getFlights(), new ArrayList<>(template.getHoldRoomConfigs()));
+            engine.setArrivalCurveConfig(curve);
+            return engine;
+        };
+    }
+
+    public void setCounterBounds(int min, int max) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("need 1 <= min <= max counters");
+        this.minCounters = min;
+        this.maxCounters = max;
+    }
+
+    /** Checkpoint rates tried: {@code min, min + step, ...} up to {@code max}. */
+    public void setCheckpointRateBounds(double minPerHour, double maxPerHour, double step) {
+        if (minPerHour < 0 || maxPerHour < minPerHour || step <= 0) {
+            throw new IllegalArgumentException("need 0 <= min <= max and step > 0");
+        }
+        this.minRatePerHour = minPerHour;
+        this.maxRatePerHour = maxPerHour;
+        this.rateStep = step;
+    }
+
+    /** @param perCounter cost of one counter; @param perPassengerPerHour cost of one passenger/hour at one checkpoint */
+    public void setCosts(double perCounter, double perPassengerPerHour) {
+        if (perCounter < 0 || perPassengerPerHour < 0) throw new IllegalArgumentException("costs must be >= 0");
+        this.counterCost = perCounter;
+        this.rateCost = perPassengerPerHour;
+    }
+
+    /** Fidelity of the candidate runs (default COUNTS: table and graphs, no passenger lines). */
+    public void setHistoryFidelity(HistoryFidelity fidelity) {
+        if (fidelity == null) throw new IllegalArgumentException("fidelity must not be null");
+        this.historyFidelity = fidelity;
+    }
+
+    /** Candidate runs simulated at once (default: one per core). */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Interrupting the calling thread cancels the search.
+     *
+     * @return the cheapest staffing within the bounds that meets {@code target},
+     *         or null if none does
+     * @throws CancellationException if the calling thread was interrupted
+     */
+    public Result optimize(StaffingTarget target) {
+        if (target == null) throw new IllegalArgumentException("target must not be null");
+        Search search = new Search(target);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return search.run(pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Cheapest feasible staffing and its run. */
+    public static final class Result {
+        private final int counters;
+        private final double checkpointRatePerHour;
+        private final double cost;
+        private final SimulationEngine run;
+        private final int simulatedRuns;
+        private final int cachedRuns;
+
+        Result(int counters, double checkpointRatePerHour, double cost, SimulationEngine run,
+               int simulatedRuns, int cachedRuns) {
+            this.counters = counters;
+            this.checkpointRatePerHour = checkpointRatePerHour;
+            this.cost = cost;
+            this.run = run;
+            this.simulatedRuns = simulatedRuns;
+            this.cachedRuns = cachedRuns;
+        }
+
+        public int getCounters() { return counters; }
+        public double getCheckpointRatePerHour() { return checkpointRatePerHour; }
+        public double getCost() { return cost; }
+        /** @return the finished run of this staffing (a playback engine if it came from the cache) */
+        public SimulationEngine getRun() { return run; }
+        /** @return candidate runs simulated by the search */
+        public int getSimulatedRuns() { return simulatedRuns; }
+        /** @return candidate runs taken from the cache */
+        public int getCachedRuns() { return cachedRuns; }
+
+        @Override
+        public String toString() {
+            return counters + " counters, checkpoints at " + checkpointRatePerHour + "/h (cost " + cost + ")";
+        }
+    }
+
+    // ============================
+    // Search
+    // ============================
+
+    private final class Search {
+        private final StaffingTarget target;
+        private final Map<String, Boolean> known;   // outcomes of this target, shared with later searches
+        private final int rateSteps = (int) Math.floor((maxRatePerHour - minRatePerHour) / rateStep + 1e-9);
+        private final Map<Long, Boolean> met = new HashMap<>();   // (counters, rate index) -> target met
+        private int simulatedRuns;
+        private int cachedRuns;
+
+        private int bestCounters = -1;
+        private int bestRate;
+        private double bestCost = Double.POSITIVE_INFINITY;
+        private SimulationEngine bestRun;   // null if the outcome was known
+
+        Search(StaffingTarget target) {
+            this.target = target;
+            synchronized (outcomes) {
+                this.known = outcomes.computeIfAbsent(target, t -> new HashMap<>());
+            }
+        }
+
+        Result run(ForkJoinPool pool) {
+            int hi = rateSteps;   // more counters never need a higher rate
+            for (int counters = minCounters; counters <= maxCounters; counters++) {
+                if (cost(counters, 0) >= bestCost) break;   // cost only grows from here
+
+                int lo = 0;
+                boolean hiMet = false;
+                SimulationEngine hiRun = null;
+                while (lo < hi || !hiMet) {
+                    List<Integer> probes = probes(lo, hi, hiMet);
+                    List<Outcome> results = evaluate(pool, counters, probes);
+                    int newHi = -1;
+                    SimulationEngine newHiRun = null;
+                    for (int i = 0; i < probes.size(); i++) {
+                        int k = probes.get(i);
+                        if (results.get(i).met) {
+                            if (newHi < 0 || k < newHi) {
+                                newHi = k;
+                                newHiRun = results.get(i).run;
+                            }
+                        } else if (k >= lo) {
+                            lo = Math.max(lo, k + 1);
+                        }
+                    }
+                    if (newHi >= 0) {
+                        hi = newHi;
+                        hiRun = newHiRun;
+                        hiMet = true;
+                    } else if (!hiMet && lo > hi) {
+                        break;   // not even the highest rate is enough
+                    }
+                }
+                if (!hiMet) continue;
+
+                double cost = cost(counters, hi);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestCounters = counters;
+                    bestRate = hi;
+                    bestRun = hiRun;
+                }
+            }
+
+            if (bestCounters < 0) return null;
+            if (bestRun == null) bestRun = run(bestCounters, bestRate);   // known from an earlier search
+            if (!cache.contains(RunCache.key(bestRun))) cache.put(bestRun);
+            return new Result(bestCounters, rate(bestRate), bestCost, bestRun, simulatedRuns, cachedRuns);
+        }
+
+        /** Up to {@code parallelism} rate indices splitting [lo, hi]; hi itself while it is unknown. */
+        private List<Integer> probes(int lo, int hi, boolean hiMet) {
+            List<Integer> probes = new ArrayList<>();
+            if (!hiMet) probes.add(hi);
+            int slots = Math.max(1, parallelism - probes.size());
+            int span = hi - lo;
+            for (int i = 1; i <= slots && span > 0; i++) {
+                int k = lo + (int) ((long) span * i / (slots + 1));
+                if (k < hi && (probes.isEmpty() || probes.get(probes.size() - 1) != k)) probes.add(k);
+            }
+            if (probes.isEmpty()) probes.add(lo);
+            return probes;
+        }
+
+        private List<Outcome> evaluate(ForkJoinPool pool, int counters, List<Integer> rateIndices) {
+            List<ForkJoinTask<Outcome>> tasks = new ArrayList<>();
+            for (int k : rateIndices) {
+                Boolean done = met.get(pack(counters, k));
+                tasks.add(done != null ? null : pool.submit(() -> outcome(counters, k)));
+            }
+            List<Outcome> results = new ArrayList<>();
+            try {
+                for (int i = 0; i < rateIndices.size(); i++) {
+                    long key = pack(counters, rateIndices.get(i));
+                    ForkJoinTask<Outcome> task = tasks.get(i);
+                    Outcome outcome = task != null ? task.get() : new Outcome(met.get(key), null);
+                    met.put(key, outcome.met);
+                    results.add(outcome);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Staffing search cancelled");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException("Candidate run failed", cause);
+            }
+            return results;
+        }
+
+        /**
+         * Whether the candidate meets the target: known from an earlier search, or from
+         * its run (cached or simulated, not archived). The run is kept only if it met it.
+         */
+        private Outcome outcome(int counters, int rateIndex) {
+            SimulationEngine engine = candidate(counters, rateIndex);
+            String key = RunCache.key(engine);
+            Boolean wasMet;
+            synchronized (outcomes) { wasMet = known.get(key); }
+            if (wasMet != null) {
+                synchronized (this) { cachedRuns++; }
+                return new Outcome(wasMet, null);
+            }
+            SimulationEngine run = run(engine, key);
+            boolean isMet = target.isMet(run);
+            synchronized (outcomes) { known.put(key, isMet); }
+            return new Outcome(isMet, isMet ? run : null);
+        }
+
+        private SimulationEngine run(int counters, int rateIndex) {
+            SimulationEngine engine = candidate(counters, rateIndex);
+            return run(engine, RunCache.key(engine));
+        }
+
+        /** @return the finished run, from the cache if it has one */
+        private SimulationEngine run(SimulationEngine engine, String key) {
+            SimulationEngine cached = cache.get(key);
+            if (cached != null) {
+                synchronized (this) { cachedRuns++; }
+                return cached;
+            }
+            engine.runAllIntervals();
+            synchronized (this) { simulatedRuns++; }
+            return engine;
+        }
+
+        private SimulationEngine candidate(int counters, int rateIndex) {
+            SimulationEngine engine = factory.create(counters, rate(rateIndex));
+            engine.setHistoryFidelity(historyFidelity);
+            return engine;
+        }
+
+        private double cost(int counters, int rateIndex) {
+            SimulationEngine engine = factory.create(counters, rate(rateIndex));
+            double rates = 0;
+            for (CheckpointConfig c : engine.getCheckpointConfigs()) rates += c.getRatePerHour();
+            return engine.getCounterConfigs().size() * counterCost + rates * rateCost;
+        }
+
+        private double rate(int rateIndex) {
+            return minRatePerHour + rateIndex * rateStep;
+        }
+
+        private long pack(int counters, int rateIndex) {
+            return ((long) counters << 32) | rateIndex;
+        }
+    }
+
+    /** A candidate's result: target met, and its run if it was kept. */
+    private static final class Outcome {
+        final boolean met;
+        final SimulationEngine run;
+
+        Outcome(boolean met, SimulationEngine run) {
+            this.met = met;
+            this.run = run;
+        }
+    }
+}
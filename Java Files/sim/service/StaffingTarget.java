@@ -0,0 +1,59 @@
+package sim.service;
+
+import sim.model.PassengerStore;
+
+import java.util.Arrays;
+
+/**
+ * Service level a staffing has to reach, checked against a finished run.
+ * The optimizer assumes more staff never makes a target harder to meet.
+ */
+public interface StaffingTarget {
+
+    /** @return true if the finished run {@code run} meets the target */
+    boolean isMet(SimulationEngine run);
+
+    /** At most {@code passengers} missed passengers over all flights (0 = nobody misses a flight). */
+    static StaffingTarget maxMissedPassengers(int passengers) {
+        if (passengers < 0) throw new IllegalArgumentException("passengers must be >= 0");
+        return run -> {
+            PassengerStore store = run.getStore();
+            int missed = 0;
+            for (int id = 0; id < store.size(); id++) {
+                if (store.isMissed(id) && ++missed > passengers) return false;
+            }
+            return true;
+        };
+    }
+
+    /**
+     * The {@code percent} percentile (nearest rank) of the checkpoint wait is at most
+     * {@code minutes}. The wait runs from joining a checkpoint line to being served;
+     * passengers never served wait until they missed their flight or the run ended.
+     */
+    static StaffingTarget checkpointWaitPercentile(double percent, int minutes) {
+        if (percent < 0 || percent > 100) throw new IllegalArgumentException("percent must be in [0, 100]");
+        return run -> {
+            PassengerStore store = run.getStore();
+            int[] waits = new int[store.size()];
+            int n = 0;
+            for (int id = 0; id < store.size(); id++) {
+                int entered = store.getCheckpointEntryMinute(id);
+                if (entered <= 0) continue;   // never joined a checkpoint line
+                int served = store.getCheckpointCompletionMinute(id);
+                if (served <= 0) served = store.isMissed(id) && store.getMissedMinute(id) >= 0
+                        ? store.getMissedMinute(id) : run.getTotalIntervals();
+                waits[n++] = Math.max(0, served - entered);
+            }
+            if (n == 0) return true;
+            Arrays.sort(waits, 0, n);
+            int rank = (int) Math.ceil(percent / 100.0 * n);
+            return waits[Math.max(0, Math.min(n - 1, rank - 1))] <= minutes;
+        };
+    }
+
+    /** Both targets met. */
+    default StaffingTarget and(StaffingTarget other) {
+        return run -> isMet(run) && other.isMet(run);
+    }
+}
@@ -0,0 +1,30 @@
+package sim.service;
+
+/**
+ * Configuration input a {@link ParameterSweep} axis varies.
+ */
+public enum SweepParameter {
+    PERCENT_IN_PERSON("Percent in person", false),
+    CHECKPOINTS("Checkpoints", true),
+    CHECKPOINT_RATE("Checkpoint rate (/h)", false),
+    TICKET_COUNTERS("Ticket counters", true),
+    TRANSIT_DELAY("Transit delay (min)", true),
+    /** Walk time from the checkpoints to every hold room (replaces each room's own). */
+    HOLD_DELAY("Hold delay (min)", true);
+
+    private final String label;
+    private final boolean integer;
+
+    SweepParameter(String label, boolean integer) {
+        this.label = label;
+        this.integer = integer;
+    }
+
+    public String getLabel() { return label; }
+
+    /** @return true if values are whole numbers (rounded when the grid is expanded) */
+    public boolean isInteger() { return integer; }
+
+    @Override
+    public String toString() { return label; }
+}
@@ -0,0 +1,143 @@
+package sim.service;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timing wheel of passenger ids, keyed by the minute they are due.
+ *
+ * Slot = dueMinute % slots. With slots > longest delay, a slot only ever holds
+ * ids for a single due minute (every minute is drained before the clock moves on),
+ * so scheduling and draining are O(1) with no boxing. Slot buffers are reused
+ * after draining; the wheel grows itself if a longer delay shows up.
+ */
+public class TimingWheel {
+    private static final int INITIAL_SLOT_CAPACITY = 8;
+
+    private int[][] buffers;
+    private int[] counts;
+    private int[] slotMinute;   // due minute held by each non-empty slot
+
+    /** @param maxDelay longest delay (in minutes) that will be scheduled */
+    public TimingWheel(int maxDelay) {
+        allocate(Math.max(1, maxDelay + 1));
+    }
+
+    /** Copy constructor (flat per-slot array copies, used by snapshots) */
+    public TimingWheel(TimingWheel other) {
+        int n = other.buffers.length;
+        buffers = new int[n][];
+        counts = Arrays.copyOf(other.counts, n);
+        slotMinute = Arrays.copyOf(other.slotMinute, n);
+        for (int i = 0; i < n; i++) {
+            buffers[i] = (counts[i] == 0) ? null : Arrays.copyOf(other.buffers[i], counts[i]);
+        }
+    }
+
+    // ============================
+    // Scheduling
+    // ============================
+
+    public void schedule(int dueMinute, int id) {
+        int slot = slotOf(dueMinute);
+        if (counts[slot] > 0 && slotMinute[slot] != dueMinute) {
+            // delay longer than the wheel: widen it to cover every pending minute
+            grow(dueMinute);
+            slot = slotOf(dueMinute);
+        }
+        append(slot, dueMinute, id);
+    }
+
+    /** @return number of ids due at {@code minute} */
+    public int dueCount(int minute) {
+        int slot = slotOf(minute);
+        return (counts[slot] > 0 && slotMinute[slot] == minute) ? counts[slot] : 0;
+    }
+
+    /** @return the i-th id due at {@code minute} (scheduling order) */
+    public int dueId(int minute, int i) {
+        return buffers[slotOf(minute)][i];
+    }
+
+    /** Empties the slot of {@code minute}; its buffer is kept for reuse. */
+    public void clearDue(int minute) {
+        int slot = slotOf(minute);
+        if (slotMinute[slot] == minute) counts[slot] = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    /** @return earliest minute with ids due, or Integer.MAX_VALUE if nothing is scheduled */
+    public int nextDueMinute() {
+        int next = Integer.MAX_VALUE;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) next = Math.min(next, slotMinute[i]);
+        }
+        return next;
+    }
+
+    /** @return number of scheduled ids over all due minutes */
+    public int size() {
+        int n = 0;
+        for (int c : counts) n += c;
+        return n;
+    }
+
+    /** Replace the contents with a copy of {@code source} (used by snapshot restore). */
+    public void copyFrom(TimingWheel source) {
+        int n = source.buffers.length;
+        if (buffers.length != n) allocate(n);
+        for (int i = 0; i < n; i++) {
+            int c = source.counts[i];
+            counts[i] = c;
+            slotMinute[i] = source.slotMinute[i];
+            if (c == 0) continue;
+            if (buffers[i] == null || buffers[i].length < c) buffers[i] = new int[Math.max(c, INITIAL_SLOT_CAPACITY)];
+            System.arraycopy(source.buffers[i], 0, buffers[i], 0, c);
+        }
+    }
+
+    // ============================
+    // Internals
+    // ============================
+
+    private int slotOf(int minute) {
+        return Math.floorMod(minute, buffers.length);
+    }
+
+    private void append(int slot, int dueMinute, int id) {
+        int[] buf = buffers[slot];
+        if (buf == null) {
+            buf = buffers[slot] = new int[INITIAL_SLOT_CAPACITY];
+        } else if (counts[slot] == buf.length) {
+            buf = buffers[slot] = Arrays.copyOf(buf, buf.length * 2);
+        }
+        buf[counts[slot]++] = id;
+        slotMinute[slot] = dueMinute;
+    }
+
+    private void allocate(int slots) {
+        buffers = new int[slots][];
+        counts = new int[slots];
+        slotMinute = new int[slots];
+    }
+
+    private void grow(int dueMinute) {
+        int[][] oldBuffers = buffers;
+        int[] oldCounts = counts;
+        int[] oldMinutes = slotMinute;
+
+        int lo = dueMinute, hi = dueMinute;
+        for (int i = 0; i < oldBuffers.length; i++) {
+            if (oldCounts[i] == 0) continue;
+            lo = Math.min(lo, oldMinutes[i]);
+            hi = Math.max(hi, oldMinutes[i]);
+        }
+
+        allocate(Math.max(hi - lo + 1, oldBuffers.length * 2));
+        for (int i = 0; i < oldBuffers.length; i++) {
+            for (int k = 0; k < oldCounts[i]; k++) append(slotOf(oldMinutes[i]), oldMinutes[i], oldBuffers[i][k]);
+        }
+    }
+}
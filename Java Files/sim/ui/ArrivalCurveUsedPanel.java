@@ -1,18 +1,17 @@
 package sim.ui;
 
 import sim.model.Flight;
-import sim.service.SimulationEngine;
+import sim.service.FrameContext;
 
 import javax.swing.*;
 import java.awt.*;
-import java.lang.reflect.Method;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Map;
 
 /**
- * Read-only viewer of the ACTUAL per-minute arrival curve currently inside SimulationEngine.
- * - Pulls data from engine.getMinuteArrivalsMap()
+ * Read-only viewer of the ACTUAL per-minute arrival curve the run used.
+ * - Pulls data from the run's FrameContext (a copy of engine.getMinuteArrivalsMap())
  * - Lets user select a flight
  * - Draws the curve in minutes-before-departure space
  * - Highlights the currently viewed interval (timeline scrub or current interval)
@@ -25,7 +24,7 @@ public class ArrivalCurveUsedPanel extends JPanel {
     private static final int PAD_T = 22;
     private static final int PAD_B = 42;
 
-    private final SimulationEngine engine;
+    private final FrameContext context;
 
     private final JComboBox<Flight> flightBox = new JComboBox<>();
     private final JLabel infoLabel = new JLabel(" ");
@@ -34,14 +33,9 @@ public class ArrivalCurveUsedPanel extends JPanel {
 
     private final LocalTime globalStart; // derived the same way as engine uses
 
-    public ArrivalCurveUsedPanel(SimulationEngine engine) {
-        this.engine = engine;
-
-        LocalTime firstDep = engine.getFlights().stream()
-                .map(Flight::getDepartureTime)
-                .min(LocalTime::compareTo)
-                .orElse(LocalTime.MIDNIGHT);
-        this.globalStart = firstDep.minusMinutes(engine.getArrivalSpan());
+    public ArrivalCurveUsedPanel(FrameContext context) {
+        this.context = context;
+        this.globalStart = context.getStartTime();
 
         setLayout(new BorderLayout(8, 6));
         setBackground(Color.WHITE);
@@ -63,9 +57,9 @@ public class ArrivalCurveUsedPanel extends JPanel {
             }
         });
 
-        for (Flight f : engine.getFlights()) flightBox.addItem(f);
+        for (Flight f : context.getFlights()) flightBox.addItem(f);
 
-        flightBox.addActionListener(e -> repaint());
+        flightBox.addActionListener(e -> updateInfoLabel());
 
         top.add(flightBox);
 
@@ -76,7 +70,7 @@ public class ArrivalCurveUsedPanel extends JPanel {
 
         setPreferredSize(new Dimension(900, 240));
 
-        syncWithEngine();
+        updateInfoLabel();
     }
 
     /** Call this when the timeline scrubber is moving or after a rewind/jump. */
@@ -85,15 +79,15 @@ public class ArrivalCurveUsedPanel extends JPanel {
         repaint();
     }
 
-    /** Call this after engine advances (or after goToInterval) to refresh labels. */
-    public void syncWithEngine() {
-        int arrivalSpan = engine.getArrivalSpan();
+    /** Refreshes the label for the selected flight; the curves are fixed for the run. */
+    private void updateInfoLabel() {
+        int arrivalSpan = context.getArrivalSpan();
 
         // Derive boarding close from data if possible:
         // close = arrivalSpan - perMin.length (typically 20)
         int close = 20;
         Flight f = (Flight) flightBox.getSelectedItem();
-        Map<Flight, int[]> m = safeGetMinuteArrivalsMap();
+        Map<Flight, int[]> m = context.getMinuteArrivals();
         if (f != null && m != null) {
             int[] arr = m.get(f);
             if (arr != null && arr.length > 0) {
@@ -101,36 +95,12 @@ public class ArrivalCurveUsedPanel extends JPanel {
             }
         }
 
-        // Best-effort display of curve mode (via reflection, so this file compiles even if method name differs)
-        String mode = tryGetCurveModeString();
+        String mode = context.isLegacyArrivalCurve() ? "mode=LEGACY" : "mode=EDITED";
 
         infoLabel.setText("arrivalSpan=" + arrivalSpan + "  close≈" + close + "  " + mode);
         repaint();
     }
 
-    private Map<Flight, int[]> safeGetMinuteArrivalsMap() {
-        try {
-            return engine.getMinuteArrivalsMap();
-        } catch (Exception ex) {
-            return null;
-        }
-    }
-
-    private String tryGetCurveModeString() {
-        // If your engine has getArrivalCurveConfigCopy() returning ArrivalCurveConfig, we’ll read legacyMode from it.
-        try {
-            Method m = engine.getClass().getMethod("getArrivalCurveConfigCopy");
-            Object cfg = m.invoke(engine);
-            if (cfg != null) {
-                Method isLegacy = cfg.getClass().getMethod("isLegacyMode");
-                Object out = isLegacy.invoke(cfg);
-                boolean legacy = (out instanceof Boolean) && (Boolean) out;
-                return legacy ? "mode=LEGACY" : "mode=EDITED";
-            }
-        } catch (Exception ignored) { }
-        return "mode=(unknown)";
-    }
-
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -156,10 +126,10 @@ public class ArrivalCurveUsedPanel extends JPanel {
             return;
         }
 
-        Map<Flight, int[]> map = safeGetMinuteArrivalsMap();
+        Map<Flight, int[]> map = context.getMinuteArrivals();
         int[] perMin = (map == null) ? null : map.get(f);
 
-        int arrivalSpan = engine.getArrivalSpan();
+        int arrivalSpan = context.getArrivalSpan();
         if (perMin == null) perMin = new int[0];
 
         // Derive boarding close from array length (typically 20)
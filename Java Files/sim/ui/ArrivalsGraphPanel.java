@@ -1,33 +1,38 @@
 package sim.ui;
 
-import sim.service.SimulationEngine;
+import sim.service.FrameContext;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
 
 public class ArrivalsGraphPanel extends JPanel {
-    private final SimulationEngine engine;
+    private final FrameContext context;
 
     private int viewedInterval = 0;
+    private int totalIntervals = 0;
     private int maxComputed = 0;
+    private int currentInterval = 0;
 
     private static final int PAD_L = 50;
     private static final int PAD_R = 20;
     private static final int PAD_T = 20;
     private static final int PAD_B = 40;
 
-    public ArrivalsGraphPanel(SimulationEngine engine) {
-        this.engine = engine;
+    public ArrivalsGraphPanel(IntervalFrame frame) {
+        this.context = frame.getContext();
         setBackground(Color.WHITE);
         setPreferredSize(new Dimension(800, 260));
-        syncWithEngine();
+        setFrame(frame);
     }
 
-    public void syncWithEngine() {
-        if (engine == null) return;
-        maxComputed = Math.max(0, engine.getMaxComputedInterval());
+    /** Moves the current-interval marker and the computed range to {@code frame}. */
+    public void setFrame(IntervalFrame frame) {
+        currentInterval = Math.max(0, frame.getInterval());
+        maxComputed = Math.max(0, frame.getMaxComputedInterval());
+        totalIntervals = frame.getTotalIntervals();
         // keep marker sensible
-        viewedInterval = clamp(viewedInterval, 0, Math.max(maxComputed, engine.getTotalIntervals()));
+        viewedInterval = clamp(viewedInterval, 0, Math.max(maxComputed, totalIntervals));
         repaint();
     }
 
@@ -39,7 +44,6 @@ public class ArrivalsGraphPanel extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (engine == null) return;
 
         int w = getWidth();
         int h = getHeight();
@@ -59,7 +63,7 @@ public class ArrivalsGraphPanel extends JPanel {
 
         // title + dynamic span label
         g2.setColor(Color.DARK_GRAY);
-        g2.drawString("Arrivals per Interval (arrivalSpan=" + engine.getArrivalSpan() + " min, interval=" + engine.getInterval() + " min)",
+        g2.drawString("Arrivals per Interval (arrivalSpan=" + context.getArrivalSpan() + " min, interval=" + context.getInterval() + " min)",
                 plotL, 14);
 
         int n = Math.max(1, maxComputed + 1);
@@ -67,7 +71,7 @@ public class ArrivalsGraphPanel extends JPanel {
         // y max
         int yMax = 1;
         for (int i = 0; i <= maxComputed; i++) {
-            yMax = Math.max(yMax, engine.getTotalArrivalsAtInterval(i));
+            yMax = Math.max(yMax, context.getArrivalsAtInterval(i));
         }
 
         // polyline
@@ -75,7 +79,7 @@ public class ArrivalsGraphPanel extends JPanel {
         int prevX = -1, prevY = -1;
 
         for (int i = 0; i <= maxComputed; i++) {
-            int v = engine.getTotalArrivalsAtInterval(i);
+            int v = context.getArrivalsAtInterval(i);
 
             double tx = (n <= 1) ? 0.0 : (i / (double) (n - 1));
             int x = plotL + (int) Math.round(tx * (plotR - plotL));
@@ -95,7 +99,7 @@ public class ArrivalsGraphPanel extends JPanel {
         g2.drawLine(vx, plotT, vx, plotB);
 
         // current interval marker (red)
-        int ci = clamp(engine.getCurrentInterval(), 0, Math.max(maxComputed, 0));
+        int ci = clamp(currentInterval, 0, Math.max(maxComputed, 0));
         int cx = plotL + (int) Math.round(((n <= 1) ? 0.0 : (ci / (double) (n - 1))) * (plotR - plotL));
         g2.setColor(new Color(220, 80, 80));
         g2.drawLine(cx, plotT, cx, plotB);
@@ -104,7 +108,7 @@ public class ArrivalsGraphPanel extends JPanel {
         g2.setColor(Color.DARK_GRAY);
         g2.drawString("0", plotL - 6, plotB + 18);
         g2.drawString(String.valueOf(maxComputed), plotR - 10, plotB + 18);
-        g2.drawString("Viewed=" + viewedInterval + "   Current=" + engine.getCurrentInterval(),
+        g2.drawString("Viewed=" + viewedInterval + "   Current=" + currentInterval,
                 plotL, h - 10);
 
         g2.dispose();
@@ -2,7 +2,7 @@ package sim.ui;
 
 import sim.model.Flight;
 import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,30 +13,30 @@ import java.util.List;
  * Panel displaying checkpoint lines with scrollable grids.
  */
 public class CheckpointLinesPanel extends JPanel {
-    private final SimulationEngine engine;
     private final int[] checkpointQueuedOffsets;
     private final int[] checkpointServedOffsets;
     private final List<Rectangle> clickableAreas;
     private final List<Passenger> clickablePassengers;
     private final List<Rectangle> counterAreas;
     private final Flight filterFlight;
+    private IntervalFrame frame;
 
-    public CheckpointLinesPanel(SimulationEngine engine,
+    public CheckpointLinesPanel(IntervalFrame frame,
                                 List<Rectangle> clickableAreas,
                                 List<Passenger> clickablePassengers,
                                 Flight filterFlight) {
-        this.engine = engine;
+        this.frame = frame;
         this.clickableAreas = clickableAreas;
         this.clickablePassengers = clickablePassengers;
         this.counterAreas = new ArrayList<>();            // << new list for counters
         this.filterFlight = filterFlight;
-        this.checkpointQueuedOffsets = new int[engine.getCheckpointLines().size()];
-        this.checkpointServedOffsets = new int[engine.getCheckpointLines().size()];
+        this.checkpointQueuedOffsets = new int[frame.getQueuedCheckpoint().size()];
+        this.checkpointServedOffsets = new int[frame.getQueuedCheckpoint().size()];
         setFocusable(true);
 
         // install shared scroll handler
         ScrollMouseHandler handler = new ScrollMouseHandler.CheckpointScrollHandler(
-            engine, clickableAreas, clickablePassengers,
+            () -> this.frame, clickableAreas, clickablePassengers,
             checkpointQueuedOffsets, checkpointServedOffsets,
             filterFlight,
             counterAreas
@@ -45,6 +45,12 @@ public class CheckpointLinesPanel extends JPanel {
         addMouseMotionListener(handler);
     }
 
+    /** Switches the panel to another interval. */
+    public void setFrame(IntervalFrame frame) {
+        this.frame = frame;
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -52,7 +58,7 @@ public class CheckpointLinesPanel extends JPanel {
         GridRenderer.renderCheckpointLines(
             this,
             g,
-            engine,
+            frame,
             checkpointQueuedOffsets,
             checkpointServedOffsets,
             clickableAreas,
@@ -63,18 +69,11 @@ public class CheckpointLinesPanel extends JPanel {
     }
 
     /**
-     * @return the maximum size that checkpoint line #lineIdx ever reached
-     *         across all history intervals.
+     * @return the maximum size that checkpoint line #lineIdx reached
+     *         across the intervals computed when the frame was captured.
      */
     public int getMaxQueuedForLine(int lineIdx) {
-        int max = 0;
-        for (List<List<Passenger>> interval : engine.getHistoryQueuedCheckpoint()) {
-            int sz = interval.get(lineIdx).size();
-            if (sz > max) {
-                max = sz;
-            }
-        }
-        return max;
+        return frame.getMaxQueuedCheckpoint(lineIdx);
     }
 
     /**
@@ -84,7 +83,7 @@ public class CheckpointLinesPanel extends JPanel {
     @Override
     public Dimension getPreferredSize() {
         int width = super.getPreferredSize().width;
-        int lines = engine.getCheckpointLines().size();
+        int lines = frame.getQueuedCheckpoint().size();
         int height = 50 + lines * GridRenderer.MIN_LINE_SPACING + 50;
         return new Dimension(width, height);
     }
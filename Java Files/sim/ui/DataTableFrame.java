@@ -1,7 +1,7 @@
 package sim.ui;
 
 import sim.model.Flight;
-import sim.model.Passenger;
+import sim.service.LineCountHistory;
 import sim.service.SimulationEngine;
 
 import javax.swing.*;
@@ -22,8 +22,10 @@ public class DataTableFrame extends JFrame {
         super("Interval Data");
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
-        // Run full simulation to populate history and arrivals
-        engine.runAllIntervals();
+        // Run full simulation to populate history and arrivals (unless already complete)
+        if (engine.getMaxComputedInterval() < engine.getTotalIntervals()) {
+            engine.runAllIntervals();
+        }
 
         // Prepare time headers
         List<Flight> flights = engine.getFlights();
@@ -49,7 +51,7 @@ public class DataTableFrame extends JFrame {
         // Ticket Queue tab
         JTable ticketQueueTable = new JTable(
             new BaseHistoryTableModel(
-                engine.getHistoryQueuedTicket(),
+                engine.getQueuedTicketCounts(),
                 "Ticket Queue",
                 startTime,
                 interval,
@@ -63,7 +65,7 @@ public class DataTableFrame extends JFrame {
         // Ticket Completed tab
         JTable ticketCompletedTable = new JTable(
             new BaseHistoryTableModel(
-                engine.getHistoryServedTicket(),
+                engine.getServedTicketCounts(),
                 "Ticket Completed",
                 startTime,
                 interval,
@@ -77,7 +79,7 @@ public class DataTableFrame extends JFrame {
         // Checkpoint Queue tab
         JTable checkpointQueueTable = new JTable(
             new BaseHistoryTableModel(
-                engine.getHistoryQueuedCheckpoint(),
+                engine.getQueuedCheckpointCounts(),
                 "Checkpoint Queue",
                 startTime,
                 interval,
@@ -91,7 +93,7 @@ public class DataTableFrame extends JFrame {
         // Checkpoint Completed tab
         JTable checkpointCompletedTable = new JTable(
             new BaseHistoryTableModel(
-                engine.getHistoryServedCheckpoint(),
+                engine.getServedCheckpointCounts(),
                 "Checkpoint Completed",
                 startTime,
                 interval,
@@ -248,7 +250,7 @@ public class DataTableFrame extends JFrame {
         private final Object[][] data;
 
         public BaseHistoryTableModel(
-            List<List<List<Passenger>>> history,
+            LineCountHistory history,
             String label,
             LocalTime startTime,
             int interval,
@@ -265,7 +267,7 @@ public class DataTableFrame extends JFrame {
                     startTime.plusMinutes((long)(i + 1) * interval).format(fmt);
             }
 
-            int lines = history.isEmpty() ? 0 : history.get(0).size();
+            int lines = history.lineCount();
             data = new Object[lines + 1][ti + 1];
 
             // first column labels
@@ -278,7 +280,7 @@ public class DataTableFrame extends JFrame {
             for (int c = 0; c < ti; c++) {
                 int sum = 0;
                 for (int r = 1; r <= lines; r++) {
-                    int count = history.get(c).get(r - 1).size();
+                    int count = history.get(c, r - 1);
                     data[r][c + 1] = count;
                     sum += count;
                 }
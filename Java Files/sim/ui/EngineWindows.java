@@ -0,0 +1,37 @@
+package sim.ui;
+
+import sim.service.SimulationEngine;
+
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Closes an engine (releasing its history spill files) once the last window that
+ * reads it is closed. EDT only.
+ */
+final class EngineWindows {
+    private static final Map<SimulationEngine, Integer> openWindows = new IdentityHashMap<>();
+
+    private EngineWindows() {}
+
+    /** Counts {@code window} as a reader of {@code engine} until it is closed. */
+    static void register(Window window, SimulationEngine engine) {
+        openWindows.merge(engine, 1, Integer::sum);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                window.removeWindowListener(this);
+                int left = openWindows.get(engine) - 1;
+                if (left > 0) {
+                    openWindows.put(engine, left);
+                } else {
+                    openWindows.remove(engine);
+                    engine.close();
+                }
+            }
+        });
+    }
+}
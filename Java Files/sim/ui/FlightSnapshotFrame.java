@@ -2,20 +2,16 @@ package sim.ui;
 
 import sim.model.Flight;
 import sim.model.Passenger;
+import sim.service.IntervalFrame;
 import sim.service.SimulationEngine;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
 
 public class FlightSnapshotFrame extends JFrame {
-    private final SimulationEngine engine;
-    private final int step;
-    private final int originalInterval;
+    private final IntervalFrame view;
 
     /**
      * Legacy constructor: shows snapshot at the most recently closed interval.
@@ -26,49 +22,20 @@ public class FlightSnapshotFrame extends JFrame {
 
     /**
      * New full constructor: show snapshot at a specific history step.
+     * The step is captured once as an immutable view, so the engine is left alone,
+     * any number of snapshot windows can show different steps, and the window does
+     * not read the engine afterwards.
      * @param engine the simulation engine (must have runAllIntervals() beforehand)
      * @param flight the flight to filter by
      * @param step   the interval index into the history lists
      */
     public FlightSnapshotFrame(SimulationEngine engine, Flight flight, int step) {
         super("Snapshot — Flight " + flight.getFlightNumber());
-        this.engine = engine;
-        this.step   = Math.max(0, step);
-        this.originalInterval = engine.getCurrentInterval();
-
-        // Bump engine.currentInterval so that the panels pick up the correct history step.
-        // (Panels typically render step = engine.getCurrentInterval() - 1)
-        try {
-            Field curr = SimulationEngine.class.getDeclaredField("currentInterval");
-            curr.setAccessible(true);
-            curr.setInt(engine, this.step + 1);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        // IMPORTANT: restore the engine interval when this window closes
-        addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowClosed(WindowEvent e) {
-                restoreInterval();
-            }
-            @Override
-            public void windowClosing(WindowEvent e) {
-                restoreInterval();
-            }
-        });
+        this.view = engine.viewAt(Math.max(0, step));
 
         initUI(flight);
     }
 
-    private void restoreInterval() {
-        try {
-            Field curr = SimulationEngine.class.getDeclaredField("currentInterval");
-            curr.setAccessible(true);
-            curr.setInt(engine, originalInterval);
-        } catch (Exception ignored) { }
-    }
-
     private void initUI(Flight flight) {
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout(5, 5));
@@ -85,7 +52,7 @@ public class FlightSnapshotFrame extends JFrame {
         // --- Ticket panel ---
         List<Rectangle> areas1 = new ArrayList<>();
         List<Passenger> pass1  = new ArrayList<>();
-        TicketLinesPanel ticketPanel = new TicketLinesPanel(engine, areas1, pass1, flight);
+        TicketLinesPanel ticketPanel = new TicketLinesPanel(view, areas1, pass1, flight);
         ticketPanel.setPreferredSize(
                 new Dimension(panelWidth, ticketPanel.getPreferredSize().height)
         );
@@ -98,7 +65,7 @@ public class FlightSnapshotFrame extends JFrame {
         // --- Checkpoint panel ---
         List<Rectangle> areas2 = new ArrayList<>();
         List<Passenger> pass2  = new ArrayList<>();
-        CheckpointLinesPanel checkpointPanel = new CheckpointLinesPanel(engine, areas2, pass2, flight);
+        CheckpointLinesPanel checkpointPanel = new CheckpointLinesPanel(view, areas2, pass2, flight);
         checkpointPanel.setPreferredSize(
                 new Dimension(panelWidth, checkpointPanel.getPreferredSize().height)
         );
@@ -109,7 +76,7 @@ public class FlightSnapshotFrame extends JFrame {
         );
 
         // --- Hold-rooms panel ---
-        HoldRoomsPanel holdPanel = new HoldRoomsPanel(engine, flight);
+        HoldRoomsPanel holdPanel = new HoldRoomsPanel(view, flight);
         JScrollPane holdScroll = new JScrollPane(
                 holdPanel,
                 JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED,
@@ -1,8 +1,9 @@
 package sim.ui;
 
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.service.IntervalFrame;
 
 import javax.swing.JComponent;
 import javax.swing.JViewport;
@@ -27,7 +28,7 @@ public class GridRenderer {
      */
     public static void renderTicketLines(JComponent panel,
                                          Graphics g,
-                                         SimulationEngine engine,
+                                         IntervalFrame frame,
                                          int[] queuedOffsets,
                                          int[] servedOffsets,
                                          List<Rectangle> clickableAreas,
@@ -49,10 +50,10 @@ public class GridRenderer {
         int gridWidth = COLS * cellW;
         int trackH = cellW / 2;
 
-        int step = engine.getCurrentInterval() - 1;
+        int step = frame.getStep();
         if (step < 0) return;
 
-        int lines = engine.getTicketLines().size();
+        int lines = frame.getQueuedTicket().size();
         int rawSpace = lines > 1 ? (bottom - top) / (lines - 1) : 0;
         int space = Math.max(rawSpace, MIN_LINE_SPACING);
 
@@ -63,14 +64,14 @@ public class GridRenderer {
             g.setColor(Color.BLACK);
             g.drawRect(boxX, boxY, boxSize, boxSize);
             counterAreas.add(new Rectangle(boxX, boxY, boxSize, boxSize));
-            String label = String.valueOf(engine.getCounterConfigs().get(i).getId());
+            String label = String.valueOf(frame.getContext().getCounterConfigs().get(i).getId());
             FontMetrics fm = g.getFontMetrics();
             int tw = fm.stringWidth(label), th = fm.getAscent();
             int tx = boxX + (boxSize - tw) / 2, ty = boxY + (boxSize + th) / 2;
             g.drawString(label, tx, ty);
 
             g.setColor(Color.YELLOW);
-            List<Passenger> fullQ = engine.getHistoryQueuedTicket().get(step).get(i);
+            List<Passenger> fullQ = frame.getQueuedTicket().get(i);
             List<Passenger> queued = filterFlight == null
                     ? fullQ
                     : fullQ.stream().filter(p -> p.getFlight() == filterFlight).collect(Collectors.toList());
@@ -94,16 +95,10 @@ public class GridRenderer {
             }
 
             g.setColor(Color.GREEN);
-            List<Passenger> fullS;
-            if (filterFlight == null) {
-                fullS = engine.getVisibleCompletedTicketLine(i);
-            } else {
-                int delay = engine.getTransitDelayMinutes();
-                fullS = engine.getHistoryServedTicket().get(step).get(i).stream()
-                        .filter(p -> p.getFlight() == filterFlight)
-                        .filter(p -> p.getTicketCompletionMinute() + delay > step)
-                        .collect(Collectors.toList());
-            }
+            List<Passenger> fullVisible = frame.getVisibleServedTicket().get(i);
+            List<Passenger> fullS = filterFlight == null
+                    ? fullVisible
+                    : fullVisible.stream().filter(p -> p.getFlight() == filterFlight).collect(Collectors.toList());
             int startXs = boxX + boxSize + (COLS - 1) * cellW;
 
             int fullColsS = (fullS.size() + ROWS - 1) / ROWS;
@@ -131,7 +126,7 @@ public class GridRenderer {
      */
     public static void renderCheckpointLines(JComponent panel,
                                              Graphics g,
-                                             SimulationEngine engine,
+                                             IntervalFrame frame,
                                              int[] queuedOffsets,
                                              int[] servedOffsets,
                                              List<Rectangle> clickableAreas,
@@ -153,10 +148,10 @@ public class GridRenderer {
         int gridW = COLS * cellW;
         int trackH = cellW / 2;
 
-        int step = engine.getCurrentInterval() - 1;
+        int step = frame.getStep();
         if (step < 0) return;
 
-        int lines = engine.getCheckpointLines().size();
+        int lines = frame.getQueuedCheckpoint().size();
         int rawSpace = lines > 1 ? (bottom - top) / (lines - 1) : 0;
         int space = Math.max(rawSpace, MIN_LINE_SPACING);
 
@@ -176,7 +171,7 @@ public class GridRenderer {
             g.drawString(lbl, x2, y2);
 
             g.setColor(Color.YELLOW);
-            List<Passenger> fullQC = engine.getHistoryQueuedCheckpoint().get(step).get(i);
+            List<Passenger> fullQC = frame.getQueuedCheckpoint().get(i);
             List<Passenger> queuedC = filterFlight == null
                     ? fullQC
                     : fullQC.stream().filter(p -> p.getFlight() == filterFlight).collect(Collectors.toList());
@@ -202,7 +197,7 @@ public class GridRenderer {
             }
 
             g.setColor(Color.GREEN);
-            List<Passenger> fullSC = engine.getHistoryServedCheckpoint().get(step).get(i);
+            List<Passenger> fullSC = frame.getServedCheckpoint().get(i);
             List<Passenger> servedC = filterFlight == null
                     ? fullSC
                     : fullSC.stream().filter(p -> p.getFlight() == filterFlight).collect(Collectors.toList());
@@ -278,19 +273,17 @@ public class GridRenderer {
      */
     public static void renderHoldRooms(JComponent panel,
                                        Graphics g,
-                                       SimulationEngine engine,
+                                       IntervalFrame frame,
                                        List<Rectangle> clickableAreas,
                                        List<Passenger> clickablePassengers,
                                        Flight filterFlight) {
         clickableAreas.clear();
         clickablePassengers.clear();
 
-        int step = engine.getCurrentInterval() - 1;
-        if (step < 0) return;
-        if (engine.getHistoryHoldRooms() == null || step >= engine.getHistoryHoldRooms().size()) return;
+        if (frame.getStep() < 0) return;
 
-        List<List<Passenger>> snapshot = engine.getHistoryHoldRooms().get(step);
-        List<HoldRoomConfig> configs = engine.getHoldRoomConfigs();
+        List<List<Passenger>> snapshot = frame.getHoldRooms();
+        List<HoldRoomConfig> configs = frame.getContext().getHoldRoomConfigs();
 
         int roomCount = Math.min(snapshot.size(), configs.size());
         if (roomCount <= 0) return;
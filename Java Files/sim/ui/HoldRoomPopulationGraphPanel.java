@@ -1,7 +1,8 @@
 package sim.ui;
 
-import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.model.HoldRoomConfig;
+import sim.service.GraphSeries;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,10 +15,11 @@ import java.util.List;
  *
  * X-axis uses the same interval indexing pattern as the rest of your UI:
  *  - interval 0 = initial state (before any simulateInterval ran) -> 0 passengers
- *  - interval i>=1 uses historyHoldRooms.get(i-1)
+ *  - interval i>=1 uses the hold-room count history at i-1
  */
 public class HoldRoomPopulationGraphPanel extends JPanel {
-    private final SimulationEngine engine;
+    private final List<HoldRoomConfig> holdRoomConfigs;
+    private GraphSeries series;   // counts of the last frame shown
 
     private final JPanel buttonListPanel;
     private final JScrollPane buttonScroll;
@@ -45,9 +47,13 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
     private final JLabel maxPeopleValueLabel;
     private final JLabel areaValueLabel;
 
-    public HoldRoomPopulationGraphPanel(SimulationEngine engine) {
+    public HoldRoomPopulationGraphPanel(IntervalFrame frame) {
         super(new BorderLayout(8, 8));
-        this.engine = engine;
+        this.holdRoomConfigs = frame.getContext().getHoldRoomConfigs();
+        this.series = frame.getGraphSeries();
+        this.viewedInterval = frame.getInterval();
+        this.maxComputedInterval = frame.getMaxComputedInterval();
+        this.totalIntervals = frame.getTotalIntervals();
 
         buttonListPanel = new JPanel();
         buttonListPanel.setLayout(new BoxLayout(buttonListPanel, BoxLayout.Y_AXIS));
@@ -111,11 +117,20 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
         add(graphAndStats, BorderLayout.CENTER);
 
         rebuildButtonsIfNeeded();
-        syncWithEngine();
+        refresh();
     }
 
     // --------- API mirroring the other graph tabs ----------
 
+    /** Shows {@code frame}: its counts, computed range and interval. */
+    public void setFrame(IntervalFrame frame) {
+        this.series = frame.getGraphSeries();
+        this.maxComputedInterval = Math.max(0, frame.getMaxComputedInterval());
+        this.totalIntervals = Math.max(0, frame.getTotalIntervals());
+        this.viewedInterval = Math.max(0, frame.getInterval());
+        refresh();
+    }
+
     public void setMaxComputedInterval(int maxComputedInterval) {
         this.maxComputedInterval = Math.max(0, maxComputedInterval);
     }
@@ -135,30 +150,27 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
     }
 
     /**
-     * Call each refresh tick (like arrivalsGraphPanel.syncWithEngine()).
-     * Rebuilds series from engine history and updates the graph.
+     * Rebuilds the selected room's series from the last frame's counts and updates the graph.
      */
-    public void syncWithEngine() {
-        rebuildButtonsIfNeeded();
-
-        List<Integer> series = buildRoomSeries(selectedRoomIndex);
+    public void refresh() {
+        List<Integer> data = buildRoomSeries(selectedRoomIndex);
         String roomLabel = getRoomLabel(selectedRoomIndex);
 
         // NEW: title is handled by JLabel above the graph (no overlap)
         graphTitleLabel.setText(roomLabel + " — population per interval");
 
-        graphPanel.setData(series, maxComputedInterval, totalIntervals);
+        graphPanel.setData(data, maxComputedInterval, totalIntervals);
         graphPanel.setMarkerInterval(viewedInterval);
         graphPanel.repaint();
 
         // NEW: summary stats (only once simulation is done)
-        updateStats(series);
+        updateStats(data);
     }
 
     // --------- Internal helpers ----------
 
     private void rebuildButtonsIfNeeded() {
-        int roomCount = (engine.getHoldRoomConfigs() == null) ? 0 : engine.getHoldRoomConfigs().size();
+        int roomCount = (holdRoomConfigs == null) ? 0 : holdRoomConfigs.size();
         if (roomCount == lastRoomCount) return;
 
         lastRoomCount = roomCount;
@@ -193,7 +205,7 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
 
             btn.addActionListener(e -> {
                 selectedRoomIndex = idx;
-                syncWithEngine();
+                refresh();
             });
 
             group.add(btn);
@@ -208,7 +220,7 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
     private String getRoomLabel(int roomIdx) {
         // Best-effort label: prefer config id if present, else "Hold Room N"
         try {
-            HoldRoomConfig cfg = engine.getHoldRoomConfigs().get(roomIdx);
+            HoldRoomConfig cfg = holdRoomConfigs.get(roomIdx);
             if (cfg != null) {
                 try {
                     int id = cfg.getId();
@@ -222,31 +234,24 @@ public class HoldRoomPopulationGraphPanel extends JPanel {
     /**
      * Build a series where index = interval.
      *  - interval 0 => 0
-     *  - interval i>=1 => historyHoldRooms.get(i-1).get(roomIdx).size()
+     *  - interval i>=1 => holdRoomCounts.get(i-1, roomIdx)
      *
      * We build up to maxComputedInterval (not totalIntervals), since that's what's available.
      */
     private List<Integer> buildRoomSeries(int roomIdx) {
-        int maxX = Math.max(0, maxComputedInterval);
+        // only what the frame's series holds (it may lag a frame built off the engine thread)
+        int maxX = Math.max(0, Math.min(maxComputedInterval, series.size() - 1));
 
         List<Integer> out = new ArrayList<>(maxX + 1);
 
         // interval 0 = initial state (empty rooms)
         out.add(0);
 
-        List<List<List<Passenger>>> hist = engine.getHistoryHoldRooms();
-        int histSize = (hist == null) ? 0 : hist.size();
-
         for (int interval = 1; interval <= maxX; interval++) {
-            int step = interval - 1; // history index
             int count = 0;
 
-            if (step >= 0 && step < histSize) {
-                List<List<Passenger>> roomsAtStep = hist.get(step);
-                if (roomsAtStep != null && roomIdx >= 0 && roomIdx < roomsAtStep.size()) {
-                    List<Passenger> room = roomsAtStep.get(roomIdx);
-                    count = (room == null) ? 0 : room.size();
-                }
+            if (roomIdx >= 0 && roomIdx < series.holdRoomCount()) {
+                count = series.getHoldRoom(roomIdx, interval);
             }
 
             out.add(count);
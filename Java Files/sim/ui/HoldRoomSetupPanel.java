@@ -2,6 +2,7 @@
 package sim.ui;
 
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 
 import javax.swing.*;
 import java.awt.*;
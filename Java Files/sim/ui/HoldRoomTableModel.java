@@ -1,6 +1,7 @@
 package sim.ui;
 
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 
 import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
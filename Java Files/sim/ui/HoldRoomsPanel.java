@@ -1,8 +1,9 @@
 package sim.ui;
 
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -18,23 +19,23 @@ public class HoldRoomsPanel extends JPanel {
     private static final int HOLD_BOX_SIZE = GridRenderer.HOLD_BOX_SIZE;
     private static final int HOLD_GAP      = GridRenderer.HOLD_GAP;
 
-    private final SimulationEngine engine;
     private final Flight           filterFlight;
     private final List<Rectangle>  clickableAreas;
     private final List<Passenger>  clickablePassengers;
+    private IntervalFrame          frame;
 
-    public HoldRoomsPanel(SimulationEngine engine,
+    public HoldRoomsPanel(IntervalFrame frame,
                           List<Rectangle> clickableAreas,
                           List<Passenger> clickablePassengers,
                           Flight filterFlight) {
-        this.engine              = engine;
+        this.frame               = frame;
         this.filterFlight        = filterFlight;
         this.clickableAreas      = clickableAreas;
         this.clickablePassengers = clickablePassengers;
 
         // Preferred size that matches the renderer’s "wrap into columns" behavior.
         // We pick a stable default wrap height of 3 rooms per column; scrollpane can adjust as needed.
-        int count = resolveHoldRoomCount(engine);
+        int count = resolveHoldRoomCount(frame);
         int maxRowsPreferred = 3;
         int cols = (count + maxRowsPreferred - 1) / maxRowsPreferred;
 
@@ -60,47 +61,42 @@ public class HoldRoomsPanel extends JPanel {
         });
     }
 
-    public HoldRoomsPanel(SimulationEngine engine, Flight filterFlight) {
-        this(engine, new ArrayList<>(), new ArrayList<>(), filterFlight);
+    public HoldRoomsPanel(IntervalFrame frame, Flight filterFlight) {
+        this(frame, new ArrayList<>(), new ArrayList<>(), filterFlight);
+    }
+
+    /** Switches the panel to another interval. */
+    public void setFrame(IntervalFrame frame) {
+        this.frame = frame;
+        repaint();
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         GridRenderer.renderHoldRooms(
-                this, g, engine,
+                this, g,
+                frame,
                 clickableAreas, clickablePassengers,
                 filterFlight
         );
     }
 
     /**
-     * Use engine.getHoldRoomConfigs().size() if possible,
-     * otherwise fall back to flights.size().
+     * Use the run's hold-room configs if there are any,
+     * otherwise fall back to the frame's hold-room lines.
      */
-    private static int resolveHoldRoomCount(SimulationEngine engine) {
-        if (engine == null) return 0;
-
-        try {
-            Method m = engine.getClass().getMethod("getHoldRoomConfigs");
-            Object configs = m.invoke(engine);
-            if (configs instanceof List) {
-                return ((List<?>) configs).size();
-            }
-        } catch (Exception ignored) { }
-
-        try {
-            return engine.getFlights() == null ? 0 : engine.getFlights().size();
-        } catch (Exception e) {
-            return 0;
-        }
+    private static int resolveHoldRoomCount(IntervalFrame frame) {
+        if (frame == null) return 0;
+        int configured = frame.getContext().getHoldRoomConfigs().size();
+        return configured > 0 ? configured : frame.getHoldRooms().size();
     }
 
     private void showPassengerDetails(Passenger p) {
         // compute sim start (per-flight)
         LocalTime simStart = p.getFlight()
                 .getDepartureTime()
-                .minusMinutes(engine.getArrivalSpan());
+                .minusMinutes(frame.getContext().getArrivalSpan());
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
 
         StringBuilder msg = new StringBuilder();
@@ -137,7 +133,7 @@ public class HoldRoomsPanel extends JPanel {
         if (assignedIdx >= 0) {
             msg.append("\nAssigned Hold Room Index: ").append(assignedIdx);
             try {
-                List<HoldRoomConfig> cfgs = engine.getHoldRoomConfigs();
+                List<HoldRoomConfig> cfgs = frame.getContext().getHoldRoomConfigs();
                 if (assignedIdx < cfgs.size()) {
                     HoldRoomConfig cfg = cfgs.get(assignedIdx);
                     msg.append("  (ID ").append(cfg.getId()).append(", walk ")
@@ -1,15 +1,25 @@
 package sim.ui;
 
 import sim.model.ArrivalCurveConfig;
+import sim.model.CheckpointConfig;
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
+import sim.model.TicketCounterConfig;
+import sim.service.RunArchive;
+import sim.service.RunCache;
+import sim.service.ScenarioFile;
 import sim.service.SimulationEngine;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 
 public class MainFrame extends JFrame {
@@ -23,6 +33,15 @@ public class MainFrame extends JFrame {
     private ArrivalCurveEditorPanel arrivalCurvePanel;
 
     private JButton             startSimulationButton;
+    private JButton             openRunButton;
+    private JButton             sweepButton;
+    private JButton             saveScenarioButton;
+
+    // finished runs by configuration; -Dsim.runCacheDir=<dir> also keeps them on disk
+    private final RunCache runCache = createRunCache();
+
+    // -Dsim.historySpillDir=<dir> keeps the history of new runs in memory-mapped files there
+    private final Path historySpillDirectory = createHistorySpillDirectory();
 
     public MainFrame() {
         super("Airport Setup");
@@ -57,6 +76,15 @@ setContentPane(root);
         
         startSimulationButton.addActionListener(e -> onStartSimulation());
 
+        openRunButton = new JButton("Open Run...");
+        openRunButton.addActionListener(e -> onOpenRun());
+
+        sweepButton = new JButton("Parameter Sweep...");
+        sweepButton.addActionListener(e -> onParameterSweep());
+
+        saveScenarioButton = new JButton("Save Scenario...");
+        saveScenarioButton.addActionListener(e -> onSaveScenario());
+
         add(globalInputPanel, BorderLayout.NORTH);
 
         JTabbedPane tabs = new JTabbedPane();
@@ -70,16 +98,161 @@ setContentPane(root);
 
         add(tabs, BorderLayout.CENTER);
 
-        add(startSimulationButton, BorderLayout.SOUTH);
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(startSimulationButton, BorderLayout.CENTER);
+        JPanel southButtons = new JPanel(new GridLayout(1, 3, 5, 0));
+        southButtons.add(saveScenarioButton);
+        southButtons.add(sweepButton);
+        southButtons.add(openRunButton);
+        south.add(southButtons, BorderLayout.EAST);
+        add(south, BorderLayout.SOUTH);
+    }
+
+    private static RunCache createRunCache() {
+        String dir = System.getProperty("sim.runCacheDir");
+        if (dir == null || dir.trim().isEmpty()) return new RunCache();
+        try {
+            return new RunCache(RunCache.DEFAULT_MEMORY_BUDGET, Files.createDirectories(Paths.get(dir.trim())));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new RunCache();   // memory only
+        }
+    }
+
+    private static Path createHistorySpillDirectory() {
+        String dir = System.getProperty("sim.historySpillDir");
+        if (dir == null || dir.trim().isEmpty()) return null;
+        try {
+            return Files.createDirectories(Paths.get(dir.trim()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;   // history on the heap
+        }
+    }
+
+    /** Opens a run saved from the simulation window and plays it back without simulating. */
+    private void onOpenRun() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Open Run");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            openRun(RunArchive.read(chooser.getSelectedFile().toPath()));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                    "Could not open run: " + ex.getMessage(),
+                    "Open Run",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /** Opens the data table and the simulation window on a finished run. */
+    private void openRun(SimulationEngine engine) {
+        openTable(engine);
+        engine.goToInterval(0);   // the table leaves it on the last interval
+        SimulationFrame frame = new SimulationFrame(engine);
+        EngineWindows.register(frame, engine);
+        frame.setVisible(true);
+    }
+
+    private void openTable(SimulationEngine engine) {
+        DataTableFrame table = new DataTableFrame(engine);
+        EngineWindows.register(table, engine);
+        table.setVisible(true);
     }
 
     private void onStartSimulation() {
+        try {
+            SimulationEngine engine = buildEngine();
+            if (engine == null) return;
+            if (historySpillDirectory != null) engine.setHistorySpillDirectory(historySpillDirectory);
+
+            // one computation shared by the data table, live view and summary, run off the
+            // EDT; an unchanged setup comes straight from the cache. The live view opens
+            // on the first intervals and follows the run until it is handed the engine.
+            SimulationFrame[] live = new SimulationFrame[1];
+            startSimulationButton.setEnabled(false);
+            new SimulationProgressDialog(this, engine, runCache,
+                    (running, interval) -> {
+                        if (live[0] == null) {
+                            live[0] = new SimulationFrame(running, interval);
+                            live[0].setVisible(true);
+                        } else {
+                            live[0].runProgressed(interval);
+                        }
+                    },
+                    finished -> {
+                        SimulationFrame frame = live[0];
+                        live[0] = null;
+                        if (frame == null) {
+                            openRun(finished);   // from the cache
+                            return;
+                        }
+                        openTable(finished);
+                        if (frame.isDisplayable()) {   // not closed meanwhile
+                            EngineWindows.register(frame, finished);
+                            frame.runFinished();
+                        }
+                    },
+                    () -> {
+                        startSimulationButton.setEnabled(true);
+                        if (live[0] != null) live[0].dispose();   // cancelled or failed
+                    }).start();
+
+        } catch (Exception ex) {
+            showSetupError(ex);
+        }
+    }
+
+    /** Opens a parameter sweep over the current setup. */
+    private void onParameterSweep() {
+        try {
+            SimulationEngine template = buildEngine();
+            if (template != null) new SweepFrame(template).setVisible(true);
+        } catch (Exception ex) {
+            showSetupError(ex);
+        }
+    }
+
+    /** Saves the current setup as a scenario file for the headless batch runner. */
+    private void onSaveScenario() {
+        try {
+            SimulationEngine engine = buildEngine();
+            if (engine == null) return;
+
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Save Scenario");
+            chooser.setSelectedFile(new File("setup.scenario"));
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            ScenarioFile.write(engine, chooser.getSelectedFile().toPath());
+        } catch (Exception ex) {
+            showSetupError(ex);
+        }
+    }
+
+    private void showSetupError(Exception ex) {
+        ex.printStackTrace();
+        StringWriter sw = new StringWriter();
+        ex.printStackTrace(new PrintWriter(sw));
+        JTextArea area = new JTextArea(sw.toString(), 20, 60);
+        area.setEditable(false);
+        JOptionPane.showMessageDialog(this,
+                new JScrollPane(area),
+                "Simulation Error",
+                JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * @return an engine for the setup in the tabs (not yet run), or null after
+     *         telling the user what is missing
+     */
+    private SimulationEngine buildEngine() throws Exception {
         if (flightTablePanel.getFlights().isEmpty()) {
             JOptionPane.showMessageDialog(this,
                     "Please add at least one flight before starting simulation.",
                     "No Flights Defined",
                     JOptionPane.WARNING_MESSAGE);
-            return;
+            return null;
         }
 
         List<TicketCounterConfig> counters = ticketCounterPanel.getCounters();
@@ -88,7 +261,7 @@ setContentPane(root);
                     "Please add at least one ticket counter before starting simulation.",
                     "No Counters Defined",
                     JOptionPane.WARNING_MESSAGE);
-            return;
+            return null;
         }
 
         List<CheckpointConfig> checkpoints = checkpointPanel.getCheckpoints();
@@ -97,7 +270,7 @@ setContentPane(root);
                     "Please add at least one checkpoint before starting simulation.",
                     "No Checkpoints Defined",
                     JOptionPane.WARNING_MESSAGE);
-            return;
+            return null;
         }
 
         List<HoldRoomConfig> holdRooms = holdRoomSetupPanel.getHoldRooms();
@@ -106,85 +279,52 @@ setContentPane(root);
                     "Please add at least one hold room before starting simulation.",
                     "No Hold Rooms Defined",
                     JOptionPane.WARNING_MESSAGE);
-            return;
+            return null;
         }
 
-        try {
-            double percentInPerson = globalInputPanel.getPercentInPerson();
-            if (percentInPerson < 0 || percentInPerson > 1) {
-                throw new IllegalArgumentException("Percent in person must be between 0 and 1");
-            }
+        double percentInPerson = globalInputPanel.getPercentInPerson();
+        if (percentInPerson < 0 || percentInPerson > 1) {
+            throw new IllegalArgumentException("Percent in person must be between 0 and 1");
+        }
 
-            int baseArrivalSpan  = globalInputPanel.getArrivalSpanMinutes();
-            int interval         = globalInputPanel.getIntervalMinutes();
-            int transitDelay     = globalInputPanel.getTransitDelayMinutes();
-
-            // Hold-room delay is no longer a GlobalInputPanel control.
-            // Prefer pulling it from the Hold Rooms tab if available; fallback safely.
-            int holdDelay = resolveHoldDelayMinutes();
-
-            List<Flight> flights = flightTablePanel.getFlights();
-
-            // ✅ NEW (Step 6): pull curve config from UI
-            ArrivalCurveConfig curveCfg = arrivalCurvePanel.getConfigCopy();
-            curveCfg.validateAndClamp();
-
-            // ✅ NEW (Step 6): effective arrival span
-            // - Legacy mode: keep behavior SAME (2h default) unless user already changed baseArrivalSpan
-            // - Edited mode: allow earlier than base via windowStart up to 240
-            int curveStart = curveCfg.isLegacyMode()
-                    ? ArrivalCurveConfig.DEFAULT_WINDOW_START
-                    : curveCfg.getWindowStartMinutesBeforeDeparture();
-
-            int effectiveArrivalSpan = Math.max(baseArrivalSpan, curveStart);
-
-            // build the pre-run engine for the data table (populate its history)
-            SimulationEngine tableEngine = createEngine(
-                    percentInPerson,
-                    counters,
-                    checkpoints,
-                    effectiveArrivalSpan,
-                    interval,
-                    transitDelay,
-                    holdDelay,
-                    flights,
-                    holdRooms
-            );
-
-            // ✅ NEW (Step 6): apply curve config BEFORE running
-            tableEngine.setArrivalCurveConfig(curveCfg);
-            tableEngine.runAllIntervals();
-
-            // build the fresh engine for live animation
-            SimulationEngine simEngine = createEngine(
-                    percentInPerson,
-                    counters,
-                    checkpoints,
-                    effectiveArrivalSpan,
-                    interval,
-                    transitDelay,
-                    holdDelay,
-                    flights,
-                    holdRooms
-            );
-
-            // ✅ NEW (Step 6): apply curve config BEFORE showing UI
-            simEngine.setArrivalCurveConfig(curveCfg);
-
-            new DataTableFrame(tableEngine).setVisible(true);
-            new SimulationFrame(simEngine).setVisible(true);
+        int baseArrivalSpan  = globalInputPanel.getArrivalSpanMinutes();
+        int interval         = globalInputPanel.getIntervalMinutes();
+        int transitDelay     = globalInputPanel.getTransitDelayMinutes();
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            StringWriter sw = new StringWriter();
-            ex.printStackTrace(new PrintWriter(sw));
-            JTextArea area = new JTextArea(sw.toString(), 20, 60);
-            area.setEditable(false);
-            JOptionPane.showMessageDialog(this,
-                    new JScrollPane(area),
-                    "Simulation Error",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        // Hold-room delay is no longer a GlobalInputPanel control.
+        // Prefer pulling it from the Hold Rooms tab if available; fallback safely.
+        int holdDelay = resolveHoldDelayMinutes();
+
+        List<Flight> flights = flightTablePanel.getFlights();
+
+        // ✅ NEW (Step 6): pull curve config from UI
+        ArrivalCurveConfig curveCfg = arrivalCurvePanel.getConfigCopy();
+        curveCfg.validateAndClamp();
+
+        // ✅ NEW (Step 6): effective arrival span
+        // - Legacy mode: keep behavior SAME (2h default) unless user already changed baseArrivalSpan
+        // - Edited mode: allow earlier than base via windowStart up to 240
+        int curveStart = curveCfg.isLegacyMode()
+                ? ArrivalCurveConfig.DEFAULT_WINDOW_START
+                : curveCfg.getWindowStartMinutesBeforeDeparture();
+
+        int effectiveArrivalSpan = Math.max(baseArrivalSpan, curveStart);
+
+        SimulationEngine engine = createEngine(
+                percentInPerson,
+                counters,
+                checkpoints,
+                effectiveArrivalSpan,
+                interval,
+                transitDelay,
+                holdDelay,
+                flights,
+                holdRooms
+        );
+
+        // ✅ NEW (Step 6): apply curve config BEFORE running
+        engine.setArrivalCurveConfig(curveCfg);
+        return engine;
     }
 
     /**
@@ -1,6 +1,7 @@
 package sim.ui;
 
-import sim.service.SimulationEngine;
+import sim.service.GraphSeries;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -23,14 +24,15 @@ import org.jfree.data.xy.XYSeriesCollection;
  *  - Total passengers waiting in ALL checkpoint lines
  *  - Total passengers in ALL hold rooms
  *
- * Designed to be updated from SimulationFrame via any of these calls:
+ * Designed to be updated from SimulationFrame via setFrame(frame), which brings the
+ * series up to the frame's computed intervals, or any of these calls:
  *  setCurrentInterval(i), setInterval(i), setDisplayedInterval(i), goToInterval(i),
  *  onIntervalChanged(i), updateForInterval(i)
  *  plus optional setMaxComputedInterval(max) / setTotalIntervals(total) / refresh().
  */
 public class QueueTotalsGraphPanel extends JPanel {
 
-    private final SimulationEngine engine;
+    private GraphSeries series;   // totals of the last frame shown (null = fallback panel)
 
     private final XYSeries ticketSeries =
             new XYSeries("Ticket Counter Lines", /*autoSort*/ true, /*allowDuplicateX*/ false);
@@ -54,31 +56,32 @@ public class QueueTotalsGraphPanel extends JPanel {
     // -------- Constructors (multiple signatures for reflection compatibility) --------
 
     /** Preferred constructor */
-    public QueueTotalsGraphPanel(SimulationEngine engine) {
-        this(engine, null, null);
+    public QueueTotalsGraphPanel(IntervalFrame frame) {
+        this(frame, null, null);
     }
 
     /** Compatibility constructor (ignored params, but useful if you instantiate like ArrivalsGraphPanel) */
-    public QueueTotalsGraphPanel(SimulationEngine engine, LocalTime startTime) {
-        this(engine, startTime, null);
+    public QueueTotalsGraphPanel(IntervalFrame frame, LocalTime startTime) {
+        this(frame, startTime, null);
     }
 
     /** Compatibility constructor (ignored params, but useful if you instantiate like ArrivalsGraphPanel) */
-    public QueueTotalsGraphPanel(SimulationEngine engine, LocalTime startTime, DateTimeFormatter fmt) {
+    public QueueTotalsGraphPanel(IntervalFrame frame, LocalTime startTime, DateTimeFormatter fmt) {
         super(new BorderLayout());
-        this.engine = engine;
 
-        if (engine == null) {
-            add(makeFallback("Queue totals graph could not be loaded (engine was null)."), BorderLayout.CENTER);
+        if (frame == null) {
+            add(makeFallback("Queue totals graph could not be loaded (frame was null)."), BorderLayout.CENTER);
             return;
         }
 
         initChart();
         add(new ChartPanel(chart), BorderLayout.CENTER);
 
-        // Initial draw (interval 0)
-        this.maxComputedInterval = engine.getMaxComputedInterval();
-        this.totalIntervals = engine.getTotalIntervals();
+        // Initial draw
+        this.series = frame.getGraphSeries();
+        this.currentInterval = frame.getInterval();
+        this.maxComputedInterval = frame.getMaxComputedInterval();
+        this.totalIntervals = frame.getTotalIntervals();
         rebuildSeriesIfNeeded(true);
         updateMarker();
     }
@@ -86,7 +89,6 @@ public class QueueTotalsGraphPanel extends JPanel {
     /** No-arg fallback constructor (in case reflection tries it) */
     public QueueTotalsGraphPanel() {
         super(new BorderLayout());
-        this.engine = null;
         add(makeFallback("Queue totals graph panel could not be loaded."), BorderLayout.CENTER);
     }
 
@@ -100,6 +102,15 @@ public class QueueTotalsGraphPanel extends JPanel {
 
     // -------- Public update API (SimulationFrame calls these via reflection) --------
 
+    /** Shows {@code frame}: its totals, computed range and interval. */
+    public void setFrame(IntervalFrame frame) {
+        if (series == null) return;
+        this.series = frame.getGraphSeries();
+        this.maxComputedInterval = Math.max(0, frame.getMaxComputedInterval());
+        this.totalIntervals = Math.max(0, frame.getTotalIntervals());
+        setCurrentInterval(frame.getInterval());
+    }
+
     public void setCurrentInterval(int interval) {
         this.currentInterval = Math.max(0, interval);
         refresh();
@@ -127,7 +138,7 @@ public class QueueTotalsGraphPanel extends JPanel {
     public void rebuild() { refresh(); }
 
     public void refresh() {
-        if (engine == null) return;
+        if (series == null) return;
 
         // Make sure we run on EDT so JFreeChart + Swing are happy
         if (!SwingUtilities.isEventDispatchThread()) {
@@ -135,10 +146,6 @@ public class QueueTotalsGraphPanel extends JPanel {
             return;
         }
 
-        // If caller didn't set these, pull from engine (safe)
-        this.maxComputedInterval = Math.max(this.maxComputedInterval, engine.getMaxComputedInterval());
-        if (this.totalIntervals <= 0) this.totalIntervals = engine.getTotalIntervals();
-
         rebuildSeriesIfNeeded(false);
         updateMarker();
 
@@ -177,7 +184,8 @@ public class QueueTotalsGraphPanel extends JPanel {
     }
 
     private void rebuildSeriesIfNeeded(boolean force) {
-        int targetMax = Math.max(0, maxComputedInterval);
+        // only what the frame's series holds (it may lag a frame captured off the engine thread)
+        int targetMax = Math.max(0, Math.min(maxComputedInterval, series.size() - 1));
 
         // If we haven't built yet, or we need to extend, or force rebuild
         if (!force && targetMax == lastBuiltUpTo) {
@@ -196,9 +204,9 @@ public class QueueTotalsGraphPanel extends JPanel {
 
         // Incrementally add points up to targetMax
         for (int i = lastBuiltUpTo + 1; i <= targetMax; i++) {
-            int t = engine.getTicketQueuedAtInterval(i);
-            int c = engine.getCheckpointQueuedAtInterval(i);
-            int h = engine.getHoldRoomTotalAtInterval(i);
+            int t = series.getTicketQueued(i);
+            int c = series.getCheckpointQueued(i);
+            int h = series.getHoldRoomTotal(i);
 
             ticketSeries.add(i, t);
             checkpointSeries.add(i, c);
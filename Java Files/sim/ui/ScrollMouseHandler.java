@@ -2,7 +2,8 @@ package sim.ui;
 
 import sim.model.Flight;
 import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.service.FrameContext;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,6 +13,7 @@ import java.time.LocalTime;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -22,7 +24,7 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
     protected static final int ROWS = 3;
     protected static final int COLS = 15;
 
-    protected final SimulationEngine engine;
+    protected final Supplier<IntervalFrame> frames;   // the frame the panel currently shows
     protected final List<Rectangle> clickableAreas;
     protected final List<Passenger> clickablePassengers;
     protected final int[] queuedOffsets;
@@ -37,14 +39,14 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
     protected int initialMouseX;
     protected int initialOffset;
 
-    public ScrollMouseHandler(SimulationEngine engine,
+    public ScrollMouseHandler(Supplier<IntervalFrame> frames,
                               List<Rectangle> clickableAreas,
                               List<Passenger> clickablePassengers,
                               int[] queuedOffsets,
                               int[] servedOffsets,
                               Flight filterFlight,
                               List<Rectangle> counterAreas) {  // ← added param
-        this.engine = engine;
+        this.frames = frames;
         this.clickableAreas = clickableAreas;
         this.clickablePassengers = clickablePassengers;
         this.queuedOffsets = queuedOffsets;
@@ -71,7 +73,7 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
                 Passenger p = clickablePassengers.get(i);
                 LocalTime simStart = p.getFlight()
                                        .getDepartureTime()
-                                       .minusMinutes(engine.getArrivalSpan());
+                                       .minusMinutes(frames.get().getContext().getArrivalSpan());
                 String flightNum = p.getFlight().getFlightNumber();
                 String arrivalTime = simStart.plusMinutes(p.getArrivalMinute())
                                              .format(DateTimeFormatter.ofPattern("HH:mm"));
@@ -112,14 +114,14 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
     // ----------------------------------------------------------------
     // Ticket lines handler—uses historyQueuedTicket & visibleCompletedTicket
     public static class TicketScrollHandler extends ScrollMouseHandler {
-        public TicketScrollHandler(SimulationEngine engine,
+        public TicketScrollHandler(Supplier<IntervalFrame> frames,
                                    List<Rectangle> clickableAreas,
                                    List<Passenger> clickablePassengers,
                                    int[] queuedOffsets,
                                    int[] servedOffsets,
                                    Flight filterFlight,
                                    List<Rectangle> counterAreas) {
-            super(engine, clickableAreas, clickablePassengers,
+            super(frames, clickableAreas, clickablePassengers,
                   queuedOffsets, servedOffsets,
                   filterFlight, counterAreas);
         }
@@ -137,15 +139,14 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             int gridWidth = COLS * cellW;
             int gridHeight = ROWS * cellW;
             int trackH = cellW / 2;
-            int lines = engine.getTicketLines().size();
+            IntervalFrame frame = frames.get();
+            int lines = frame.getQueuedTicket().size();
             int rawSpace = lines > 1 ? (bottom - top) / (lines - 1) : 0;
             int space = Math.max(rawSpace, GridRenderer.MIN_LINE_SPACING);
 
             // queued scroll zone
             for (int i = 0; i < lines; i++) {
-                List<Passenger> fullQ = engine.getHistoryQueuedTicket()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(i);
+                List<Passenger> fullQ = frame.getQueuedTicket().get(i);
                 List<Passenger> q = filterFlight == null
                     ? fullQ
                     : fullQ.stream()
@@ -175,22 +176,13 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
 
             // served scroll zone (snapshot & live)
             for (int i = 0; i < lines; i++) {
-                List<Passenger> fullS;
-                if (filterFlight == null) {
-                    // live mode
-                    fullS = engine.getVisibleCompletedTicketLine(i);
-                } else {
-                    // snapshot mode: only those still within transit window
-                    int step  = engine.getCurrentInterval() - 1;
-                    int delay = engine.getTransitDelayMinutes();
-                    fullS = engine.getHistoryServedTicket()
-                                .get(step)
-                                .get(i)
-                                .stream()
-                                .filter(p -> p.getFlight() == filterFlight)
-                                .filter(p -> p.getTicketCompletionMinute() + delay > step)
-                                .collect(Collectors.toList());
-                }
+                // passengers still at the counter (snapshot mode: of the flight only)
+                List<Passenger> fullVisible = frame.getVisibleServedTicket().get(i);
+                List<Passenger> fullS = filterFlight == null
+                    ? fullVisible
+                    : fullVisible.stream()
+                                 .filter(p -> p.getFlight() == filterFlight)
+                                 .collect(Collectors.toList());
                 int fullCols = (fullS.size() + ROWS - 1) / ROWS;
                 if (fullCols <= COLS) continue;
 
@@ -219,11 +211,10 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             if (!dragging) return;
             int dx = e.getX() - initialMouseX;
             int cellW = 60 / ROWS;
+            IntervalFrame frame = frames.get();
 
             if (draggingQueued) {
-                List<Passenger> fullQ = engine.getHistoryQueuedTicket()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(dragLine);
+                List<Passenger> fullQ = frame.getQueuedTicket().get(dragLine);
                 List<Passenger> q = filterFlight == null
                     ? fullQ
                     : fullQ.stream()
@@ -234,20 +225,12 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
                 int off = initialOffset + dx / cellW;
                 queuedOffsets[dragLine] = Math.max(0, Math.min(off, fullCols - COLS));
             } else {
-                List<Passenger> fullS;
-                if (filterFlight == null) {
-                    fullS = engine.getVisibleCompletedTicketLine(dragLine);
-                } else {
-                    int step  = engine.getCurrentInterval() - 1;
-                    int delay = engine.getTransitDelayMinutes();
-                    fullS = engine.getHistoryServedTicket()
-                                .get(step)
-                                .get(dragLine)
-                                .stream()
-                                .filter(p -> p.getFlight() == filterFlight)
-                                .filter(p -> p.getTicketCompletionMinute() + delay > step)
-                                .collect(Collectors.toList());
-                }
+                List<Passenger> fullVisible = frame.getVisibleServedTicket().get(dragLine);
+                List<Passenger> fullS = filterFlight == null
+                    ? fullVisible
+                    : fullVisible.stream()
+                                 .filter(p -> p.getFlight() == filterFlight)
+                                 .collect(Collectors.toList());
                 int fullCols = (fullS.size() + ROWS - 1) / ROWS;
                 int off = initialOffset + dx / cellW;
                 servedOffsets[dragLine] = Math.max(0, Math.min(off, fullCols - COLS));
@@ -263,48 +246,35 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             for (int i = 0; i < counterAreas.size(); i++) {
                 if (counterAreas.get(i).contains(pt)) {
                     int waiting, completed;
+                    IntervalFrame frame = frames.get();
                     if (filterFlight == null) {
-                        waiting = engine.getTicketLines().get(i).size();
-                        completed = engine.getCompletedTicketLines().get(i).size();
+                        waiting = frame.getTicketWaiting(i);
+                        completed = frame.getTicketCompleted(i);
                     } else {
-                        int step = engine.getCurrentInterval() - 1;
-                        waiting = (int) engine.getHistoryQueuedTicket()
-                                            .get(step).get(i)
+                        waiting = (int) frame.getQueuedTicket()
+                                            .get(i)
                                             .stream()
                                             .filter(p -> p.getFlight() == filterFlight)
                                             .count();
-                        completed = (int) engine.getHistoryServedTicket()
-                                             .get(step).get(i)
+                        completed = (int) frame.getServedTicket()
+                                             .get(i)
                                              .stream()
                                              .filter(p -> p.getFlight() == filterFlight)
                                              .count();
                     }
-                    int id = engine.getCounterConfigs().get(i).getId();
+                    int id = frame.getContext().getCounterConfigs().get(i).getId();
                     // build the base message
                     StringBuilder msg = new StringBuilder()
                         .append("Counter #: ").append(id)
                         .append("\nWaiting: ").append(waiting)
                         .append("\nCompleted: ").append(completed);
 
-                    // ——— compute max queue & when ———
-                    var hist     = engine.getHistoryQueuedTicket();
-                    int interval = engine.getInterval();
-                    LocalTime firstDep = engine.getFlights().stream()
-                        .map(Flight::getDepartureTime)
-                        .min(LocalTime::compareTo)
-                        .orElse(LocalTime.MIDNIGHT);
-                    LocalTime startTime = firstDep.minusMinutes(engine.getArrivalSpan());
+                    // ——— max queue & when (as of the frame) ———
+                    FrameContext context = frame.getContext();
                     DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
 
-                    int maxSize = 0, maxIdx = 0;
-                    for (int j = 0; j < hist.size(); j++) {
-                        int sz = hist.get(j).get(i).size();
-                        if (sz > maxSize) {
-                            maxSize = sz;
-                            maxIdx  = j;
-                        }
-                    }
-                    LocalTime maxTime = startTime.plusMinutes((long)(maxIdx + 1) * interval);
+                    int maxSize = frame.getMaxQueuedTicket(i);
+                    LocalTime maxTime = context.timeAfterStep(frame.getMaxQueuedTicketStep(i));
 
                     msg.append("\nMax # in line: ").append(maxSize)
                         .append("\nTime of Max passengers: ").append(maxTime.format(fmt))
@@ -325,14 +295,14 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
     // ----------------------------------------------------------------
     // Checkpoint lines handler—uses historyQueuedCheckpoint & historyServedCheckpoint
     public static class CheckpointScrollHandler extends ScrollMouseHandler {
-        public CheckpointScrollHandler(SimulationEngine engine,
+        public CheckpointScrollHandler(Supplier<IntervalFrame> frames,
                                        List<Rectangle> clickableAreas,
                                        List<Passenger> clickablePassengers,
                                        int[] queuedOffsets,
                                        int[] servedOffsets,
                                        Flight filterFlight,
                                        List<Rectangle> counterAreas) {
-            super(engine, clickableAreas, clickablePassengers,
+            super(frames, clickableAreas, clickablePassengers,
                   queuedOffsets, servedOffsets,
                   filterFlight, counterAreas);
         }
@@ -350,15 +320,14 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             int gridWidth = COLS * cellW;
             int gridHeight = ROWS * cellW;
             int trackH = cellW / 2;
-            int lines = engine.getCheckpointLines().size();
+            IntervalFrame frame = frames.get();
+            int lines = frame.getQueuedCheckpoint().size();
             int rawSpace = lines > 1 ? (bottom - top) / (lines - 1) : 0;
             int space = Math.max(rawSpace, GridRenderer.MIN_LINE_SPACING);
 
             // queued scroll zone
             for (int i = 0; i < lines; i++) {
-                List<Passenger> fullQ = engine.getHistoryQueuedCheckpoint()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(i);
+                List<Passenger> fullQ = frame.getQueuedCheckpoint().get(i);
                 List<Passenger> q = filterFlight == null
                     ? fullQ
                     : fullQ.stream()
@@ -388,9 +357,7 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
 
             // served scroll zone
             for (int i = 0; i < lines; i++) {
-                List<Passenger> fullS = engine.getHistoryServedCheckpoint()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(i);
+                List<Passenger> fullS = frame.getServedCheckpoint().get(i);
                 List<Passenger> s = filterFlight == null
                     ? fullS
                     : fullS.stream()
@@ -424,11 +391,10 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             if (!dragging) return;
             int dx = e.getX() - initialMouseX;
             int cellW = 60 / ROWS;
+            IntervalFrame frame = frames.get();
 
             if (draggingQueued) {
-                List<Passenger> fullQ = engine.getHistoryQueuedCheckpoint()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(dragLine);
+                List<Passenger> fullQ = frame.getQueuedCheckpoint().get(dragLine);
                 List<Passenger> q = filterFlight == null
                     ? fullQ
                     : fullQ.stream()
@@ -438,9 +404,7 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
                 int off = initialOffset + dx / cellW;
                 queuedOffsets[dragLine] = Math.max(0, Math.min(off, fullCols - COLS));
             } else {
-                List<Passenger> fullS = engine.getHistoryServedCheckpoint()
-                                              .get(engine.getCurrentInterval() - 1)
-                                              .get(dragLine);
+                List<Passenger> fullS = frame.getServedCheckpoint().get(dragLine);
                 List<Passenger> s = filterFlight == null
                     ? fullS
                     : fullS.stream()
@@ -460,18 +424,18 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
             for (int i = 0; i < counterAreas.size(); i++) {
                 if (counterAreas.get(i).contains(pt)) {
                     int waiting, completed;
+                    IntervalFrame frame = frames.get();
                     if (filterFlight == null) {
-                        waiting = engine.getCheckpointLines().get(i).size();
-                        completed = engine.getCompletedCheckpointLines().get(i).size();
+                        waiting = frame.getCheckpointWaiting(i);
+                        completed = frame.getCheckpointCompleted(i);
                     } else {
-                        int step = engine.getCurrentInterval() - 1;
-                        waiting = (int) engine.getHistoryQueuedCheckpoint()
-                                             .get(step).get(i)
+                        waiting = (int) frame.getQueuedCheckpoint()
+                                             .get(i)
                                              .stream()
                                              .filter(p -> p.getFlight() == filterFlight)
                                              .count();
-                        completed = (int) engine.getHistoryServedCheckpoint()
-                                               .get(step).get(i)
+                        completed = (int) frame.getServedCheckpoint()
+                                               .get(i)
                                                .stream()
                                                .filter(p -> p.getFlight() == filterFlight)
                                                .count();
@@ -483,26 +447,12 @@ public abstract class ScrollMouseHandler extends MouseAdapter {
                 .append("\nWaiting: ").append(waiting)
                 .append("\nCompleted: ").append(completed);
 
-            // ——— compute max queue & when ———
-            var hist     = engine.getHistoryQueuedCheckpoint();
-            int interval = engine.getInterval();
-            // reconstruct sim start time
-            LocalTime firstDep = engine.getFlights().stream()
-                .map(Flight::getDepartureTime)
-                .min(LocalTime::compareTo)
-                .orElse(LocalTime.MIDNIGHT);
-            LocalTime startTime = firstDep.minusMinutes(engine.getArrivalSpan());
+            // ——— max queue & when (as of the frame) ———
+            FrameContext context = frame.getContext();
             DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
 
-            int maxSize = 0, maxIdx = 0;
-            for (int j = 0; j < hist.size(); j++) {
-                int sz = hist.get(j).get(i).size();
-                if (sz > maxSize) {
-                    maxSize = sz;
-                    maxIdx  = j;
-                }
-            }
-            LocalTime maxTime = startTime.plusMinutes((long)(maxIdx + 1) * interval);
+            int maxSize = frame.getMaxQueuedCheckpoint(i);
+            LocalTime maxTime = context.timeAfterStep(frame.getMaxQueuedCheckpointStep(i));
 
             msg.append("\nMax # in line: ").append(maxSize)
             .append("\nTime of Max passengers: ").append(maxTime.format(fmt))
@@ -1,12 +1,21 @@
 package sim.ui;
 
+import sim.model.CheckpointConfig;
 import sim.model.Flight;
+import sim.model.HoldRoomConfig;
 import sim.model.Passenger;
+import sim.model.TicketCounterConfig;
+import sim.service.IntervalFrame;
+import sim.service.PlaybackBuffer;
+import sim.service.RunArchive;
 import sim.service.SimulationEngine;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.time.LocalTime;
@@ -33,6 +42,17 @@ public class SimulationFrame extends JFrame {
 
     private       boolean           isPaused    = false;
 
+    // AutoRun simulates ahead on a producer thread (null while not running)
+    private PlaybackBuffer          playback;
+    private IntervalFrame           shownFrame;
+
+    // While a run on another thread is still going: the last interval it reported
+    // (-1 once the engine is ours). Frames then come from engine.viewAt only.
+    private int                     backgroundFrontier = -1;
+    private long                    lastFollowRefresh;
+    private Runnable                followRefresh;   // see runProgressed
+    private Runnable                takeOverEngine;  // see runFinished
+
     // Rewind + scrub controls
     private final JButton           prevBtn;
     private final JSlider           timelineSlider;
@@ -262,7 +282,18 @@ public class SimulationFrame extends JFrame {
     // EXISTING constructor (simulation view)
     // ==========================================================
     public SimulationFrame(SimulationEngine engine) {
+        this(engine, -1);
+    }
+
+    /**
+     * View on a run that another thread is still computing, {@code computedInterval}
+     * intervals so far (-1 = nothing runs elsewhere). Until {@link #runFinished()} the
+     * view only shows frames rebuilt from the recorded history and never moves the
+     * engine; the owner reports the run's progress through {@link #runProgressed(int)}.
+     */
+    public SimulationFrame(SimulationEngine engine, int computedInterval) {
         super("Simulation View");
+        backgroundFrontier = computedInterval;
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
 
@@ -309,8 +340,9 @@ public class SimulationFrame extends JFrame {
                 servedW = GridRenderer.COLS * cellW,
                 panelW  = queuedW + boxSize + servedW + padding;
 
+        IntervalFrame firstFrame = backgroundFrontier >= 0 ? engine.viewAt(-1) : engine.captureFrame();
         TicketLinesPanel ticketPanel = new TicketLinesPanel(
-                engine, new ArrayList<>(), new ArrayList<>(), null
+                firstFrame, new ArrayList<>(), new ArrayList<>(), null
         );
         Dimension tPref = ticketPanel.getPreferredSize();
         ticketPanel.setPreferredSize(new Dimension(panelW, tPref.height));
@@ -321,7 +353,7 @@ public class SimulationFrame extends JFrame {
 
         split.add(Box.createHorizontalStrut(gutter));
         CheckpointLinesPanel cpPanel = new CheckpointLinesPanel(
-                engine, new ArrayList<>(), new ArrayList<>(), null
+                firstFrame, new ArrayList<>(), new ArrayList<>(), null
         );
         Dimension cPref = cpPanel.getPreferredSize();
         cpPanel.setPreferredSize(new Dimension(panelW, cPref.height));
@@ -331,7 +363,7 @@ public class SimulationFrame extends JFrame {
 
         split.add(Box.createHorizontalStrut(gutter));
         HoldRoomsPanel holdPanel = new HoldRoomsPanel(
-                engine, new ArrayList<>(), new ArrayList<>(), null
+                firstFrame, new ArrayList<>(), new ArrayList<>(), null
         );
         split.add(holdPanel);
 
@@ -366,7 +398,7 @@ public class SimulationFrame extends JFrame {
         pausePlayBtn = new JButton("Pause");
         summaryBtn   = new JButton("Summary");
 
-        summaryBtn.setEnabled(false);
+        summaryBtn.setEnabled(engine.isPlayback());   // an archived run is already complete
         pausePlayBtn.setVisible(false);
 
         btnPanel.add(autoRunBtn);
@@ -380,6 +412,13 @@ public class SimulationFrame extends JFrame {
         btnPanel.add(graphBtn);
 
         btnPanel.add(summaryBtn);
+
+        JButton saveRunBtn = new JButton("Save Run...");
+        btnPanel.add(saveRunBtn);
+
+        // these read the engine itself, so they wait until the run is ours
+        graphBtn.setEnabled(backgroundFrontier < 0);
+        saveRunBtn.setEnabled(backgroundFrontier < 0);
         control.add(btnPanel);
 
         JPanel timelineAndGraphContainer = new JPanel(new BorderLayout(8, 6));
@@ -408,23 +447,23 @@ public class SimulationFrame extends JFrame {
 
         tabs.addTab("Timeline", timelineTab);
 
-        arrivalsGraphPanel = new ArrivalsGraphPanel(engine);
+        arrivalsGraphPanel = new ArrivalsGraphPanel(firstFrame);
         JPanel arrivalsTab = new JPanel(new BorderLayout());
         arrivalsTab.add(arrivalsGraphPanel, BorderLayout.CENTER);
         tabs.addTab("Arrivals", arrivalsTab);
 
-        queueTotalsGraphPanel = new QueueTotalsGraphPanel(engine);
+        queueTotalsGraphPanel = new QueueTotalsGraphPanel(firstFrame);
         JPanel queueTotalsTab = new JPanel(new BorderLayout());
         queueTotalsTab.add(queueTotalsGraphPanel, BorderLayout.CENTER);
         tabs.addTab("Queues", queueTotalsTab);
 
-        holdRoomPopulationGraphPanel = new HoldRoomPopulationGraphPanel(engine);
+        holdRoomPopulationGraphPanel = new HoldRoomPopulationGraphPanel(firstFrame);
         JPanel holdRoomsTab = new JPanel(new BorderLayout());
         holdRoomsTab.add(holdRoomPopulationGraphPanel, BorderLayout.CENTER);
         tabs.addTab("Hold Rooms", holdRoomsTab);
 
         // NEW: actual curve used by engine (per-flight dropdown, with viewed-interval marker)
-        arrivalCurveUsedPanel = new ArrivalCurveUsedPanel(engine);
+        arrivalCurveUsedPanel = new ArrivalCurveUsedPanel(firstFrame.getContext());
         JPanel curveTab = new JPanel(new BorderLayout());
         curveTab.add(arrivalCurveUsedPanel, BorderLayout.CENTER);
         tabs.addTab("Curve (Used)", curveTab);
@@ -451,16 +490,22 @@ public class SimulationFrame extends JFrame {
         sliderPanel.add(speedSlider);
         control.add(sliderPanel);
 
-        summaryBtn.addActionListener(e ->
-                new FlightsSummaryFrame(engine).setVisible(true)
-        );
+        // Everything on screen is drawn from an IntervalFrame. Manual steps capture one
+        // from the engine on the EDT; AutoRun takes them from a PlaybackBuffer, whose
+        // producer thread owns the engine until the buffer is stopped. While a run on
+        // another thread is still going, every frame is rebuilt from its history instead.
+        java.util.function.Consumer<IntervalFrame> showFrame = frame -> {
+            shownFrame = frame;
+            int ci = frame.getInterval();
 
-        Runnable refreshUI = () -> {
-            LocalTime now = startTime.plusMinutes(engine.getCurrentInterval());
+            LocalTime now = startTime.plusMinutes(ci);
             timeLabel.setText(now.format(TIME_FMT));
+            ticketPanel.setFrame(frame);
+            cpPanel.setFrame(frame);
+            holdPanel.setFrame(frame);
             split.repaint();
 
-            int maxComputed = engine.getMaxComputedInterval();
+            int maxComputed = frame.getMaxComputedInterval();
 
             timelineProgrammaticUpdate = true;
             try {
@@ -472,49 +517,75 @@ public class SimulationFrame extends JFrame {
                     rebuildTimelineLabels(timelineSlider);
                 }
 
-                int ci = engine.getCurrentInterval();
                 if (ci <= timelineSlider.getMaximum()) timelineSlider.setValue(ci);
                 else timelineSlider.setValue(timelineSlider.getMaximum());
             } finally {
                 timelineProgrammaticUpdate = false;
             }
 
-            intervalLabel.setText("Interval: " + engine.getCurrentInterval()
-                    + " / " + engine.getTotalIntervals());
+            intervalLabel.setText("Interval: " + ci
+                    + " / " + frame.getTotalIntervals());
 
-            arrivalsGraphPanel.syncWithEngine();
+            arrivalsGraphPanel.setFrame(frame);
 
             // NEW: keep curve inspector synced
-            arrivalCurveUsedPanel.setViewedInterval(engine.getCurrentInterval());
-            arrivalCurveUsedPanel.syncWithEngine();
+            arrivalCurveUsedPanel.setViewedInterval(ci);
 
-            queueTotalsGraphPanel.setMaxComputedInterval(maxComputed);
-            queueTotalsGraphPanel.setTotalIntervals(engine.getTotalIntervals());
-            queueTotalsGraphPanel.setCurrentInterval(engine.getCurrentInterval());
+            queueTotalsGraphPanel.setFrame(frame);
+            holdRoomPopulationGraphPanel.setFrame(frame);
 
-            holdRoomPopulationGraphPanel.setMaxComputedInterval(maxComputed);
-            holdRoomPopulationGraphPanel.setTotalIntervals(engine.getTotalIntervals());
-            holdRoomPopulationGraphPanel.setCurrentInterval(engine.getCurrentInterval());
-            holdRoomPopulationGraphPanel.syncWithEngine();
+            prevBtn.setEnabled(ci > 0);
 
-            prevBtn.setEnabled(engine.canRewind());
-
-            boolean canAdvance = engine.getCurrentInterval() < engine.getTotalIntervals();
+            boolean canAdvance = !frame.isLast();
             nextBtn.setEnabled(canAdvance);
 
             if (autoRunTimer == null || !autoRunTimer.isRunning()) {
                 autoRunBtn.setEnabled(canAdvance);
             }
 
-            if (simulationCompleted) {
+            if (simulationCompleted && backgroundFrontier < 0) {
                 summaryBtn.setEnabled(true);
             }
         };
 
-        java.util.function.Consumer<List<Flight>> handleClosures = (closed) -> {
+        // frame of an interval, clamped to what the background run has reported
+        java.util.function.IntFunction<IntervalFrame> followedFrame =
+                interval -> engine.viewAt(Math.max(0, Math.min(interval, backgroundFrontier)) - 1);
+
+        Runnable refreshUI = () -> showFrame.accept(backgroundFrontier >= 0
+                ? followedFrame.apply(shownFrame == null ? 0 : shownFrame.getInterval())
+                : engine.captureFrame());
+
+        // hands the engine back to the EDT, on the interval that is on screen
+        Runnable stopPlayback = () -> {
+            if (playback == null) return;
+            playback.stop();
+            playback = null;
+            engine.goToInterval(shownFrame.getInterval());   // the producer ran ahead
+        };
+
+        Runnable pauseAutoRun = () -> {
+            if (autoRunTimer != null && autoRunTimer.isRunning()) {
+                autoRunTimer.stop();
+                pausePlayBtn.setText("Play");
+                isPaused = true;
+            }
+            stopPlayback.run();
+        };
+
+        Runnable resumeAutoRun = () -> {
+            if (backgroundFrontier < 0) {
+                playback = new PlaybackBuffer(engine, PlaybackBuffer.DEFAULT_CAPACITY);
+                playback.start();
+            }
+            autoRunTimer.start();
+        };
+
+        java.util.function.Consumer<IntervalFrame> handleClosures = (frame) -> {
+            List<Flight> closed = frame.getJustClosedFlights();
             if (closed == null || closed.isEmpty()) return;
 
-            int step = engine.getCurrentInterval() - 1;
+            int step = frame.getStep();
 
             List<Flight> newlyClosed = new ArrayList<>();
             for (Flight f : closed) {
@@ -526,17 +597,13 @@ public class SimulationFrame extends JFrame {
 
             if (newlyClosed.isEmpty()) return;
 
-            if (autoRunTimer != null && autoRunTimer.isRunning()) {
-                autoRunTimer.stop();
-                pausePlayBtn.setText("Play");
-                isPaused = true;
-            }
+            pauseAutoRun.run();
 
             for (Flight f : newlyClosed) {
                 int total = (int)Math.round(f.getSeats() * f.getFillPercent());
 
                 int made = 0;
-                for (java.util.LinkedList<Passenger> room : engine.getHoldRoomLines()) {
+                for (java.util.List<Passenger> room : frame.getHoldRooms()) {
                     for (Passenger p : room) {
                         if (p != null && p.getFlight() == f) made++;
                     }
@@ -552,22 +619,48 @@ public class SimulationFrame extends JFrame {
             }
         };
 
+        // each tick shows the next ready frame; when the producer lags, the last one stays up
         autoRunTimer = new javax.swing.Timer(speedSlider.getValue(), ev -> {
             javax.swing.Timer t = (javax.swing.Timer)ev.getSource();
-            if (engine.getCurrentInterval() < engine.getTotalIntervals()) {
-                engine.computeNextInterval();
-                refreshUI.run();
+            if (!isDisplayable()) return;
+
+            IntervalFrame frame;
+            if (backgroundFrontier >= 0) {
+                int next = shownFrame.getInterval() + 1;
+                if (next > backgroundFrontier) return;   // the background run is not there yet
+                frame = followedFrame.apply(next);
+            } else if (playback == null) {
+                return;
+            } else {
+                frame = playback.poll();
+            }
+            if (frame == null) {
+                if (playback.isDrained()) {
+                    RuntimeException failure = playback.getFailure();
+                    pauseAutoRun.run();
+                    if (failure != null) {
+                        failure.printStackTrace();
+                        JOptionPane.showMessageDialog(
+                                SimulationFrame.this,
+                                "Simulation failed: " + failure,
+                                "Simulation Error",
+                                JOptionPane.ERROR_MESSAGE
+                        );
+                    }
+                }
+                return;
+            }
 
-                List<Flight> closed = engine.getFlightsJustClosed();
-                handleClosures.accept(closed);
+            showFrame.accept(frame);
+            handleClosures.accept(frame);
 
-                if (engine.getCurrentInterval() >= engine.getTotalIntervals()) {
-                    simulationCompleted = true;
-                    t.stop();
-                    autoRunBtn.setEnabled(false);
-                    pausePlayBtn.setEnabled(false);
-                    summaryBtn.setEnabled(true);
-                }
+            if (frame.isLast()) {
+                simulationCompleted = true;
+                t.stop();
+                stopPlayback.run();
+                autoRunBtn.setEnabled(false);
+                pausePlayBtn.setEnabled(false);
+                summaryBtn.setEnabled(backgroundFrontier < 0);
             }
         });
 
@@ -577,28 +670,42 @@ public class SimulationFrame extends JFrame {
             }
         });
 
+        // the summary (and its flight snapshots) reads the engine directly
+        summaryBtn.addActionListener(e -> {
+            pauseAutoRun.run();
+            FlightsSummaryFrame summary = new FlightsSummaryFrame(engine);
+            EngineWindows.register(summary, engine);
+            summary.setVisible(true);
+        });
+
         prevBtn.addActionListener(ev -> {
-            if (autoRunTimer != null && autoRunTimer.isRunning()) {
-                autoRunTimer.stop();
-                pausePlayBtn.setText("Play");
-                isPaused = true;
+            pauseAutoRun.run();
+            if (backgroundFrontier >= 0) {
+                showFrame.accept(followedFrame.apply(shownFrame.getInterval() - 1));
+                return;
             }
             engine.rewindOneInterval();
             refreshUI.run();
         });
 
         nextBtn.addActionListener(ev -> {
-            engine.computeNextInterval();
-            refreshUI.run();
-
-            List<Flight> closed = engine.getFlightsJustClosed();
-            handleClosures.accept(closed);
+            pauseAutoRun.run();
+            IntervalFrame frame;
+            if (backgroundFrontier >= 0) {
+                if (shownFrame.getInterval() >= backgroundFrontier) return;   // not computed yet
+                frame = followedFrame.apply(shownFrame.getInterval() + 1);
+            } else {
+                engine.computeNextInterval();
+                frame = engine.captureFrame();
+            }
+            showFrame.accept(frame);
+            handleClosures.accept(frame);
 
-            if (engine.getCurrentInterval() >= engine.getTotalIntervals()) {
+            if (frame.isLast()) {
                 simulationCompleted = true;
                 nextBtn.setEnabled(false);
                 autoRunBtn.setEnabled(false);
-                summaryBtn.setEnabled(true);
+                summaryBtn.setEnabled(backgroundFrontier < 0);
             }
         });
 
@@ -622,16 +729,35 @@ public class SimulationFrame extends JFrame {
 
             int target = timelineSlider.getValue();
 
-            if (autoRunTimer != null && autoRunTimer.isRunning()) {
-                autoRunTimer.stop();
-                pausePlayBtn.setText("Play");
-                isPaused = true;
-            }
+            pauseAutoRun.run();
 
+            if (backgroundFrontier >= 0) {
+                showFrame.accept(followedFrame.apply(target));
+                return;
+            }
             engine.goToInterval(target);
             refreshUI.run();
         });
 
+        saveRunBtn.addActionListener(e -> {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Save Run");
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            pauseAutoRun.run();
+            try {
+                // finishes the run first; the view stays on the current interval
+                RunArchive.write(engine, chooser.getSelectedFile().toPath());
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(
+                        this,
+                        "Error saving run: " + ex.getMessage(),
+                        "Save Error",
+                        JOptionPane.ERROR_MESSAGE
+                );
+            }
+            refreshUI.run();
+        });
+
         autoRunBtn.addActionListener(e -> {
             autoRunBtn.setEnabled(false);
             pausePlayBtn.setVisible(true);
@@ -639,31 +765,71 @@ public class SimulationFrame extends JFrame {
             pausePlayBtn.setText("Pause");
             isPaused = false;
 
-            if (autoRunTimer != null) {
-                autoRunTimer.start();
-            }
+            resumeAutoRun.run();
         });
 
         pausePlayBtn.addActionListener(e -> {
             if (autoRunTimer == null) return;
 
             if (isPaused) {
-                autoRunTimer.start();
+                resumeAutoRun.run();
                 pausePlayBtn.setText("Pause");
+                isPaused = false;
             } else {
-                autoRunTimer.stop();
-                pausePlayBtn.setText("Play");
+                pauseAutoRun.run();
             }
-            isPaused = !isPaused;
             refreshUI.run();
         });
 
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (autoRunTimer != null) autoRunTimer.stop();
+                stopPlayback.run();
+            }
+        });
+
+        // the background run moved on: show how far (at most a few times a second)
+        followRefresh = () -> {
+            if (autoRunTimer.isRunning() || timelineSlider.getValueIsAdjusting()) return;
+            long now = System.currentTimeMillis();
+            if (now - lastFollowRefresh < 250) return;
+            lastFollowRefresh = now;
+            refreshUI.run();
+        };
+
+        // the run is complete and the engine handed over: back to driving it on the EDT
+        takeOverEngine = () -> {
+            boolean autoRunning = autoRunTimer.isRunning();
+            backgroundFrontier = -1;
+            engine.goToInterval(shownFrame.getInterval());
+            graphBtn.setEnabled(true);
+            saveRunBtn.setEnabled(true);
+            if (autoRunning) {
+                resumeAutoRun.run();   // carry on from a PlaybackBuffer
+            } else {
+                refreshUI.run();
+            }
+        };
+
         refreshUI.run();
 
         setSize(900, 900);
         setLocationRelativeTo(null);
     }
 
+    /** The background run has computed up to {@code interval} (EDT; see the constructor). */
+    public void runProgressed(int interval) {
+        if (backgroundFrontier < 0 || interval <= backgroundFrontier || !isDisplayable()) return;
+        backgroundFrontier = interval;
+        followRefresh.run();
+    }
+
+    /** The background run is complete and the engine is this view's to drive (EDT). */
+    public void runFinished() {
+        if (backgroundFrontier >= 0) takeOverEngine.run();
+    }
+
     private static int computeMajorTickSpacing(int maxIntervals) {
         if (maxIntervals >= 1000) return 500;
         if (maxIntervals >= 500)  return 100;
@@ -0,0 +1,176 @@
+package sim.ui;
+
+import sim.service.RunCache;
+import sim.service.SimulationEngine;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Runs a simulation on a background thread (through the run cache) and shows its
+ * progress: intervals done and passengers in the system. Cancel (or closing the
+ * dialog) interrupts the run. {@code onProgress} is told on the EDT how many intervals
+ * a run that was not cached has computed so far; until {@code onDone} gets the
+ * finished engine (on the EDT), the run owns it and it may only be read through
+ * {@code viewAt} up to that interval. {@code onFinally} runs on the EDT whatever the
+ * outcome. An engine that is not handed on (cache hit, cancelled, failed) is closed.
+ */
+public class SimulationProgressDialog extends JDialog {
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JLabel statusLabel = new JLabel("Starting...");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final Worker worker;
+
+    public SimulationProgressDialog(Frame owner,
+                                    SimulationEngine engine,
+                                    RunCache cache,
+                                    ObjIntConsumer<SimulationEngine> onProgress,
+                                    Consumer<SimulationEngine> onDone,
+                                    Runnable onFinally) {
+        super(owner, "Running Simulation", false);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        worker = new Worker(engine, cache, onProgress, onDone, onFinally);
+
+        progressBar.setMinimum(0);
+        progressBar.setMaximum(Math.max(1, engine.getTotalIntervals()));
+        progressBar.setStringPainted(true);
+
+        JPanel content = new JPanel(new BorderLayout(8, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        content.add(statusLabel, BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelButton);
+        content.add(buttons, BorderLayout.SOUTH);
+        setContentPane(content);
+
+        cancelButton.addActionListener(e -> cancel());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel();
+            }
+        });
+
+        setSize(420, 140);
+        setLocationRelativeTo(owner);
+    }
+
+    /** Shows the dialog and starts the run. */
+    public void start() {
+        setVisible(true);
+        worker.execute();
+    }
+
+    private void cancel() {
+        cancelButton.setEnabled(false);
+        statusLabel.setText("Cancelling...");
+        worker.cancel(true);
+    }
+
+    /** Publishes {interval, totalIntervals, passengersInSystem}; interval -1 marks the caching phase. */
+    private final class Worker extends SwingWorker<SimulationEngine, int[]> {
+        private final SimulationEngine engine;
+        private final RunCache cache;
+        private final ObjIntConsumer<SimulationEngine> onProgress;
+        private final Consumer<SimulationEngine> onDone;
+        private final Runnable onFinally;
+        // set by the first of the run and done() to give up on the engine; the second closes
+        // it, so a cancelled run is not closed while it still runs nor while it is on screen
+        private final AtomicBoolean abandoned = new AtomicBoolean();
+
+        Worker(SimulationEngine engine, RunCache cache, ObjIntConsumer<SimulationEngine> onProgress,
+               Consumer<SimulationEngine> onDone, Runnable onFinally) {
+            this.engine = engine;
+            this.cache = cache;
+            this.onProgress = onProgress;
+            this.onDone = onDone;
+            this.onFinally = onFinally;
+        }
+
+        @Override
+        protected SimulationEngine doInBackground() {
+            SimulationEngine cached = cache.get(RunCache.key(engine));
+            if (cached != null) {
+                engine.close();   // never run: only its spill files (if any) to release
+                return cached;
+            }
+
+            engine.setProgressListener((interval, total, inSystem) -> publish(new int[] { interval, total, inSystem }));
+            try {
+                engine.runAllIntervals();
+                engine.setProgressListener(null);
+                publish(new int[] { -1, 0, 0 });
+                cache.put(engine);
+            } catch (RuntimeException | Error ex) {
+                abandon();   // cancelled or failed: nobody will drive it
+                throw ex;
+            } finally {
+                engine.setProgressListener(null);
+            }
+            return engine;
+        }
+
+        private void abandon() {
+            if (abandoned.getAndSet(true)) engine.close();
+        }
+
+        @Override
+        protected void process(List<int[]> chunks) {
+            for (int i = chunks.size() - 1; i >= 0; i--) {
+                if (chunks.get(i)[0] >= 0) {
+                    onProgress.accept(engine, chunks.get(i)[0]);
+                    break;
+                }
+            }
+
+            int[] last = chunks.get(chunks.size() - 1);
+            if (last[0] < 0) {
+                progressBar.setIndeterminate(true);
+                statusLabel.setText("Saving run to the cache...");
+                return;
+            }
+            progressBar.setValue(last[0]);
+            statusLabel.setText("Interval " + last[0] + " / " + last[1]
+                    + "  —  " + last[2] + " passengers in the system");
+        }
+
+        @Override
+        protected void done() {
+            dispose();
+            boolean handedOn = false;
+            try {
+                if (!isCancelled()) {
+                    SimulationEngine finished = get();
+                    handedOn = true;
+                    onDone.accept(finished);
+                }
+            } catch (CancellationException | InterruptedException ignored) {
+                // cancelled by the user
+            } catch (ExecutionException ex) {
+                if (!(ex.getCause() instanceof CancellationException)) showError(ex.getCause());
+            } catch (RuntimeException ex) {
+                showError(ex);
+            } finally {
+                onFinally.run();
+                if (!handedOn) abandon();
+            }
+        }
+
+        private void showError(Throwable t) {
+            t.printStackTrace();
+            JOptionPane.showMessageDialog(getOwner(),
+                    "Simulation failed: " + t,
+                    "Simulation Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package sim.ui;
+
+import sim.service.ParameterSweep;
+import sim.service.SimulationEngine;
+import sim.service.SweepParameter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Parameter sweep over the current setup: up to three inputs, each from/to/step,
+ * run as a grid in the background with the heatmap filling in as cells finish.
+ * The third axis is browsed with the slice slider.
+ */
+public class SweepFrame extends JFrame {
+    private static final String NONE = "(none)";
+
+    private final SimulationEngine template;
+
+    private final List<JComboBox<Object>> parameterBoxes = new ArrayList<>();
+    private final List<JTextField[]> rangeFields = new ArrayList<>();   // from, to, step per axis
+    private final JComboBox<String> metricBox = new JComboBox<>(new String[] {
+            "Missed passengers", "Peak hold-room population" });
+    private final JButton startButton = new JButton("Run Sweep");
+    private final JButton cancelButton = new JButton("Cancel");
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JSlider sliceSlider = new JSlider();
+    private final JLabel sliceLabel = new JLabel(" ");
+    private final JPanel center = new JPanel(new BorderLayout());
+
+    private ParameterSweep sweep;
+    private SweepHeatmapPanel heatmap;
+    private Worker worker;
+
+    /** @param template setup the sweep varies (it is not run) */
+    public SweepFrame(SimulationEngine template) {
+        super("Parameter Sweep");
+        this.template = template;
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        JPanel axesPanel = new JPanel(new GridLayout(0, 5, 5, 5));
+        for (String header : new String[] { "Axis", "Parameter", "From", "To", "Step" }) axesPanel.add(new JLabel(header));
+        addAxisRow(axesPanel, "Across", SweepParameter.PERCENT_IN_PERSON, false);
+        addAxisRow(axesPanel, "Down", SweepParameter.CHECKPOINTS, true);
+        addAxisRow(axesPanel, "Slices", SweepParameter.TRANSIT_DELAY, true);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Show:"));
+        controls.add(metricBox);
+        controls.add(startButton);
+        controls.add(cancelButton);
+        controls.add(progressBar);
+        cancelButton.setEnabled(false);
+        progressBar.setStringPainted(true);
+
+        JPanel north = new JPanel(new BorderLayout(5, 5));
+        north.setBorder(BorderFactory.createEmptyBorder(8, 8, 0, 8));
+        north.add(axesPanel, BorderLayout.CENTER);
+        north.add(controls, BorderLayout.SOUTH);
+
+        JPanel south = new JPanel(new BorderLayout(5, 5));
+        south.setBorder(BorderFactory.createEmptyBorder(0, 8, 8, 8));
+        south.add(sliceLabel, BorderLayout.WEST);
+        south.add(sliceSlider, BorderLayout.CENTER);
+        sliceSlider.setEnabled(false);
+
+        center.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        center.add(new JLabel("Set up the axes and press Run Sweep.", SwingConstants.CENTER), BorderLayout.CENTER);
+
+        setLayout(new BorderLayout());
+        add(north, BorderLayout.NORTH);
+        add(center, BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        startButton.addActionListener(e -> start());
+        cancelButton.addActionListener(e -> cancel());
+        metricBox.addActionListener(e -> { if (heatmap != null) heatmap.setMetric(selectedMetric()); });
+        sliceSlider.addChangeListener(e -> showSlice());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancel();
+            }
+        });
+
+        setSize(900, 760);
+        setLocationRelativeTo(null);
+    }
+
+    private void addAxisRow(JPanel panel, String name, SweepParameter initial, boolean optional) {
+        List<Object> items = new ArrayList<>();
+        if (optional) items.add(NONE);
+        for (SweepParameter p : SweepParameter.values()) items.add(p);
+        JComboBox<Object> box = new JComboBox<>(items.toArray());
+        box.setSelectedItem(initial);
+
+        JTextField[] fields = { new JTextField(), new JTextField(), new JTextField() };
+        box.addActionListener(e -> fillDefaults(box.getSelectedItem(), fields));
+        fillDefaults(initial, fields);
+
+        panel.add(new JLabel(name));
+        panel.add(box);
+        for (JTextField f : fields) panel.add(f);
+        parameterBoxes.add(box);
+        rangeFields.add(fields);
+    }
+
+    private void fillDefaults(Object selected, JTextField[] fields) {
+        String[] range;
+        if (!(selected instanceof SweepParameter)) {
+            range = new String[] { "", "", "" };
+        } else {
+            switch ((SweepParameter) selected) {
+                case PERCENT_IN_PERSON: range = new String[] { "0.2", "0.6", "0.05" }; break;
+                case CHECKPOINTS:       range = new String[] { "4", "12", "1" }; break;
+                case CHECKPOINT_RATE:   range = new String[] { "60", "240", "20" }; break;
+                case TICKET_COUNTERS:   range = new String[] { "1", "10", "1" }; break;
+                case TRANSIT_DELAY:     range = new String[] { "1", "5", "1" }; break;
+                default:                range = new String[] { "0", "10", "1" }; break;
+            }
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setText(range[i]);
+            fields[i].setEnabled(selected instanceof SweepParameter);
+        }
+    }
+
+    private ToIntFunction<ParameterSweep.Cell> selectedMetric() {
+        return metricBox.getSelectedIndex() == 1
+                ? ParameterSweep.Cell::getPeakHoldRoomPopulation
+                : ParameterSweep.Cell::getMissedPassengers;
+    }
+
+    // ============================
+    // Running
+    // ============================
+
+    private void start() {
+        try {
+            sweep = new ParameterSweep(template, readAxes());
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Parameter Sweep", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        heatmap = new SweepHeatmapPanel(sweep);
+        heatmap.setMetric(selectedMetric());
+        center.removeAll();
+        center.add(heatmap, BorderLayout.CENTER);
+        center.revalidate();
+        center.repaint();
+
+        List<ParameterSweep.Axis> axes = sweep.getAxes();
+        boolean sliced = axes.size() > 2;
+        sliceSlider.setEnabled(sliced);
+        sliceSlider.setMinimum(0);
+        sliceSlider.setMaximum(sliced ? axes.get(2).size() - 1 : 0);
+        sliceSlider.setValue(0);
+        showSlice();
+
+        progressBar.setMaximum(sweep.getCellCount());
+        progressBar.setValue(0);
+        progressBar.setString("0 / " + sweep.getCellCount());
+        startButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+
+        worker = new Worker(sweep);
+        worker.execute();
+    }
+
+    private List<ParameterSweep.Axis> readAxes() {
+        List<ParameterSweep.Axis> axes = new ArrayList<>();
+        for (int i = 0; i < parameterBoxes.size(); i++) {
+            Object selected = parameterBoxes.get(i).getSelectedItem();
+            if (!(selected instanceof SweepParameter)) continue;
+            for (ParameterSweep.Axis a : axes) {
+                if (a.getParameter() == selected) throw new IllegalArgumentException(selected + " is used by two axes");
+            }
+            JTextField[] f = rangeFields.get(i);
+            try {
+                axes.add(ParameterSweep.Axis.range((SweepParameter) selected,
+                        Double.parseDouble(f[0].getText().trim()),
+                        Double.parseDouble(f[1].getText().trim()),
+                        Double.parseDouble(f[2].getText().trim())));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Enter numbers for the range of " + selected);
+            }
+        }
+        if (axes.isEmpty()) throw new IllegalArgumentException("Choose a parameter for at least one axis");
+        return axes;
+    }
+
+    private void showSlice() {
+        if (heatmap == null || !sliceSlider.isEnabled()) {
+            sliceLabel.setText(" ");
+            return;
+        }
+        ParameterSweep.Axis axis = sweep.getAxes().get(2);
+        sliceLabel.setText(axis.getParameter().getLabel() + " = "
+                + SweepHeatmapPanel.format(axis, sliceSlider.getValue()));
+        heatmap.setSlice(sliceSlider.getValue());
+    }
+
+    private void cancel() {
+        if (worker != null) worker.cancel(true);
+    }
+
+    /** Runs the sweep and hands finished cells to the heatmap. */
+    private final class Worker extends SwingWorker<ParameterSweep.Cell[], ParameterSweep.Cell> {
+        private final ParameterSweep sweep;
+
+        Worker(ParameterSweep sweep) {
+            this.sweep = sweep;
+        }
+
+        @Override
+        protected ParameterSweep.Cell[] doInBackground() {
+            return sweep.run((cell, finished, total) -> publish(cell));
+        }
+
+        @Override
+        protected void process(List<ParameterSweep.Cell> chunks) {
+            if (isCancelled()) return;
+            for (ParameterSweep.Cell cell : chunks) heatmap.addCell(cell);
+            int done = progressBar.getValue() + chunks.size();
+            progressBar.setValue(done);
+            progressBar.setString(done + " / " + sweep.getCellCount());
+        }
+
+        @Override
+        protected void done() {
+            startButton.setEnabled(true);
+            cancelButton.setEnabled(false);
+            try {
+                get();
+                progressBar.setString("Done: " + sweep.getCellCount() + " cells");
+            } catch (CancellationException | InterruptedException ex) {
+                progressBar.setString("Cancelled");
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof CancellationException) {
+                    progressBar.setString("Cancelled");
+                    return;
+                }
+                ex.getCause().printStackTrace();
+                progressBar.setString("Failed");
+                JOptionPane.showMessageDialog(SweepFrame.this,
+                        "Sweep failed: " + ex.getCause(),
+                        "Parameter Sweep",
+                        JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+}
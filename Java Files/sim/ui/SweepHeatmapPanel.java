@@ -0,0 +1,200 @@
+package sim.ui;
+
+import sim.service.ParameterSweep;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Heatmap of a {@link ParameterSweep}: the first axis across, the second down (a
+ * one-axis sweep is a single row), and a third axis shown one slice at a time.
+ * Cells are filled in as they finish; the color scale follows the largest value
+ * finished so far. Hovering a cell shows its values.
+ */
+public class SweepHeatmapPanel extends JPanel {
+    private static final int MARGIN_LEFT = 70;
+    private static final int MARGIN_BOTTOM = 40;
+    private static final int MARGIN_TOP = 10;
+    private static final int MARGIN_RIGHT = 10;
+    private static final Color PENDING = new Color(225, 225, 225);
+
+    private final ParameterSweep sweep;
+    private final ParameterSweep.Cell[] cells;
+    private ToIntFunction<ParameterSweep.Cell> metric = ParameterSweep.Cell::getMissedPassengers;
+    private int slice;
+    private int maxValue;
+
+    public SweepHeatmapPanel(ParameterSweep sweep) {
+        this.sweep = sweep;
+        this.cells = new ParameterSweep.Cell[sweep.getCellCount()];
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(720, 520));
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /** Adds a finished cell. */
+    public void addCell(ParameterSweep.Cell cell) {
+        cells[cell.getIndex()] = cell;
+        maxValue = Math.max(maxValue, metric.applyAsInt(cell));
+        repaint();
+    }
+
+    /** Switches the value shown (e.g. missed passengers, peak hold-room population). */
+    public void setMetric(ToIntFunction<ParameterSweep.Cell> metric) {
+        this.metric = metric;
+        maxValue = 0;
+        for (ParameterSweep.Cell cell : cells) {
+            if (cell != null) maxValue = Math.max(maxValue, metric.applyAsInt(cell));
+        }
+        repaint();
+    }
+
+    /** Shows value {@code slice} of the third axis. */
+    public void setSlice(int slice) {
+        this.slice = slice;
+        repaint();
+    }
+
+    // ============================
+    // Painting
+    // ============================
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        List<ParameterSweep.Axis> axes = sweep.getAxes();
+        int cols = axes.get(0).size();
+        int rows = axes.size() > 1 ? axes.get(1).size() : 1;
+        Rectangle plot = plotArea();
+        FontMetrics fm = g2.getFontMetrics();
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Rectangle box = cellBounds(plot, cols, rows, c, r);
+                ParameterSweep.Cell cell = cells[cellIndex(c, r)];
+                if (cell == null) {
+                    g2.setColor(PENDING);
+                    g2.fillRect(box.x, box.y, box.width, box.height);
+                    continue;
+                }
+                int value = metric.applyAsInt(cell);
+                g2.setColor(heat(value));
+                g2.fillRect(box.x, box.y, box.width, box.height);
+
+                String text = String.valueOf(value);
+                if (box.width > fm.stringWidth(text) + 4 && box.height > fm.getAscent() + 2) {
+                    g2.setColor(value * 2 > maxValue ? Color.WHITE : Color.BLACK);
+                    g2.drawString(text, box.x + (box.width - fm.stringWidth(text)) / 2,
+                            box.y + (box.height + fm.getAscent()) / 2 - 2);
+                }
+            }
+        }
+
+        g2.setColor(Color.DARK_GRAY);
+        g2.drawRect(plot.x, plot.y, plot.width, plot.height);
+
+        // axis labels: values where they fit, then the parameter names
+        int lastRight = Integer.MIN_VALUE;
+        for (int c = 0; c < cols; c++) {
+            Rectangle box = cellBounds(plot, cols, rows, c, 0);
+            String text = format(axes.get(0), c);
+            int x = box.x + (box.width - fm.stringWidth(text)) / 2;
+            if (x <= lastRight + 4) continue;
+            g2.drawString(text, x, plot.y + plot.height + fm.getAscent() + 2);
+            lastRight = x + fm.stringWidth(text);
+        }
+        String xLabel = axes.get(0).getParameter().getLabel();
+        g2.drawString(xLabel, plot.x + (plot.width - fm.stringWidth(xLabel)) / 2, getHeight() - 6);
+
+        if (axes.size() > 1) {
+            int lastBaseline = Integer.MIN_VALUE;
+            for (int r = 0; r < rows; r++) {
+                Rectangle box = cellBounds(plot, cols, rows, 0, r);
+                int y = box.y + (box.height + fm.getAscent()) / 2;
+                if (y < lastBaseline + fm.getHeight()) continue;
+                String text = format(axes.get(1), r);
+                g2.drawString(text, plot.x - fm.stringWidth(text) - 6, y);
+                lastBaseline = y;
+            }
+            String yLabel = axes.get(1).getParameter().getLabel();
+            Graphics2D rotated = (Graphics2D) g2.create();
+            rotated.rotate(-Math.PI / 2);
+            rotated.drawString(yLabel, -(plot.y + (plot.height + fm.stringWidth(yLabel)) / 2), fm.getAscent());
+            rotated.dispose();
+        }
+    }
+
+    /** White at 0 to red at the largest finished value. */
+    private Color heat(int value) {
+        float t = maxValue <= 0 ? 0f : Math.min(1f, value / (float) maxValue);
+        return new Color(1f, 1f - 0.85f * t, 1f - 0.85f * t);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        List<ParameterSweep.Axis> axes = sweep.getAxes();
+        int cols = axes.get(0).size();
+        int rows = axes.size() > 1 ? axes.get(1).size() : 1;
+        Rectangle plot = plotArea();
+        if (!plot.contains(e.getPoint())) return null;
+
+        int c = Math.min(cols - 1, (e.getX() - plot.x) * cols / Math.max(1, plot.width));
+        int r = Math.min(rows - 1, (e.getY() - plot.y) * rows / Math.max(1, plot.height));
+        int index = cellIndex(c, r);
+        int[] coordinates = sweep.coordinates(index);
+
+        StringBuilder tip = new StringBuilder("<html>");
+        for (int a = 0; a < axes.size(); a++) {
+            tip.append(axes.get(a).getParameter().getLabel()).append(": ")
+               .append(format(axes.get(a), coordinates[a])).append("<br>");
+        }
+        ParameterSweep.Cell cell = cells[index];
+        if (cell == null) {
+            tip.append("<i>running...</i>");
+        } else {
+            tip.append("Missed passengers: ").append(cell.getMissedPassengers()).append("<br>")
+               .append("Peak hold-room population: ").append(cell.getPeakHoldRoomPopulation());
+        }
+        return tip.append("</html>").toString();
+    }
+
+    // ============================
+    // Geometry
+    // ============================
+
+    private Rectangle plotArea() {
+        return new Rectangle(MARGIN_LEFT, MARGIN_TOP,
+                Math.max(1, getWidth() - MARGIN_LEFT - MARGIN_RIGHT),
+                Math.max(1, getHeight() - MARGIN_TOP - MARGIN_BOTTOM));
+    }
+
+    private static Rectangle cellBounds(Rectangle plot, int cols, int rows, int c, int r) {
+        int x0 = plot.x + c * plot.width / cols;
+        int x1 = plot.x + (c + 1) * plot.width / cols;
+        int y0 = plot.y + r * plot.height / rows;
+        int y1 = plot.y + (r + 1) * plot.height / rows;
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    /** Grid index of column {@code c}, row {@code r} in the current slice. */
+    private int cellIndex(int c, int r) {
+        List<ParameterSweep.Axis> axes = sweep.getAxes();
+        int index = c;
+        if (axes.size() > 1) index = index * axes.get(1).size() + r;
+        for (int a = 2; a < axes.size(); a++) index = index * axes.get(a).size() + (a == 2 ? slice : 0);
+        return index;
+    }
+
+    static String format(ParameterSweep.Axis axis, int index) {
+        double v = axis.value(index);
+        return axis.getParameter().isInteger() || v == Math.rint(v)
+                ? String.valueOf((long) v)
+                : String.format("%.2f", v);
+    }
+}
@@ -3,6 +3,7 @@ package sim.ui;
 
 
 import sim.model.Flight;
+import sim.model.TicketCounterConfig;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
@@ -2,7 +2,7 @@ package sim.ui;
 
 import sim.model.Flight;
 import sim.model.Passenger;
-import sim.service.SimulationEngine;
+import sim.service.IntervalFrame;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,30 +13,30 @@ import java.util.List;
  * Panel displaying ticket lines with scrollable grids.
  */
 public class TicketLinesPanel extends JPanel {
-    private final SimulationEngine engine;
     private final int[] queuedOffsets;
     private final int[] servedOffsets;
     private final List<Rectangle> clickableAreas;
     private final List<Passenger> clickablePassengers;
     private final List<Rectangle> counterAreas;
     private final Flight filterFlight;
+    private IntervalFrame frame;
 
-    public TicketLinesPanel(SimulationEngine engine,
+    public TicketLinesPanel(IntervalFrame frame,
                              List<Rectangle> clickableAreas,
                              List<Passenger> clickablePassengers,
                              Flight filterFlight) {
-        this.engine = engine;
+        this.frame = frame;
         this.clickableAreas = clickableAreas;
         this.clickablePassengers = clickablePassengers;
         this.counterAreas = new ArrayList<>();          // << new list for counters
         this.filterFlight = filterFlight;
-        this.queuedOffsets = new int[engine.getTicketLines().size()];
-        this.servedOffsets = new int[engine.getTicketLines().size()];
+        this.queuedOffsets = new int[frame.getQueuedTicket().size()];
+        this.servedOffsets = new int[frame.getQueuedTicket().size()];
         setFocusable(true);
 
         // install shared scroll handler
         ScrollMouseHandler handler = new ScrollMouseHandler.TicketScrollHandler(
-            engine, clickableAreas, clickablePassengers,
+            () -> this.frame, clickableAreas, clickablePassengers,
             queuedOffsets, servedOffsets,
             filterFlight,
             counterAreas
@@ -45,6 +45,12 @@ public class TicketLinesPanel extends JPanel {
         addMouseMotionListener(handler);
     }
 
+    /** Switches the panel to another interval. */
+    public void setFrame(IntervalFrame frame) {
+        this.frame = frame;
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -52,7 +58,7 @@ public class TicketLinesPanel extends JPanel {
         GridRenderer.renderTicketLines(
             this,
             g,
-            engine,
+            frame,
             queuedOffsets,
             servedOffsets,
             clickableAreas,
@@ -63,19 +69,11 @@ public class TicketLinesPanel extends JPanel {
     }
 
     /**
-     * @return the maximum size that line #lineIdx ever reached
-     *         across all history intervals.
+     * @return the maximum size that line #lineIdx reached
+     *         across the intervals computed when the frame was captured.
      */
     public int getMaxQueuedForLine(int lineIdx) {
-        int max = 0;
-        // iterate through each saved interval of queued-ticket history
-        for (List<List<Passenger>> interval : engine.getHistoryQueuedTicket()) {
-            int sz = interval.get(lineIdx).size();
-            if (sz > max) {
-                max = sz;
-            }
-        }
-        return max;
+        return frame.getMaxQueuedTicket(lineIdx);
     }
 
     /**
@@ -87,7 +85,7 @@ public class TicketLinesPanel extends JPanel {
         // keep current width calculation
         int width = super.getPreferredSize().width;
         // number of ticket lines
-        int lines = engine.getTicketLines().size();
+        int lines = frame.getQueuedTicket().size();
         // 50px top + 50px bottom margins
         int height = 50 + lines * GridRenderer.MIN_LINE_SPACING + 50;
         return new Dimension(width, height);